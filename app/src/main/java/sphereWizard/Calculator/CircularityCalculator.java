@@ -1,8 +1,8 @@
 package sphereWizard.Calculator;
 
-import sphereWizard.Enums.OutputFlowTypes;
 import sphereWizard.Interfaces.sendModeledData;
 import sphereWizard.Interfaces.sendResults;
+import sphereWizard.ProductSystem.FlowTotals;
 import sphereWizard.ProductSystem.ProductSystem;
 
 /**
@@ -16,6 +16,12 @@ import sphereWizard.ProductSystem.ProductSystem;
  * value of X.
  * </p>
  *
+ * <p>
+ * The calculator keeps every value in its fields, so an instance must not be
+ * shared between threads. {@link CircularityEngine} does the same
+ * calculations without any state and returns a {@link CircularityResult}.
+ * </p>
+ *
  * @author Group 22
  * @version 1.0
  */
@@ -47,6 +53,16 @@ public class CircularityCalculator implements sendResults {
      */
     private double circularityIndex;
 
+    /**
+     * The totals, lifetime, utility and number of processes the current
+     * results were calculated from. The totals are immutable, and the product
+     * system returns the same instance until its data changes.
+     */
+    private FlowTotals calculatedTotals;
+    private int calculatedLifetime;
+    private int calculatedUtility;
+    private int calculatedProcessCount;
+
     // /**
     // * The Total Circularity Index (MCItotal) used in circularity calculations.
     // */
@@ -66,22 +82,11 @@ public class CircularityCalculator implements sendResults {
      */
     protected void calculateX() {
         // (L / Lavg) * (U / Uavg)
-        int processSize = productSystem.getProductSystem().getProductSystemData().getProductSystemData().getProcesses()
-                .size();
-        double Lavg = 0.0;
-        double Uavg = 0.0;
-
-        if (processSize > 0) {
-            Lavg = ((double) productSystem.getProductSystem().getProductLifetime() / processSize);
-            Uavg = ((double) productSystem.getProductSystem().getProductUtility() / processSize);
-        }
+        ProductSystem system = productSystem.getProductSystem();
+        int processSize = system.getProductSystemData().getProductSystemData().getProcesses().size();
 
-        if (Lavg == 0 || Uavg == 0) {
-            X = 0.0;
-        } else {
-            X = ((productSystem.getProductSystem().getProductLifetime() / Lavg)
-                    * (productSystem.getProductSystem().getProductUtility() / Uavg));
-        }
+        X = CircularityEngine.calculateX(system.getProductLifetime(), system.getProductUtility(), processSize);
+        calculatedTotals = null;
     }
 
     /**
@@ -89,50 +94,69 @@ public class CircularityCalculator implements sendResults {
      */
     protected void calculateUtilityFactor() {
         // F(X) = 0.9 / X
-        if (X == 0) {
-            utilityFactor = 0.0;
-        } else {
-            utilityFactor = (0.9 / X);
-        }
+        utilityFactor = CircularityEngine.calculateUtilityFactor(X);
+        calculatedTotals = null;
     }
 
     /**
      * Calculates the Linear Flow Index (LFI) based on the product system data.
      */
     protected void calculateLinearFlowIndex() {
-        // LFI = (2V - Rr) / (2M + ((Wf - Wc)/ 2))
-
-        // Get the value of V from the product system
-        double V = productSystem.getProductSystem().calculateFlowValue(OutputFlowTypes.VIRGIN_MATERIAL);
-
-        // Get the value of Rr from the product system
-        double Rr = productSystem.getProductSystem().calculateFlowValue(OutputFlowTypes.RECOVERED_RECYCLED_MATERIAL);
-
-        // Get the value of M from the product system
-        double M = productSystem.getProductSystem().calculateMass();
-
-        // Get the value of Wf from the product system, 5% the virgin material is wf
-        double Wf = productSystem.getProductSystem().calculateFlowValue(OutputFlowTypes.VIRGIN_MATERIAL) * 0.05;
-
-        // Get the value of Wc from the product system, 5% the recicled material is wc
-        double Wc = productSystem.getProductSystem().calculateFlowValue(OutputFlowTypes.RECYCLED_MATERIAL) * 0.05;
+        calculateLinearFlowIndex(productSystem.getProductSystem().calculateFlowTotals());
+    }
 
-        linearFlowIndex = (2 * V - Rr) / (2 * M + ((Wf - Wc) / 2));
+    /**
+     * Calculates the Linear Flow Index (LFI) from totals that were already
+     * calculated for the product system.
+     *
+     * @param totals The totals of every output flow type.
+     */
+    protected void calculateLinearFlowIndex(FlowTotals totals) {
+        // LFI = (2V - Rr) / (2M + ((Wf - Wc)/ 2))
+        linearFlowIndex = CircularityEngine.calculateLinearFlowIndex(totals);
+        calculatedTotals = null;
     }
 
     /**
      * Calculates the Circularity Index (MCIp) based on the provided formulas.
+     * The results are kept until the data, the lifetime or the utility of the
+     * product system change, so calling this again costs nothing.
      *
      * @return The calculated Circularity Index (MCIp).
      */
     public double calculateCircularityIndex() {
+        return calculateCircularityIndex(productSystem.getProductSystem().calculateFlowTotals());
+    }
+
+    /**
+     * Calculates the Circularity Index (MCIp) from totals that were already
+     * calculated for the product system, for example by
+     * {@link ProductSystem#calculateAllMethods()}, without traversing the
+     * processes again.
+     *
+     * @param totals The totals of every output flow type.
+     * @return The calculated Circularity Index (MCIp).
+     */
+    public double calculateCircularityIndex(FlowTotals totals) {
         // MCIp = 1 - LFI * F(X)
+        ProductSystem system = productSystem.getProductSystem();
+        int processCount = system.getProductSystemData().getProductSystemData().getProcesses().size();
+
+        if (totals == calculatedTotals && system.getProductLifetime() == calculatedLifetime
+                && system.getProductUtility() == calculatedUtility && processCount == calculatedProcessCount) {
+            // Nothing the results depend on changed
+            return circularityIndex;
+        }
 
-        calculateLinearFlowIndex();
+        calculateLinearFlowIndex(totals);
         calculateX();
         calculateUtilityFactor();
         circularityIndex = 1 - (linearFlowIndex * utilityFactor);
 
+        calculatedTotals = totals;
+        calculatedLifetime = system.getProductLifetime();
+        calculatedUtility = system.getProductUtility();
+        calculatedProcessCount = processCount;
         return circularityIndex;
     }
 
@@ -190,6 +214,7 @@ public class CircularityCalculator implements sendResults {
      */
     public void setProductSystem(ProductSystem productSystem) {
         this.productSystem = productSystem;
+        this.calculatedTotals = null;
     }
 
     /**
@@ -0,0 +1,185 @@
+package sphereWizard.Calculator;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import sphereWizard.FlowProcessStructure.Process;
+import sphereWizard.Interfaces.sendFileData;
+import sphereWizard.ProductSystem.FlowTableSummary;
+import sphereWizard.ProductSystem.FlowTotals;
+
+/**
+ * The CircularityEngine class calculates the circularity of product systems
+ * without keeping any state between calculations.
+ *
+ * <p>
+ * Unlike {@link CircularityCalculator}, which stores every intermediate value
+ * in its fields, the engine takes the product system data and the product
+ * parameters (L and U) and returns a {@link CircularityResult}. A single
+ * engine can therefore be shared by any number of threads, each calculating
+ * its own product system. The results are exactly the ones the calculator
+ * gives for the same data.
+ * </p>
+ *
+ * <p>
+ * The data is read once per calculation and is expected not to change during
+ * it; a filtered view from
+ * {@link sphereWizard.ProductSystem.ProductSystemData#filter(int, String)}
+ * fails instead of being read while processes are added to or removed from
+ * its data.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public final class CircularityEngine {
+
+    /**
+     * The pool used to calculate the flow totals, or {@code null} to calculate
+     * them on the calling thread.
+     */
+    private final ForkJoinPool aggregationPool;
+
+    /**
+     * Constructs an engine that calculates the flow totals on the calling
+     * thread.
+     */
+    public CircularityEngine() {
+        this(null);
+    }
+
+    /**
+     * Constructs an engine that calculates the flow totals on a fork-join pool.
+     *
+     * @param aggregationPool The pool, or {@code null} to calculate on the
+     *                        calling thread.
+     * @see FlowTotals#ofParallel(List, ForkJoinPool)
+     */
+    public CircularityEngine(ForkJoinPool aggregationPool) {
+        this.aggregationPool = aggregationPool;
+    }
+
+    /**
+     * Calculates the circularity of a product system.
+     *
+     * @param productSystemData The data of the product system.
+     * @param productLifetime   The lifetime of the product (L).
+     * @param productUtility    The utility of the product (number of uses) (U).
+     * @return The result of the calculation.
+     */
+    public CircularityResult calculate(sendFileData productSystemData, int productLifetime, int productUtility) {
+        List<Process> processes = productSystemData.getProductSystemData().getProcesses();
+
+        FlowTotals totals;
+        if (aggregationPool == null) {
+            totals = FlowTotals.of(processes);
+        } else {
+            totals = FlowTotals.ofParallel(processes, aggregationPool);
+        }
+        return calculate(totals, processes.size(), productLifetime, productUtility);
+    }
+
+    /**
+     * Calculates the circularity of a product system from its flow totals.
+     *
+     * @param totals          The totals of every output flow type.
+     * @param processCount    The number of processes of the product system.
+     * @param productLifetime The lifetime of the product (L).
+     * @param productUtility  The utility of the product (number of uses) (U).
+     * @return The result of the calculation.
+     */
+    public CircularityResult calculate(FlowTotals totals, int processCount, int productLifetime,
+            int productUtility) {
+        double x = calculateX(productLifetime, productUtility, processCount);
+        double utilityFactor = calculateUtilityFactor(x);
+        double linearFlowIndex = calculateLinearFlowIndex(totals);
+
+        // MCIp = 1 - LFI * F(X)
+        double circularityIndex = 1 - (linearFlowIndex * utilityFactor);
+
+        return new CircularityResult(productLifetime, productUtility, totals.getWasteEliminated(),
+                totals.getRecycledInput(), totals.getMass(), x, utilityFactor, linearFlowIndex, circularityIndex);
+    }
+
+    /**
+     * Calculates the circularity of a flow table summarized by
+     * {@link sphereWizard.ProductSystem.FlowTableReader#summarize(String)},
+     * without the table ever being held in memory.
+     *
+     * @param summary         The summary of the flow table.
+     * @param productLifetime The lifetime of the product (L).
+     * @param productUtility  The utility of the product (number of uses) (U).
+     * @return The result of the calculation.
+     */
+    public CircularityResult calculate(FlowTableSummary summary, int productLifetime, int productUtility) {
+        return calculate(summary.getTotals(), summary.getProcessCount(), productLifetime, productUtility);
+    }
+
+    /**
+     * Calculates X based on the product's lifespan and utility values.
+     *
+     * @param productLifetime The lifetime of the product (L).
+     * @param productUtility  The utility of the product (U).
+     * @param processCount    The number of processes of the product system.
+     * @return The value of X.
+     */
+    static double calculateX(int productLifetime, int productUtility, int processCount) {
+        // (L / Lavg) * (U / Uavg)
+        double Lavg = 0.0;
+        double Uavg = 0.0;
+
+        if (processCount > 0) {
+            Lavg = ((double) productLifetime / processCount);
+            Uavg = ((double) productUtility / processCount);
+        }
+
+        if (Lavg == 0 || Uavg == 0) {
+            return 0.0;
+        }
+        return ((productLifetime / Lavg) * (productUtility / Uavg));
+    }
+
+    /**
+     * Calculates the utility factor (F(X)) based on the value of X.
+     *
+     * @param x The value of X.
+     * @return The utility factor.
+     */
+    static double calculateUtilityFactor(double x) {
+        // F(X) = 0.9 / X
+        if (x == 0) {
+            return 0.0;
+        }
+        return (0.9 / x);
+    }
+
+    /**
+     * Calculates the Linear Flow Index (LFI) from the flow totals.
+     *
+     * @param totals The totals of every output flow type.
+     * @return The Linear Flow Index.
+     */
+    static double calculateLinearFlowIndex(FlowTotals totals) {
+        return calculateLinearFlowIndex(totals.getVirginMaterial(), totals.getRecycledMaterial(),
+                totals.getRecoveredRecycledMaterial());
+    }
+
+    /**
+     * Calculates the Linear Flow Index (LFI) from the material totals.
+     *
+     * @param V  The virgin material.
+     * @param R  The recycled material.
+     * @param Rr The recovered recycled material.
+     * @return The Linear Flow Index.
+     */
+    static double calculateLinearFlowIndex(double V, double R, double Rr) {
+        // LFI = (2V - Rr) / (2M + ((Wf - Wc)/ 2)), with M = V + (R + Rr)
+        double M = V + (R + Rr);
+
+        // 5% of the virgin material is Wf, 5% of the recycled material is Wc
+        double Wf = V * 0.05;
+        double Wc = R * 0.05;
+
+        return (2 * V - Rr) / (2 * M + ((Wf - Wc) / 2));
+    }
+}
@@ -0,0 +1,29 @@
+package sphereWizard.Calculator;
+
+/**
+ * The CircularityResult record holds everything calculated for one product
+ * system: the product parameters, the quantities derived from its flows and
+ * the circularity indices.
+ *
+ * <p>
+ * Results are immutable, so they can be shared between threads and passed to
+ * the {@link sphereWizard.Exporter.ReportMaker} once the calculation is done.
+ * </p>
+ *
+ * @param productLifetime  The lifetime of the product (L).
+ * @param productUtility   The utility of the product (number of uses) (U).
+ * @param wasteEliminated  The total waste to be eliminated (W).
+ * @param recycledInput    The input of recycled value (Ri).
+ * @param mass             The mass (M).
+ * @param x                The value of X.
+ * @param utilityFactor    The utility factor (F(X)).
+ * @param linearFlowIndex  The Linear Flow Index (LFI).
+ * @param circularityIndex The Circularity Index (MCIp).
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public record CircularityResult(int productLifetime, int productUtility, double wasteEliminated,
+        double recycledInput, double mass, double x, double utilityFactor, double linearFlowIndex,
+        double circularityIndex) {
+}
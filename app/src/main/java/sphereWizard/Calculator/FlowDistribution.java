@@ -0,0 +1,130 @@
+package sphereWizard.Calculator;
+
+import java.util.SplittableRandom;
+
+/**
+ * The FlowDistribution class describes the uncertainty of a flow value, as a
+ * distribution of factors applied to the value read from the flow table. A
+ * factor of 1 gives back the value from the table.
+ *
+ * <p>
+ * Distributions are immutable and are used by {@link MonteCarloSimulation}.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public final class FlowDistribution {
+
+    /**
+     * The shapes of distribution.
+     */
+    private enum Kind {
+        UNIFORM, TRIANGULAR, LOGNORMAL
+    }
+
+    private final Kind kind;
+    private final double low;
+    private final double mode;
+    private final double high;
+    private final double sigma;
+
+    private FlowDistribution(Kind kind, double low, double mode, double high, double sigma) {
+        this.kind = kind;
+        this.low = low;
+        this.mode = mode;
+        this.high = high;
+        this.sigma = sigma;
+    }
+
+    /**
+     * Creates a uniform distribution of factors between two bounds. For
+     * example, {@code uniform(0.9, 1.1)} means the value is known within 10%.
+     *
+     * @param low  The smallest factor.
+     * @param high The largest factor.
+     * @return The distribution.
+     */
+    public static FlowDistribution uniform(double low, double high) {
+        if (!(low <= high)) {
+            throw new IllegalArgumentException("Expected low <= high: " + low + ", " + high);
+        }
+        return new FlowDistribution(Kind.UNIFORM, low, (low + high) / 2, high, 0);
+    }
+
+    /**
+     * Creates a triangular distribution of factors between two bounds, with
+     * the given most likely factor.
+     *
+     * @param low  The smallest factor.
+     * @param mode The most likely factor.
+     * @param high The largest factor.
+     * @return The distribution.
+     */
+    public static FlowDistribution triangular(double low, double mode, double high) {
+        if (!(low <= mode && mode <= high)) {
+            throw new IllegalArgumentException("Expected low <= mode <= high: " + low + ", " + mode + ", " + high);
+        }
+        return new FlowDistribution(Kind.TRIANGULAR, low, mode, high, 0);
+    }
+
+    /**
+     * Creates a lognormal distribution of factors with a median of 1, so the
+     * value from the table is the median value.
+     *
+     * @param sigma The standard deviation of the logarithm of the factor.
+     * @return The distribution.
+     */
+    public static FlowDistribution lognormal(double sigma) {
+        if (!(sigma >= 0)) {
+            throw new IllegalArgumentException("Sigma must not be negative: " + sigma);
+        }
+        return new FlowDistribution(Kind.LOGNORMAL, 0, 1, Double.POSITIVE_INFINITY, sigma);
+    }
+
+    /**
+     * Draws a value of a flow.
+     *
+     * @param value  The value from the flow table.
+     * @param random The source of random numbers.
+     * @return The value multiplied by a random factor.
+     */
+    public double sample(double value, SplittableRandom random) {
+        switch (kind) {
+            case UNIFORM:
+                return value * (low + (high - low) * random.nextDouble());
+            case TRIANGULAR:
+                return value * triangularFactor(random.nextDouble());
+            case LOGNORMAL:
+                return value * Math.exp(sigma * random.nextGaussian());
+            default:
+                throw new IllegalStateException("Unknown distribution: " + kind);
+        }
+    }
+
+    /**
+     * Inverts the cumulative distribution function of the triangle.
+     */
+    private double triangularFactor(double u) {
+        double width = high - low;
+        if (width == 0) {
+            return mode;
+        }
+        if (u < (mode - low) / width) {
+            return low + Math.sqrt(u * width * (mode - low));
+        }
+        return high - Math.sqrt((1 - u) * width * (high - mode));
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case UNIFORM:
+                return "uniform(" + low + ", " + high + ")";
+            case TRIANGULAR:
+                return "triangular(" + low + ", " + mode + ", " + high + ")";
+            default:
+                return "lognormal(" + sigma + ")";
+        }
+    }
+}
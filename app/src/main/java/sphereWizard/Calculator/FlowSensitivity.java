@@ -0,0 +1,34 @@
+package sphereWizard.Calculator;
+
+import sphereWizard.Enums.OutputFlowTypes;
+import sphereWizard.FlowProcessStructure.Process;
+
+/**
+ * The FlowSensitivity record describes how much one output flow drives the
+ * Circularity Index (MCIp) of its product system.
+ *
+ * @param process         The process of the flow.
+ * @param outputFlowIndex The position of the flow in the output flows of the
+ *                        process.
+ * @param type            The type of the flow.
+ * @param value           The value of the flow.
+ * @param derivative      The derivative of MCIp with respect to the value of
+ *                        the flow.
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public record FlowSensitivity(Process process, int outputFlowIndex, OutputFlowTypes type, double value,
+        double derivative) {
+
+    /**
+     * Gets the first-order change of MCIp caused by the flow, that is the
+     * derivative multiplied by the value. Flows are ranked by the absolute
+     * value of this influence.
+     *
+     * @return The influence of the flow.
+     */
+    public double influence() {
+        return derivative * value;
+    }
+}
@@ -0,0 +1,119 @@
+package sphereWizard.Calculator;
+
+/**
+ * The MonteCarloResult class holds the distribution of the Circularity Index
+ * (MCIp) obtained by a {@link MonteCarloSimulation}: its mean, variance, range
+ * and percentiles.
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public final class MonteCarloResult {
+
+    /**
+     * The sampled indices, in ascending order.
+     */
+    private final double[] sortedSamples;
+
+    private final double mean;
+    private final double variance;
+
+    /**
+     * Constructs a result from the sampled indices.
+     *
+     * @param sortedSamples The sampled indices, in ascending order. The array
+     *                      is not copied.
+     * @param mean          The mean of the samples.
+     * @param variance      The sample variance.
+     */
+    MonteCarloResult(double[] sortedSamples, double mean, double variance) {
+        this.sortedSamples = sortedSamples;
+        this.mean = mean;
+        this.variance = variance;
+    }
+
+    /**
+     * Gets the number of samples.
+     *
+     * @return The number of samples.
+     */
+    public int getSampleCount() {
+        return sortedSamples.length;
+    }
+
+    /**
+     * Gets the mean of the Circularity Index.
+     *
+     * @return The mean.
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Gets the sample variance of the Circularity Index.
+     *
+     * @return The variance, 0 with fewer than two samples.
+     */
+    public double getVariance() {
+        return variance;
+    }
+
+    /**
+     * Gets the standard deviation of the Circularity Index.
+     *
+     * @return The standard deviation.
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(variance);
+    }
+
+    /**
+     * Gets the smallest Circularity Index drawn.
+     *
+     * @return The minimum.
+     */
+    public double getMin() {
+        return sortedSamples[0];
+    }
+
+    /**
+     * Gets the largest Circularity Index drawn.
+     *
+     * @return The maximum.
+     */
+    public double getMax() {
+        return sortedSamples[sortedSamples.length - 1];
+    }
+
+    /**
+     * Gets a percentile of the Circularity Index, interpolating linearly
+     * between the two closest samples.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The value below which that percentage of the samples falls.
+     */
+    public double getPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile out of range: " + percentile);
+        }
+
+        double position = percentile / 100 * (sortedSamples.length - 1);
+        int below = (int) Math.floor(position);
+        int above = Math.min(below + 1, sortedSamples.length - 1);
+        double fraction = position - below;
+        return sortedSamples[below] + fraction * (sortedSamples[above] - sortedSamples[below]);
+    }
+
+    /**
+     * Returns a string representation of the MonteCarloResult.
+     *
+     * @return A string representation of the MonteCarloResult.
+     */
+    @Override
+    public String toString() {
+        return "MonteCarloResult {samples=" + getSampleCount() + ", mean=" + mean + ", standardDeviation="
+                + getStandardDeviation() + ", p5=" + getPercentile(5) + ", p50=" + getPercentile(50) + ", p95="
+                + getPercentile(95) + "}";
+    }
+}
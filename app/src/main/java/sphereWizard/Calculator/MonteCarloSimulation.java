@@ -0,0 +1,298 @@
+package sphereWizard.Calculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import sphereWizard.Enums.OutputFlowTypes;
+import sphereWizard.FlowProcessStructure.OutputFlow;
+import sphereWizard.FlowProcessStructure.Process;
+import sphereWizard.Interfaces.sendFileData;
+
+/**
+ * The MonteCarloSimulation class estimates the distribution of the Circularity
+ * Index (MCIp) of a product system whose output flow values are uncertain.
+ *
+ * <p>
+ * Each output flow can be given a {@link FlowDistribution}, either on its own,
+ * for every flow of the processes of a category, or for every flow. Flows
+ * without a distribution keep their value. Only virgin, recycled and recovered
+ * recycled material flows take part in the index, so other flows are ignored.
+ * </p>
+ *
+ * <p>
+ * The flows are read once per run into primitive arrays, and every sample
+ * then only draws the uncertain values and evaluates the Linear Flow Index
+ * (LFI) and MCIp, without allocating. Samples are drawn in fixed-size chunks,
+ * each with its own {@link SplittableRandom} split from the seed in chunk
+ * order, so a run gives the same result on one thread or on a pool of any
+ * size.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public class MonteCarloSimulation {
+
+    /**
+     * Number of samples drawn by one task.
+     */
+    static final int CHUNK_SIZE = 4096;
+
+    private static final byte VIRGIN = 0;
+    private static final byte RECYCLED = 1;
+    private static final byte RECOVERED = 2;
+
+    private final sendFileData productSystemData;
+    private final int productLifetime;
+    private final int productUtility;
+
+    private FlowDistribution defaultDistribution;
+    private final Map<String, FlowDistribution> categoryDistributions = new HashMap<>();
+    private final Map<Process, Map<Integer, FlowDistribution>> flowDistributions = new IdentityHashMap<>();
+
+    /**
+     * Constructs a simulation for a product system.
+     *
+     * @param productSystemData The data of the product system.
+     * @param productLifetime   The lifetime of the product (L).
+     * @param productUtility    The utility of the product (number of uses) (U).
+     */
+    public MonteCarloSimulation(sendFileData productSystemData, int productLifetime, int productUtility) {
+        this.productSystemData = productSystemData;
+        this.productLifetime = productLifetime;
+        this.productUtility = productUtility;
+    }
+
+    /**
+     * Sets the distribution of every output flow that has no other
+     * distribution.
+     *
+     * @param distribution The distribution, or {@code null} to keep the values
+     *                     of those flows.
+     */
+    public void setDefaultDistribution(FlowDistribution distribution) {
+        this.defaultDistribution = distribution;
+    }
+
+    /**
+     * Sets the distribution of the output flows of every process of a category,
+     * unless a flow has its own distribution.
+     *
+     * @param processCategory The category of the processes.
+     * @param distribution    The distribution.
+     */
+    public void setCategoryDistribution(String processCategory, FlowDistribution distribution) {
+        categoryDistributions.put(processCategory, distribution);
+    }
+
+    /**
+     * Sets the distribution of one output flow.
+     *
+     * @param process         The process of the flow.
+     * @param outputFlowIndex The position of the flow in the output flows of the
+     *                        process.
+     * @param distribution    The distribution.
+     */
+    public void setFlowDistribution(Process process, int outputFlowIndex, FlowDistribution distribution) {
+        if (outputFlowIndex < 0 || outputFlowIndex >= process.getOutputFlows().size()) {
+            throw new IndexOutOfBoundsException("No output flow " + outputFlowIndex + " in " + process.getName());
+        }
+        flowDistributions.computeIfAbsent(process, key -> new HashMap<>()).put(outputFlowIndex, distribution);
+    }
+
+    /**
+     * Draws samples of the Circularity Index on the calling thread.
+     *
+     * @param samples The number of samples.
+     * @param seed    The seed of the random numbers.
+     * @return The distribution of the Circularity Index.
+     */
+    public MonteCarloResult run(int samples, long seed) {
+        return run(samples, seed, null);
+    }
+
+    /**
+     * Draws samples of the Circularity Index on a fork-join pool. The result is
+     * the same as {@link #run(int, long)} with the same seed.
+     *
+     * @param samples The number of samples.
+     * @param seed    The seed of the random numbers.
+     * @param pool    The pool drawing the samples, or {@code null} to draw them
+     *                on the calling thread.
+     * @return The distribution of the Circularity Index.
+     */
+    public MonteCarloResult run(int samples, long seed, ForkJoinPool pool) {
+        if (samples < 1) {
+            throw new IllegalArgumentException("At least one sample is needed: " + samples);
+        }
+
+        Model model = buildModel();
+        int chunks = (samples + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        // Split the generators up front so that each chunk always gets the same one
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) {
+            randoms[c] = root.split();
+        }
+
+        double[] values = new double[samples];
+        double[] means = new double[chunks];
+        double[] squares = new double[chunks];
+
+        if (pool == null) {
+            for (int c = 0; c < chunks; c++) {
+                model.sampleChunk(c, randoms[c], values, means, squares);
+            }
+        } else {
+            pool.submit(() -> IntStream.range(0, chunks).parallel()
+                    .forEach(c -> model.sampleChunk(c, randoms[c], values, means, squares))).join();
+        }
+
+        // Merge the statistics of the chunks in order (Chan et al.)
+        double mean = 0;
+        double m2 = 0;
+        long count = 0;
+        for (int c = 0; c < chunks; c++) {
+            long chunkCount = Math.min(CHUNK_SIZE, samples - (long) c * CHUNK_SIZE);
+            long total = count + chunkCount;
+            double delta = means[c] - mean;
+            mean += delta * chunkCount / total;
+            m2 += squares[c] + delta * delta * count * chunkCount / total;
+            count = total;
+        }
+
+        Arrays.sort(values);
+        return new MonteCarloResult(values, mean, samples > 1 ? m2 / (samples - 1) : 0.0);
+    }
+
+    /**
+     * Reads the material flows of the product system into primitive arrays.
+     */
+    private Model buildModel() {
+        List<Process> processes = productSystemData.getProductSystemData().getProcesses();
+        Model model = new Model();
+
+        List<Byte> types = new ArrayList<>();
+        List<Double> values = new ArrayList<>();
+        List<FlowDistribution> distributions = new ArrayList<>();
+
+        for (Process process : processes) {
+            Map<Integer, FlowDistribution> ownDistributions = flowDistributions.get(process);
+            FlowDistribution categoryDistribution = categoryDistributions.getOrDefault(process.getCategory(),
+                    defaultDistribution);
+            List<OutputFlow> outputFlows = process.getOutputFlows();
+
+            for (int i = 0; i < outputFlows.size(); i++) {
+                OutputFlow outputFlow = outputFlows.get(i);
+                byte type = typeOf(outputFlow);
+                if (type < 0) {
+                    continue;
+                }
+
+                FlowDistribution distribution = categoryDistribution;
+                if (ownDistributions != null && ownDistributions.containsKey(i)) {
+                    distribution = ownDistributions.get(i);
+                }
+
+                if (distribution == null) {
+                    model.fixed[type] += outputFlow.getValue();
+                } else {
+                    types.add(type);
+                    values.add(outputFlow.getValue());
+                    distributions.add(distribution);
+                }
+            }
+        }
+
+        model.types = new byte[types.size()];
+        model.values = new double[types.size()];
+        model.distributions = distributions.toArray(new FlowDistribution[0]);
+        for (int i = 0; i < model.types.length; i++) {
+            model.types[i] = types.get(i);
+            model.values[i] = values.get(i);
+        }
+
+        double x = CircularityEngine.calculateX(productLifetime, productUtility, processes.size());
+        model.utilityFactor = CircularityEngine.calculateUtilityFactor(x);
+        return model;
+    }
+
+    private static byte typeOf(OutputFlow outputFlow) {
+        if (outputFlow == null || outputFlow.getName() == null) {
+            return -1;
+        }
+        if (outputFlow.getName() == OutputFlowTypes.VIRGIN_MATERIAL) {
+            return VIRGIN;
+        } else if (outputFlow.getName() == OutputFlowTypes.RECYCLED_MATERIAL) {
+            return RECYCLED;
+        } else if (outputFlow.getName() == OutputFlowTypes.RECOVERED_RECYCLED_MATERIAL) {
+            return RECOVERED;
+        }
+        return -1;
+    }
+
+    /**
+     * The material flows of the product system, split into the fixed totals and
+     * the uncertain flows.
+     */
+    private static final class Model {
+        private final double[] fixed = new double[3];
+        private byte[] types;
+        private double[] values;
+        private FlowDistribution[] distributions;
+        private double utilityFactor;
+
+        /**
+         * Draws the samples of one chunk and keeps their mean and sum of squared
+         * differences (Welford).
+         */
+        private void sampleChunk(int chunk, SplittableRandom random, double[] samples, double[] means,
+                double[] squares) {
+            int from = chunk * CHUNK_SIZE;
+            int to = Math.min(samples.length, from + CHUNK_SIZE);
+            double mean = 0;
+            double m2 = 0;
+
+            for (int s = from; s < to; s++) {
+                double circularityIndex = sample(random);
+                samples[s] = circularityIndex;
+
+                double delta = circularityIndex - mean;
+                mean += delta / (s - from + 1);
+                m2 += delta * (circularityIndex - mean);
+            }
+
+            means[chunk] = mean;
+            squares[chunk] = m2;
+        }
+
+        private double sample(SplittableRandom random) {
+            double virgin = fixed[VIRGIN];
+            double recycled = fixed[RECYCLED];
+            double recovered = fixed[RECOVERED];
+
+            for (int i = 0; i < types.length; i++) {
+                double value = distributions[i].sample(values[i], random);
+                if (types[i] == VIRGIN) {
+                    virgin += value;
+                } else if (types[i] == RECYCLED) {
+                    recycled += value;
+                } else {
+                    recovered += value;
+                }
+            }
+
+            // MCIp = 1 - LFI * F(X)
+            double linearFlowIndex = CircularityEngine.calculateLinearFlowIndex(virgin, recycled, recovered);
+            return 1 - (linearFlowIndex * utilityFactor);
+        }
+    }
+}
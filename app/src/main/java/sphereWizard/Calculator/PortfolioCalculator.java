@@ -0,0 +1,152 @@
+package sphereWizard.Calculator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+import sphereWizard.ProductSystem.ProductSystem;
+
+/**
+ * The PortfolioCalculator class calculates the Total Circularity Index
+ * (MCItotal) of a portfolio of products.
+ *
+ * <p>
+ * MCItotal = (MCIp1 * M1 + MCIp2 * M2 + ...) / (M1 + M2 + ...), the mean of the
+ * Circularity Index of every product weighted by its mass. The products are
+ * calculated on a work-stealing fork-join pool, so large and small products
+ * are spread over the threads without any tuning. Every product is reported
+ * as soon as it is done, while the others are still being calculated.
+ * </p>
+ *
+ * <p>
+ * The products are added up in the order of the portfolio once they are all
+ * done, so MCItotal does not depend on the order in which they finish. The
+ * flow totals of each product are added up by the task calculating it, and
+ * the product systems themselves are only read, so a product system can be
+ * used by other threads, or appear more than once in a portfolio, while it is
+ * calculated.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public final class PortfolioCalculator {
+
+    private final ForkJoinPool pool;
+    private final CircularityEngine engine = new CircularityEngine();
+
+    /**
+     * Constructs a calculator running on the common fork-join pool.
+     */
+    public PortfolioCalculator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a calculator running on a fork-join pool.
+     *
+     * @param pool The pool calculating the products.
+     */
+    public PortfolioCalculator(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("The pool cannot be null");
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * Calculates the Total Circularity Index (MCItotal) of a portfolio.
+     *
+     * @param portfolio The product systems of the portfolio.
+     * @return The result of the portfolio.
+     */
+    public PortfolioResult calculate(Collection<ProductSystem> portfolio) {
+        return calculate(portfolio, entry -> {
+        });
+    }
+
+    /**
+     * Calculates the Total Circularity Index (MCItotal) of a portfolio,
+     * reporting every product as soon as it is done. Products are reported in
+     * the order they finish, one at a time, from the threads of the pool.
+     *
+     * @param portfolio The product systems of the portfolio.
+     * @param onResult  Receives the result of every product.
+     * @return The result of the portfolio.
+     */
+    public PortfolioResult calculate(Collection<ProductSystem> portfolio, Consumer<PortfolioEntry> onResult) {
+        List<ProductSystem> productSystems = new ArrayList<>(portfolio);
+        CircularityResult[] results = new CircularityResult[productSystems.size()];
+
+        pool.invoke(new ProductTask(productSystems, results, onResult, 0, productSystems.size()));
+
+        // MCItotal = (MCIp1 * M1 + MCIp2 * M2 + ...) / (M1 + M2 + ...)
+        double weightedIndex = 0.0;
+        double mass = 0.0;
+        for (CircularityResult result : results) {
+            weightedIndex += result.circularityIndex() * result.mass();
+            mass += result.mass();
+        }
+
+        double circularityIndexTotal = 0.0;
+        if (mass != 0) {
+            circularityIndexTotal = weightedIndex / mass;
+        }
+        return new PortfolioResult(List.of(results), mass, circularityIndexTotal);
+    }
+
+    /**
+     * Calculates one product system.
+     *
+     * @param productSystem The product system.
+     * @return The result of the product.
+     */
+    private CircularityResult calculate(ProductSystem productSystem) {
+        // Not the cached totals of the product system, which are not safe to fill in from several threads
+        return engine.calculate(productSystem.getProductSystemData(), productSystem.getProductLifetime(),
+                productSystem.getProductUtility());
+    }
+
+    /**
+     * Calculates a range of the portfolio, splitting it in halves until a
+     * single product is left, so idle threads can steal the other halves.
+     */
+    private final class ProductTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<ProductSystem> productSystems;
+        private final CircularityResult[] results;
+        private final transient Consumer<PortfolioEntry> onResult;
+        private final int from;
+        private final int to;
+
+        ProductTask(List<ProductSystem> productSystems, CircularityResult[] results,
+                Consumer<PortfolioEntry> onResult, int from, int to) {
+            this.productSystems = productSystems;
+            this.results = results;
+            this.onResult = onResult;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                ProductSystem productSystem = productSystems.get(from);
+                CircularityResult result = calculate(productSystem);
+                results[from] = result;
+                synchronized (onResult) {
+                    onResult.accept(new PortfolioEntry(from, productSystem, result));
+                }
+            } else if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ProductTask(productSystems, results, onResult, from, middle),
+                        new ProductTask(productSystems, results, onResult, middle, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package sphereWizard.Calculator;
+
+import sphereWizard.ProductSystem.ProductSystem;
+
+/**
+ * The PortfolioEntry record holds the result of one product of a portfolio,
+ * as reported by {@link PortfolioCalculator} when the product is done.
+ *
+ * @param index         The position of the product in the portfolio.
+ * @param productSystem The product system of the product.
+ * @param result        The result of the calculation.
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public record PortfolioEntry(int index, ProductSystem productSystem, CircularityResult result) {
+}
@@ -0,0 +1,20 @@
+package sphereWizard.Calculator;
+
+import java.util.List;
+
+/**
+ * The PortfolioResult record holds the results of every product of a
+ * portfolio and the Total Circularity Index (MCItotal) of the portfolio.
+ *
+ * @param results               The results of the products, in the order of
+ *                              the portfolio.
+ * @param mass                  The mass of the whole portfolio.
+ * @param circularityIndexTotal The Total Circularity Index (MCItotal), the
+ *                              mean of the MCIp of the products weighted by
+ *                              their mass.
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public record PortfolioResult(List<CircularityResult> results, double mass, double circularityIndexTotal) {
+}
@@ -0,0 +1,191 @@
+package sphereWizard.Calculator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import sphereWizard.FlowProcessStructure.Process;
+import sphereWizard.Interfaces.sendFileData;
+import sphereWizard.ProductSystem.FlowTotals;
+
+/**
+ * The ScenarioSweep class evaluates the Circularity Index (MCIp) of one product
+ * system for many combinations of product lifetime (L) and utility (U).
+ *
+ * <p>
+ * Only X and F(X) depend on L and U, so the flows are added up once, when the
+ * sweep is created, and the Linear Flow Index (LFI) is kept. Each combination
+ * then costs a few floating-point operations, and gives exactly the value
+ * {@link CircularityEngine} would give for it.
+ * </p>
+ *
+ * <p>
+ * A sweep holds no mutable state and can be shared between threads.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public final class ScenarioSweep {
+
+    /**
+     * The Linear Flow Index (LFI) of the product system.
+     */
+    private final double linearFlowIndex;
+
+    /**
+     * The number of processes of the product system.
+     */
+    private final int processCount;
+
+    /**
+     * Constructs a sweep from the flow totals of a product system.
+     *
+     * @param totals       The totals of every output flow type.
+     * @param processCount The number of processes of the product system.
+     */
+    public ScenarioSweep(FlowTotals totals, int processCount) {
+        this.linearFlowIndex = CircularityEngine.calculateLinearFlowIndex(totals);
+        this.processCount = processCount;
+    }
+
+    /**
+     * Constructs a sweep for the processes of a product system.
+     *
+     * @param productSystemData The data of the product system.
+     * @return The sweep.
+     */
+    public static ScenarioSweep of(sendFileData productSystemData) {
+        List<Process> processes = productSystemData.getProductSystemData().getProcesses();
+        return new ScenarioSweep(FlowTotals.of(processes), processes.size());
+    }
+
+    /**
+     * Gets the Linear Flow Index (LFI) shared by every combination.
+     *
+     * @return The Linear Flow Index.
+     */
+    public double getLinearFlowIndex() {
+        return linearFlowIndex;
+    }
+
+    /**
+     * Calculates the Circularity Index (MCIp) for one combination.
+     *
+     * @param productLifetime The lifetime of the product (L).
+     * @param productUtility  The utility of the product (U).
+     * @return The Circularity Index.
+     */
+    public double circularityIndex(int productLifetime, int productUtility) {
+        double x = CircularityEngine.calculateX(productLifetime, productUtility, processCount);
+        return 1 - (linearFlowIndex * CircularityEngine.calculateUtilityFactor(x));
+    }
+
+    /**
+     * Calculates the Circularity Index (MCIp) for every combination of the
+     * given lifetimes and utilities.
+     *
+     * @param productLifetimes The lifetimes of the product (L).
+     * @param productUtilities The utilities of the product (U).
+     * @return The indices, {@code result[i][j]} being the index for
+     *         {@code productLifetimes[i]} and {@code productUtilities[j]}.
+     */
+    public double[][] evaluate(int[] productLifetimes, int[] productUtilities) {
+        double[] utilityFactors = factors(productUtilities);
+        double[][] result = new double[productLifetimes.length][];
+        for (int i = 0; i < productLifetimes.length; i++) {
+            result[i] = evaluateRow(productLifetimes[i], utilityFactors);
+        }
+        return result;
+    }
+
+    /**
+     * Calculates the Circularity Index (MCIp) for every combination like
+     * {@link #evaluate(int[], int[])}, spreading the lifetimes over a
+     * fork-join pool. The result is the same as on one thread.
+     *
+     * @param productLifetimes The lifetimes of the product (L).
+     * @param productUtilities The utilities of the product (U).
+     * @param pool             The pool running the evaluation.
+     * @return The indices, {@code result[i][j]} being the index for
+     *         {@code productLifetimes[i]} and {@code productUtilities[j]}.
+     */
+    public double[][] evaluate(int[] productLifetimes, int[] productUtilities, ForkJoinPool pool) {
+        double[] utilityFactors = factors(productUtilities);
+        double[][] result = new double[productLifetimes.length][];
+        pool.submit(() -> IntStream.range(0, productLifetimes.length).parallel()
+                .forEach(i -> result[i] = evaluateRow(productLifetimes[i], utilityFactors))).join();
+        return result;
+    }
+
+    /**
+     * Writes the Circularity Index (MCIp) of every combination as a table, one
+     * lifetime per row and one utility per column, without keeping the whole
+     * grid in memory. The first row holds the utilities and the first column the
+     * lifetimes.
+     *
+     * @param productLifetimes The lifetimes of the product (L).
+     * @param productUtilities The utilities of the product (U).
+     * @param writer           The writer receiving the table.
+     * @param delimiter        The delimiter separating the cells.
+     * @throws IOException if the table cannot be written.
+     */
+    public void writeCsv(int[] productLifetimes, int[] productUtilities, Writer writer, String delimiter)
+            throws IOException {
+        double[] utilityFactors = factors(productUtilities);
+
+        StringBuilder line = new StringBuilder("L\\U");
+        for (int productUtility : productUtilities) {
+            line.append(delimiter).append(productUtility);
+        }
+        writer.write(line.append('\n').toString());
+
+        for (int productLifetime : productLifetimes) {
+            double[] row = evaluateRow(productLifetime, utilityFactors);
+
+            line.setLength(0);
+            line.append(productLifetime);
+            for (double circularityIndex : row) {
+                line.append(delimiter).append(circularityIndex);
+            }
+            writer.write(line.append('\n').toString());
+        }
+        writer.flush();
+    }
+
+    /**
+     * Calculates U / Uavg for each utility, or 0 when Uavg is 0.
+     */
+    private double[] factors(int[] values) {
+        double[] factors = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            factors[i] = factor(values[i]);
+        }
+        return factors;
+    }
+
+    /**
+     * Calculates L / Lavg (or U / Uavg) the same way as
+     * {@link CircularityEngine#calculateX(int, int, int)}, returning 0 when the
+     * average is 0, which makes X 0 as well.
+     */
+    private double factor(int value) {
+        double average = processCount > 0 ? ((double) value / processCount) : 0.0;
+        return average == 0 ? 0.0 : value / average;
+    }
+
+    private double[] evaluateRow(int productLifetime, double[] utilityFactors) {
+        double lifetimeFactor = factor(productLifetime);
+        double[] row = new double[utilityFactors.length];
+
+        for (int j = 0; j < row.length; j++) {
+            // X = (L / Lavg) * (U / Uavg), F(X) = 0.9 / X and MCIp = 1 - LFI * F(X)
+            double x = (lifetimeFactor == 0 || utilityFactors[j] == 0) ? 0.0 : lifetimeFactor * utilityFactors[j];
+            double utilityFactor = x == 0 ? 0.0 : 0.9 / x;
+            row[j] = 1 - (linearFlowIndex * utilityFactor);
+        }
+        return row;
+    }
+}
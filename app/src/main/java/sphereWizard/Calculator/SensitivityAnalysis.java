@@ -0,0 +1,120 @@
+package sphereWizard.Calculator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import sphereWizard.Enums.OutputFlowTypes;
+import sphereWizard.FlowProcessStructure.OutputFlow;
+import sphereWizard.FlowProcessStructure.Process;
+import sphereWizard.Interfaces.sendFileData;
+import sphereWizard.ProductSystem.FlowTotals;
+
+/**
+ * The SensitivityAnalysis class calculates the derivative of the Circularity
+ * Index (MCIp) with respect to every output flow of a product system.
+ *
+ * <p>
+ * MCIp = 1 - LFI * F(X), where F(X) only depends on L, U and the number of
+ * processes, and LFI = (2V - Rr) / (2M + (Wf - Wc) / 2) only depends on the
+ * totals V, R and Rr. A flow adds its value to the total of its type, so its
+ * derivative is the derivative of MCIp with respect to that total. The totals
+ * are added up once, the three derivatives follow in closed form, and one
+ * more pass over the flows maps them onto the individual flows.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public class SensitivityAnalysis {
+
+    private final List<Process> processes;
+    private final double[] derivatives = new double[OutputFlowTypes.values().length];
+
+    /**
+     * Constructs the analysis of a product system.
+     *
+     * @param productSystemData The data of the product system.
+     * @param productLifetime   The lifetime of the product (L).
+     * @param productUtility    The utility of the product (number of uses) (U).
+     */
+    public SensitivityAnalysis(sendFileData productSystemData, int productLifetime, int productUtility) {
+        this.processes = productSystemData.getProductSystemData().getProcesses();
+
+        FlowTotals totals = FlowTotals.of(processes);
+        double V = totals.getVirginMaterial();
+        double R = totals.getRecycledMaterial();
+        double Rr = totals.getRecoveredRecycledMaterial();
+
+        double x = CircularityEngine.calculateX(productLifetime, productUtility, processes.size());
+        double utilityFactor = CircularityEngine.calculateUtilityFactor(x);
+
+        // LFI = N / D with N = 2V - Rr and D = 2(V + R + Rr) + (0.05V - 0.05R) / 2
+        double N = 2 * V - Rr;
+        double D = 2 * (V + (R + Rr)) + ((V * 0.05 - R * 0.05) / 2);
+
+        // dMCIp/dt = -F(X) * (dN/dt * D - N * dD/dt) / D^2
+        double scale = -utilityFactor / (D * D);
+        derivatives[OutputFlowTypes.VIRGIN_MATERIAL.ordinal()] = scale * (2 * D - N * 2.025);
+        derivatives[OutputFlowTypes.RECYCLED_MATERIAL.ordinal()] = scale * (-N * 1.975);
+        derivatives[OutputFlowTypes.RECOVERED_RECYCLED_MATERIAL.ordinal()] = scale * (-D - N * 2);
+    }
+
+    /**
+     * Gets the derivative of MCIp with respect to any flow of a type. Energy
+     * and transport flows do not take part in the index, so their derivative
+     * is 0.
+     *
+     * @param flowType The type of flow.
+     * @return The derivative.
+     */
+    public double getDerivative(OutputFlowTypes flowType) {
+        return derivatives[flowType.ordinal()];
+    }
+
+    /**
+     * Finds the flows with the largest influence on MCIp, that is the largest
+     * absolute value of derivative times value.
+     *
+     * @param k The number of flows to return.
+     * @return At most {@code k} flows, the most influential first.
+     */
+    public List<FlowSensitivity> getMostInfluentialFlows(int k) {
+        if (k < 1) {
+            return new ArrayList<>();
+        }
+
+        Comparator<FlowSensitivity> byInfluence = Comparator.comparingDouble(flow -> Math.abs(flow.influence()));
+        PriorityQueue<FlowSensitivity> smallest = new PriorityQueue<>(k, byInfluence);
+
+        for (Process process : processes) {
+            List<OutputFlow> outputFlows = process.getOutputFlows();
+            for (int i = 0; i < outputFlows.size(); i++) {
+                OutputFlow outputFlow = outputFlows.get(i);
+                if (outputFlow == null || outputFlow.getName() == null) {
+                    continue;
+                }
+
+                double derivative = derivatives[outputFlow.getName().ordinal()];
+                double influence = Math.abs(derivative * outputFlow.getValue());
+                if (influence == 0) {
+                    continue;
+                }
+
+                // Only build an entry when the flow makes it into the k largest
+                if (smallest.size() < k || influence > Math.abs(smallest.peek().influence())) {
+                    smallest.add(new FlowSensitivity(process, i, outputFlow.getName(), outputFlow.getValue(),
+                            derivative));
+                    if (smallest.size() > k) {
+                        smallest.poll();
+                    }
+                }
+            }
+        }
+
+        List<FlowSensitivity> result = new ArrayList<>(smallest);
+        result.sort(byInfluence.reversed());
+        return result;
+    }
+}
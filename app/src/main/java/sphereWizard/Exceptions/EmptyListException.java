@@ -2,9 +2,11 @@ package sphereWizard.Exceptions;
 
 public class EmptyListException extends Exception{
 
-    public EmptyListException(){super();}
+    // Thrown for an expected outcome (a filter that selects nothing), so no
+    // stack trace is filled in
+    public EmptyListException(){super(null, null, false, false);}
 
     public EmptyListException(String message){
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -6,7 +6,9 @@ import java.io.IOException;
 import java.util.List;
 
 import sphereWizard.Calculator.CircularityCalculator;
+import sphereWizard.Calculator.CircularityResult;
 import sphereWizard.FlowProcessStructure.Process;
+import sphereWizard.Interfaces.sendFileData;
 import sphereWizard.Interfaces.sendModeledData;
 import sphereWizard.Interfaces.sendResults;
 import sphereWizard.FlowProcessStructure.InputFlow;
@@ -16,11 +18,26 @@ public class ReportMaker {
     sendModeledData ps;
     sendResults calculator;
 
+    sendFileData productSystemData;
+    CircularityResult result;
+
     public ReportMaker(sendModeledData ps, sendResults cc) {
         this.ps = ps;
         this.calculator = cc;
     }
 
+    /**
+     * Creates a report from the result of a {@link sphereWizard.Calculator.CircularityEngine},
+     * without going through a ProductSystem or a CircularityCalculator.
+     *
+     * @param productSystemData The data whose processes are listed in the report.
+     * @param result            The result of the calculation.
+     */
+    public ReportMaker(sendFileData productSystemData, CircularityResult result) {
+        this.productSystemData = productSystemData;
+        this.result = result;
+    }
+
     public void exportInformationToCsv(String filePath) {
         BufferedWriter writer = null;
 
@@ -29,16 +46,18 @@ public class ReportMaker {
 
             // write processes
             String processesCsv = ";;;Processes;;;\n";
-            for (Process process : ps.getProductSystem().getProductSystemData().getProcesses()) {
+            for (Process process : getProcesses()) {
                 processesCsv += processeCsvInfo(process);
             }
             writer.write(processesCsv + '\n');
 
+            CircularityResult results = getResult();
+
             // write product system
-            writer.write(productSystemCsvData());
+            writer.write(productSystemCsvData(results));
 
             // write calculator
-            writer.write(calculatorCsvInfo());
+            writer.write(calculatorCsvInfo(results));
 
         } catch (IOException e) {
             e.printStackTrace();
@@ -54,26 +73,53 @@ public class ReportMaker {
 
     }
 
-    private String productSystemCsvData() {
+    private List<Process> getProcesses() {
+        if (result != null) {
+            return productSystemData.getProductSystemData().getProcesses();
+        }
+        return ps.getProductSystem().getProductSystemData().getProcesses();
+    }
+
+    /**
+     * Gets the result to write, taken from the product system and the calculator
+     * when the report was not created from a result.
+     */
+    private CircularityResult getResult() {
+        if (result != null) {
+            return result;
+        }
+
+        CircularityCalculator circularityCalculator = calculator.getCircularityCalculator();
+        return new CircularityResult(ps.getProductSystem().getProductLifetime(),
+                ps.getProductSystem().getProductUtility(),
+                ps.getProductSystem().getWasteEliminated(),
+                ps.getProductSystem().getRecycledInput(),
+                ps.getProductSystem().getMass(),
+                circularityCalculator.getX(),
+                circularityCalculator.getUtilityFactor(),
+                circularityCalculator.getLinearFlowIndex(),
+                circularityCalculator.getCircularityIndex());
+    }
+
+    private String productSystemCsvData(CircularityResult results) {
         String productSystemCsv = ";;;Product System Info;;;\n";
 
-        productSystemCsv += "Product Life Time: ;" + ps.getProductSystem().getProductLifetime() + '\n' +
-                "Product Utility: ;" + ps.getProductSystem().getProductUtility() + '\n' +
-                "Waste Eliminated: ;" + ps.getProductSystem().getWasteEliminated() + '\n' +
-                "Recycled Input: ;" + ps.getProductSystem().getRecycledInput() + '\n' +
-                "Mass: ;" + ps.getProductSystem().getMass() + '\n';
+        productSystemCsv += "Product Life Time: ;" + results.productLifetime() + '\n' +
+                "Product Utility: ;" + results.productUtility() + '\n' +
+                "Waste Eliminated: ;" + results.wasteEliminated() + '\n' +
+                "Recycled Input: ;" + results.recycledInput() + '\n' +
+                "Mass: ;" + results.mass() + '\n';
 
         return productSystemCsv;
     }
 
-    private String calculatorCsvInfo() {
+    private String calculatorCsvInfo(CircularityResult results) {
         String calculatorCsvInfo = ";;;Results;;;\n";
-        CircularityCalculator circularityCalculator = calculator.getCircularityCalculator();
 
-        calculatorCsvInfo += "X: ;" + circularityCalculator.getX() + '\n' +
-                "Utility Factor: ;" + circularityCalculator.getUtilityFactor() + '\n' +
-                "Linear Flow Index: ;" + circularityCalculator.getLinearFlowIndex() + '\n' +
-                "Circularity Index: ;" + circularityCalculator.getCircularityIndex() + '\n' ; //+
+        calculatorCsvInfo += "X: ;" + results.x() + '\n' +
+                "Utility Factor: ;" + results.utilityFactor() + '\n' +
+                "Linear Flow Index: ;" + results.linearFlowIndex() + '\n' +
+                "Circularity Index: ;" + results.circularityIndex() + '\n' ; //+
 //                "Total Circularity Index: ;" + calculator.getCircularityIndexTotal() + '\n';
 
         return calculatorCsvInfo;
@@ -6,7 +6,6 @@ import sphereWizard.Interfaces.SendFilteredData;
 import sphereWizard.Interfaces.sendFileData;
 import sphereWizard.ProductSystem.ProductSystemData;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class FilterData implements SendFilteredData {
@@ -22,8 +21,8 @@ public class FilterData implements SendFilteredData {
 
 
     /**
-     *  creates a new arraylist, iterates through the entire
-     *  processes in productsystem and adds the processes with the desired category into the new arraylist.
+     *  looks up the processes with the desired category in the category index of the productsystem.
+     *  Use {@link ProductSystemData#findByCategory(String)} to check for a category without an exception.
      *
      * @param category     The category of the desired processes.
      * @return    an arrayList with the new productSystem model that only contains the processes with the define category.
@@ -32,16 +31,9 @@ public class FilterData implements SendFilteredData {
     @Override
     public List<Process> sendByCategory(String category) throws EmptyListException { // envia apenas os processos com categoria Y
 
-        List<Process> newListToSend = new ArrayList<>();
+        List<Process> newListToSend = psd.getProductSystemData().findByCategory(category);
 
-        for(Process process : psd.getProductSystemData().getProcesses()){
-
-            if(process.getCategory().equals(category)){
-                newListToSend.add(process);
-            }
-        }
-
-        if(newListToSend.size() == 0){
+        if(newListToSend.isEmpty()){
             throw new EmptyListException("thine list is empty");
         }
         return newListToSend;
@@ -50,8 +42,8 @@ public class FilterData implements SendFilteredData {
 
 
     /**
-     *  creates a new arraylist, iterates through the entire
-     *  processes in productsystem and adds the processes with the desired name into the new arraylist.
+     *  looks up the processes with the desired name in the name index of the productsystem.
+     *  Use {@link ProductSystemData#findByName(String)} to check for a name without an exception.
      *
      * @param name     The name of the desired process(es).
      * @return an arrayList with all the processes with the desired name.
@@ -59,16 +51,9 @@ public class FilterData implements SendFilteredData {
     @Override
     public List<Process> sendByName(String name) throws EmptyListException { //envio apenas processo com o  nome X
 
-        List<Process> newListToSend = new ArrayList<>();
-
-        for(Process process : psd.getProductSystemData().getProcesses()){
-
-            if(process.getName().equals(name)){
-                newListToSend.add(process);
-            }
-        }
+        List<Process> newListToSend = psd.getProductSystemData().findByName(name);
 
-        if(newListToSend.size() == 0){
+        if(newListToSend.isEmpty()){
             throw new EmptyListException("thine list is empty");
         }
 
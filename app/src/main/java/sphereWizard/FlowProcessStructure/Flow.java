@@ -8,6 +8,12 @@ package sphereWizard.FlowProcessStructure;
  * @version 1.0
  */
 public abstract class Flow {
+    /**
+     * Counts the changes of the process holding the flow, {@code null} while
+     * the flow belongs to no process.
+     */
+    private ModificationCounter counter;
+
     /**
      * The category of the flow.
      */
@@ -68,6 +74,7 @@ public abstract class Flow {
      */
     public void setCategory(String category) {
         this.category = category;
+        modified();
     }
 
     /**
@@ -77,6 +84,7 @@ public abstract class Flow {
      */
     public void setValue(double value) {
         this.value = value;
+        modified();
     }
 
     /**
@@ -86,6 +94,27 @@ public abstract class Flow {
      */
     public void setUnit(Enum<?> unit) {
         this.unit = unit;
+        modified();
+    }
+
+    /**
+     * Makes the changes to this flow count for the process it was added to.
+     * A flow held by several processes counts for the last one.
+     *
+     * @param counter The counter of the process.
+     */
+    void countChangesIn(ModificationCounter counter) {
+        this.counter = counter;
+    }
+
+    /**
+     * Records a change to this flow in the counter of its process.
+     */
+    void modified() {
+        ModificationCounter current = counter;
+        if (current != null) {
+            current.increment();
+        }
     }
 
     /**
@@ -96,9 +125,9 @@ public abstract class Flow {
     @Override
     public String toString() {
         return "Flow {" +
-                ", category='" + category + '\'' +
-                ", value=" + value +
-                ", unit='" + unit + '\'' +
+                ", category='" + getCategory() + '\'' +
+                ", value=" + getValue() +
+                ", unit='" + getUnit() + '\'' +
                 '}';
     }
 
@@ -0,0 +1,88 @@
+package sphereWizard.FlowProcessStructure;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The `FlowList` class is the list of input or output flows of a
+ * {@link Process}. It behaves like an {@link ArrayList}, and counts every
+ * flow added, removed or replaced, and every change to a flow it holds, in the
+ * {@link ModificationCounter} of its process, so that totals cached for the
+ * process are calculated again.
+ *
+ * @param <T> The type of the flows.
+ * @author Group 22
+ * @version 1.0
+ */
+final class FlowList<T extends Flow> extends AbstractList<T> implements RandomAccess {
+
+    private final List<T> flows;
+    private final ModificationCounter counter;
+
+    /**
+     * Constructs an empty list.
+     *
+     * @param counter The counter of the process.
+     */
+    FlowList(ModificationCounter counter) {
+        this.flows = new ArrayList<>();
+        this.counter = counter;
+    }
+
+    /**
+     * Constructs a list holding a copy of some flows.
+     *
+     * @param flows   The flows.
+     * @param counter The counter of the process.
+     */
+    FlowList(Collection<? extends T> flows, ModificationCounter counter) {
+        this.flows = new ArrayList<>(flows);
+        this.counter = counter;
+        for (T flow : this.flows) {
+            attach(flow);
+        }
+    }
+
+    @Override
+    public T get(int index) {
+        return flows.get(index);
+    }
+
+    @Override
+    public int size() {
+        return flows.size();
+    }
+
+    @Override
+    public T set(int index, T flow) {
+        T previous = flows.set(index, flow);
+        attach(flow);
+        counter.increment();
+        return previous;
+    }
+
+    @Override
+    public void add(int index, T flow) {
+        flows.add(index, flow);
+        attach(flow);
+        modCount++;
+        counter.increment();
+    }
+
+    @Override
+    public T remove(int index) {
+        T removed = flows.remove(index);
+        modCount++;
+        counter.increment();
+        return removed;
+    }
+
+    private void attach(T flow) {
+        if (flow != null) {
+            flow.countChangesIn(counter);
+        }
+    }
+}
@@ -0,0 +1,958 @@
+package sphereWizard.FlowProcessStructure;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.ObjDoubleConsumer;
+
+import sphereWizard.Enums.OutputFlowTypes;
+import sphereWizard.Enums.UnitEnums.Area;
+import sphereWizard.Enums.UnitEnums.Distance;
+import sphereWizard.Enums.UnitEnums.Energy;
+import sphereWizard.Enums.UnitEnums.Mass;
+import sphereWizard.Enums.UnitEnums.Volume;
+import sphereWizard.Exceptions.UnitNotRecognizedException;
+
+/**
+ * The `FlowTable` class stores the flows of many processes in columns of
+ * primitive arrays instead of one object per flow: values in {@code double[]},
+ * output flow types and units as {@code byte} codes, and names and categories
+ * as ids into a dictionary of distinct Strings. The flows of process {@code p}
+ * are the rows between {@code offsets[p]} and {@code offsets[p + 1]}.
+ *
+ * <p>
+ * {@link #getProcesses()} exposes the table as ordinary {@link Process},
+ * {@link InputFlow} and {@link OutputFlow} objects. These are lightweight views
+ * that read and write the columns, so existing code keeps working while
+ * aggregations can run over the arrays directly. A row has a single flow view,
+ * created the first time it is asked for, so flows keep their identity.
+ * Adding or removing flows on a process moves its flow views into ordinary
+ * lists first; the views keep writing to the columns.
+ * </p>
+ *
+ * <p>
+ * Like separate flow objects, different flows can be changed from different
+ * threads. The dictionary that a new name or category is added to is shared
+ * by every flow of the table, so it is only used while holding its lock.
+ * </p>
+ *
+ * <p>
+ * The input flows can be left out when the table is built and loaded by an
+ * {@link InputFlowLoader} the first time the input flows of any process are
+ * asked for. Such a table holds exactly one input flow per output flow.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public final class FlowTable {
+
+    /**
+     * Every unit that can be stored, indexed by its code.
+     */
+    static final Enum<?>[] UNITS;
+
+    /**
+     * The code of every unit.
+     */
+    private static final Map<Enum<?>, Byte> UNIT_CODES = new HashMap<>();
+
+    /**
+     * Every output flow type, indexed by its code.
+     */
+    static final OutputFlowTypes[] TYPES = OutputFlowTypes.values();
+
+    /**
+     * Code stored for a missing unit, type or String.
+     */
+    private static final int NONE = -1;
+
+    static {
+        List<Enum<?>> units = new ArrayList<>();
+        units.addAll(Arrays.asList(Mass.values()));
+        units.addAll(Arrays.asList(Energy.values()));
+        units.addAll(Arrays.asList(Volume.values()));
+        units.addAll(Arrays.asList(Distance.values()));
+        units.addAll(Arrays.asList(Area.values()));
+
+        UNITS = units.toArray(new Enum<?>[0]);
+        for (int i = 0; i < UNITS.length; i++) {
+            UNIT_CODES.put(UNITS[i], (byte) i);
+        }
+    }
+
+    // The columns are read by FlowTableSnapshot
+
+    /**
+     * The dictionary, guarded by {@link #stringIds}.
+     */
+    private final List<String> strings;
+    private final Map<String, Integer> stringIds;
+
+    final int[] processNames;
+    final int[] processCategories;
+    final int[] inputOffsets;
+    final int[] outputOffsets;
+
+    int[] inputNames;
+    int[] inputCategories;
+    double[] inputValues;
+    byte[] inputUnits;
+
+    /**
+     * Loads the input flows that were left out, {@code null} once they are in
+     * the columns.
+     */
+    private volatile InputFlowLoader inputFlowLoader;
+
+    final byte[] outputTypes;
+    final int[] outputCategories;
+    final double[] outputValues;
+    final byte[] outputUnits;
+
+    /**
+     * Counts the changes made to the flows of every process of the table.
+     */
+    private final ModificationCounter modifications = new ModificationCounter();
+
+    /**
+     * The views over the processes, created on first use.
+     */
+    private List<Process> processes;
+
+    private FlowTable(Builder builder) {
+        this.strings = builder.strings;
+        this.stringIds = builder.stringIds;
+
+        int processCount = builder.processCount;
+        this.processNames = Arrays.copyOf(builder.processNames, processCount);
+        this.processCategories = Arrays.copyOf(builder.processCategories, processCount);
+        this.outputOffsets = Arrays.copyOf(builder.outputOffsets, processCount + 1);
+        this.outputOffsets[processCount] = builder.outputCount;
+        this.inputFlowLoader = builder.inputFlowLoader;
+        if (inputFlowLoader == null) {
+            this.inputOffsets = Arrays.copyOf(builder.inputOffsets, processCount + 1);
+            this.inputOffsets[processCount] = builder.inputCount;
+        } else {
+            // Every output flow will have its input flow once they are loaded
+            this.inputOffsets = outputOffsets;
+        }
+
+        int inputCount = builder.inputCount;
+        this.inputNames = Arrays.copyOf(builder.inputNames, inputCount);
+        this.inputCategories = Arrays.copyOf(builder.inputCategories, inputCount);
+        this.inputValues = Arrays.copyOf(builder.inputValues, inputCount);
+        this.inputUnits = Arrays.copyOf(builder.inputUnits, inputCount);
+
+        int outputCount = builder.outputCount;
+        this.outputTypes = Arrays.copyOf(builder.outputTypes, outputCount);
+        this.outputCategories = Arrays.copyOf(builder.outputCategories, outputCount);
+        this.outputValues = Arrays.copyOf(builder.outputValues, outputCount);
+        this.outputUnits = Arrays.copyOf(builder.outputUnits, outputCount);
+    }
+
+    /**
+     * Constructs a table over columns that are already filled, such as the
+     * columns read from a snapshot. The arrays are used as they are.
+     */
+    FlowTable(List<String> strings, int[] processNames, int[] processCategories, int[] inputOffsets,
+            int[] outputOffsets, int[] inputNames, int[] inputCategories, double[] inputValues, byte[] inputUnits,
+            byte[] outputTypes, int[] outputCategories, double[] outputValues, byte[] outputUnits) {
+        this.strings = strings;
+        this.stringIds = new HashMap<>();
+        for (int i = 0; i < strings.size(); i++) {
+            stringIds.put(strings.get(i), i);
+        }
+
+        this.processNames = processNames;
+        this.processCategories = processCategories;
+        this.inputOffsets = inputOffsets;
+        this.outputOffsets = outputOffsets;
+
+        this.inputNames = inputNames;
+        this.inputCategories = inputCategories;
+        this.inputValues = inputValues;
+        this.inputUnits = inputUnits;
+
+        this.outputTypes = outputTypes;
+        this.outputCategories = outputCategories;
+        this.outputValues = outputValues;
+        this.outputUnits = outputUnits;
+    }
+
+    /**
+     * Gets the processes of the table as views over its columns.
+     *
+     * @return An unmodifiable list with one view per process, always the same
+     *         objects.
+     */
+    public List<Process> getProcesses() {
+        if (processes == null) {
+            Process[] views = new Process[processNames.length];
+            for (int i = 0; i < views.length; i++) {
+                views[i] = new TableProcess(this, i);
+            }
+            processes = Collections.unmodifiableList(Arrays.asList(views));
+        }
+        return processes;
+    }
+
+    /**
+     * Gets the number of processes in the table.
+     *
+     * @return The number of processes.
+     */
+    public int getProcessCount() {
+        return processNames.length;
+    }
+
+    /**
+     * Gets the number of input flows in the table.
+     *
+     * @return The number of input flows.
+     */
+    public int getInputFlowCount() {
+        loadInputFlows();
+        return inputValues.length;
+    }
+
+    /**
+     * Gets the number of output flows in the table.
+     *
+     * @return The number of output flows.
+     */
+    public int getOutputFlowCount() {
+        return outputValues.length;
+    }
+
+    /**
+     * Gets the number of distinct names and categories in the dictionary.
+     *
+     * @return The size of the dictionary.
+     */
+    public int getDictionarySize() {
+        synchronized (stringIds) {
+            return strings.size();
+        }
+    }
+
+    /**
+     * Gets a copy of the dictionary, indexed by id.
+     *
+     * @return The distinct names and categories.
+     */
+    List<String> dictionary() {
+        synchronized (stringIds) {
+            return new ArrayList<>(strings);
+        }
+    }
+
+    /**
+     * Checks whether the input flows are in the columns, either because they
+     * were never left out or because they were loaded.
+     *
+     * @return {@code true} if the input flows are loaded.
+     */
+    public boolean isInputFlowsLoaded() {
+        return inputFlowLoader == null;
+    }
+
+    /**
+     * Loads the input flows that were left out when the table was built, if
+     * that was not done yet.
+     *
+     * @throws UncheckedIOException  if the loader cannot read them.
+     * @throws IllegalStateException if the loader rejects an input flow or
+     *                               does not give one input flow per output
+     *                               flow.
+     */
+    void loadInputFlows() {
+        if (inputFlowLoader == null) {
+            return;
+        }
+        synchronized (this) {
+            InputFlowLoader loader = inputFlowLoader;
+            if (loader == null) {
+                return;
+            }
+
+            int count = outputValues.length;
+            int[] names = new int[count];
+            int[] categories = new int[count];
+            double[] values = new double[count];
+            byte[] units = new byte[count];
+            int[] loaded = new int[1];
+
+            try {
+                loader.load(flow -> {
+                    int row = loaded[0]++;
+                    if (row < count) {
+                        names[row] = stringId(flow.getName());
+                        categories[row] = stringId(flow.getCategory());
+                        values[row] = flow.getValue();
+                        units[row] = unitCode(flow.getUnit());
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot load the input flows", e);
+            } catch (UnitNotRecognizedException e) {
+                throw new IllegalStateException("Cannot load the input flows: " + e.getMessage(), e);
+            }
+            if (loaded[0] != count) {
+                throw new IllegalStateException("Expected " + count + " input flows, loaded " + loaded[0]);
+            }
+
+            inputNames = names;
+            inputCategories = categories;
+            inputValues = values;
+            inputUnits = units;
+            inputFlowLoader = null;
+        }
+    }
+
+    // Helpers shared by the views
+
+    private String string(int id) {
+        if (id == NONE) {
+            return null;
+        }
+        // Another flow may be adding a String to the dictionary
+        synchronized (stringIds) {
+            return strings.get(id);
+        }
+    }
+
+    private int stringId(String value) {
+        synchronized (stringIds) {
+            return id(strings, stringIds, value);
+        }
+    }
+
+    private static int id(List<String> strings, Map<String, Integer> stringIds, String value) {
+        if (value == null) {
+            return NONE;
+        }
+        Integer id = stringIds.get(value);
+        if (id == null) {
+            id = strings.size();
+            strings.add(value);
+            stringIds.put(value, id);
+        }
+        return id;
+    }
+
+    /**
+     * Makes the changes to a flow added to a process of the table count for
+     * the table.
+     */
+    private void countChangesOf(Flow flow) {
+        if (flow != null) {
+            flow.countChangesIn(modifications);
+        }
+    }
+
+    private static Enum<?> unit(byte code) {
+        return code == NONE ? null : UNITS[code];
+    }
+
+    private static byte unitCode(Enum<?> unit) {
+        if (unit == null) {
+            return NONE;
+        }
+        Byte code = UNIT_CODES.get(unit);
+        if (code == null) {
+            throw new IllegalArgumentException("Unit cannot be stored in a flow table: " + unit);
+        }
+        return code;
+    }
+
+    private static OutputFlowTypes type(byte code) {
+        return code == NONE ? null : TYPES[code];
+    }
+
+    private static byte typeCode(OutputFlowTypes type) {
+        return type == null ? NONE : (byte) type.ordinal();
+    }
+
+    /**
+     * A process whose flows live in the columns of a table. Its flow views are
+     * moved into ordinary lists the first time a flow is added or removed.
+     */
+    private static final class TableProcess extends Process {
+        private final FlowTable table;
+        private final int index;
+
+        private final InputFlowList inputFlows = new InputFlowList(this);
+        private final OutputFlowList outputFlows = new OutputFlowList(this);
+
+        private List<InputFlow> detachedInputFlows;
+        private List<OutputFlow> detachedOutputFlows;
+
+        private TableProcess(FlowTable table, int index) {
+            super(table.string(table.processNames[index]), table.string(table.processCategories[index]));
+            this.table = table;
+            this.index = index;
+        }
+
+        @Override
+        public List<InputFlow> getInputFlows() {
+            table.loadInputFlows();
+            return inputFlows;
+        }
+
+        @Override
+        public List<OutputFlow> getOutputFlows() {
+            return outputFlows;
+        }
+
+        @Override
+        public ModificationCounter getModificationCounter() {
+            return table.modifications;
+        }
+
+        @Override
+        public double addOutputFlowValues(OutputFlowTypes flowType, double total) {
+            if (detachedOutputFlows != null) {
+                return super.addOutputFlowValues(flowType, total);
+            }
+
+            byte code = typeCode(flowType);
+            byte[] types = table.outputTypes;
+            double[] values = table.outputValues;
+            for (int i = table.outputOffsets[index]; i < table.outputOffsets[index + 1]; i++) {
+                if (types[i] == code && code != NONE) {
+                    total += values[i];
+                }
+            }
+            return total;
+        }
+
+        @Override
+        public void addOutputFlowTotals(double[] totals) {
+            if (detachedOutputFlows != null) {
+                super.addOutputFlowTotals(totals);
+                return;
+            }
+
+            byte[] types = table.outputTypes;
+            double[] values = table.outputValues;
+            for (int i = table.outputOffsets[index]; i < table.outputOffsets[index + 1]; i++) {
+                if (types[i] != NONE) {
+                    totals[types[i]] += values[i];
+                }
+            }
+        }
+
+        @Override
+        public void forEachOutputFlowValue(ObjDoubleConsumer<OutputFlowTypes> action) {
+            if (detachedOutputFlows != null) {
+                super.forEachOutputFlowValue(action);
+                return;
+            }
+
+            byte[] types = table.outputTypes;
+            double[] values = table.outputValues;
+            for (int i = table.outputOffsets[index]; i < table.outputOffsets[index + 1]; i++) {
+                if (types[i] != NONE) {
+                    action.accept(TYPES[types[i]], values[i]);
+                }
+            }
+        }
+
+        /**
+         * Moves the flow views of the process into ordinary lists, so that
+         * flows can be added and removed. The views are the same objects, so
+         * a flow held by the caller still belongs to the process.
+         */
+        private void detach() {
+            if (detachedInputFlows != null) {
+                return;
+            }
+            table.loadInputFlows();
+            List<InputFlow> inputs = new ArrayList<>(inputFlows.size());
+            for (int i = 0; i < inputFlows.size(); i++) {
+                inputs.add(inputFlows.get(i));
+            }
+            List<OutputFlow> outputs = new ArrayList<>(outputFlows.size());
+            for (int i = 0; i < outputFlows.size(); i++) {
+                outputs.add(outputFlows.get(i));
+            }
+            detachedInputFlows = inputs;
+            detachedOutputFlows = outputs;
+            inputFlows.views = null;
+            outputFlows.views = null;
+        }
+    }
+
+    /**
+     * The input flows of a table process.
+     */
+    private static final class InputFlowList extends AbstractList<InputFlow> {
+        private final TableProcess process;
+
+        /**
+         * The view of every row asked for so far.
+         */
+        private InputFlow[] views;
+
+        private InputFlowList(TableProcess process) {
+            this.process = process;
+        }
+
+        @Override
+        public InputFlow get(int index) {
+            if (process.detachedInputFlows != null) {
+                return process.detachedInputFlows.get(index);
+            }
+            int row = row(index);
+            if (views == null) {
+                views = new InputFlow[size()];
+            }
+            if (views[index] == null) {
+                views[index] = new TableInputFlow(process.table, row);
+            }
+            return views[index];
+        }
+
+        @Override
+        public int size() {
+            if (process.detachedInputFlows != null) {
+                return process.detachedInputFlows.size();
+            }
+            return process.table.inputOffsets[process.index + 1] - process.table.inputOffsets[process.index];
+        }
+
+        @Override
+        public InputFlow set(int index, InputFlow flow) {
+            if (process.detachedInputFlows != null) {
+                process.table.countChangesOf(flow);
+                process.table.modifications.increment();
+                return process.detachedInputFlows.set(index, flow);
+            }
+            InputFlow current = get(index);
+            InputFlow previous = new InputFlow(current.getName(), current.getCategory(), current.getValue(),
+                    current.getUnit());
+            current.setName(flow.getName());
+            current.setCategory(flow.getCategory());
+            current.setValue(flow.getValue());
+            current.setUnit(flow.getUnit());
+            return previous;
+        }
+
+        @Override
+        public void add(int index, InputFlow flow) {
+            process.detach();
+            process.detachedInputFlows.add(index, flow);
+            process.table.countChangesOf(flow);
+            modCount++;
+            process.table.modifications.increment();
+        }
+
+        @Override
+        public InputFlow remove(int index) {
+            process.detach();
+            modCount++;
+            process.table.modifications.increment();
+            return process.detachedInputFlows.remove(index);
+        }
+
+        private int row(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+            }
+            return process.table.inputOffsets[process.index] + index;
+        }
+    }
+
+    /**
+     * The output flows of a table process.
+     */
+    private static final class OutputFlowList extends AbstractList<OutputFlow> {
+        private final TableProcess process;
+
+        /**
+         * The view of every row asked for so far.
+         */
+        private OutputFlow[] views;
+
+        private OutputFlowList(TableProcess process) {
+            this.process = process;
+        }
+
+        @Override
+        public OutputFlow get(int index) {
+            if (process.detachedOutputFlows != null) {
+                return process.detachedOutputFlows.get(index);
+            }
+            int row = row(index);
+            if (views == null) {
+                views = new OutputFlow[size()];
+            }
+            if (views[index] == null) {
+                views[index] = new TableOutputFlow(process.table, row);
+            }
+            return views[index];
+        }
+
+        @Override
+        public int size() {
+            if (process.detachedOutputFlows != null) {
+                return process.detachedOutputFlows.size();
+            }
+            return process.table.outputOffsets[process.index + 1] - process.table.outputOffsets[process.index];
+        }
+
+        @Override
+        public OutputFlow set(int index, OutputFlow flow) {
+            if (process.detachedOutputFlows != null) {
+                process.table.countChangesOf(flow);
+                process.table.modifications.increment();
+                return process.detachedOutputFlows.set(index, flow);
+            }
+            OutputFlow current = get(index);
+            OutputFlow previous = new OutputFlow(current.getName(), current.getCategory(), current.getValue(),
+                    current.getUnit());
+            current.setName(flow.getName());
+            current.setCategory(flow.getCategory());
+            current.setValue(flow.getValue());
+            current.setUnit(flow.getUnit());
+            return previous;
+        }
+
+        @Override
+        public void add(int index, OutputFlow flow) {
+            process.detach();
+            process.detachedOutputFlows.add(index, flow);
+            process.table.countChangesOf(flow);
+            modCount++;
+            process.table.modifications.increment();
+        }
+
+        @Override
+        public OutputFlow remove(int index) {
+            process.detach();
+            modCount++;
+            process.table.modifications.increment();
+            return process.detachedOutputFlows.remove(index);
+        }
+
+        private int row(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+            }
+            return process.table.outputOffsets[process.index] + index;
+        }
+    }
+
+    /**
+     * An input flow that reads and writes one row of the input columns.
+     */
+    private static final class TableInputFlow extends InputFlow {
+        private final FlowTable table;
+        private final int row;
+
+        private TableInputFlow(FlowTable table, int row) {
+            super(null, null, 0.0, null);
+            this.table = table;
+            this.row = row;
+        }
+
+        @Override
+        public String getName() {
+            return table.string(table.inputNames[row]);
+        }
+
+        @Override
+        public void setName(String name) {
+            table.inputNames[row] = table.stringId(name);
+            table.modifications.increment();
+        }
+
+        @Override
+        public String getCategory() {
+            return table.string(table.inputCategories[row]);
+        }
+
+        @Override
+        public void setCategory(String category) {
+            table.inputCategories[row] = table.stringId(category);
+            table.modifications.increment();
+        }
+
+        @Override
+        public double getValue() {
+            return table.inputValues[row];
+        }
+
+        @Override
+        public void setValue(double value) {
+            table.inputValues[row] = value;
+            table.modifications.increment();
+        }
+
+        @Override
+        public Enum<?> getUnit() {
+            return unit(table.inputUnits[row]);
+        }
+
+        @Override
+        public void setUnit(Enum<?> unit) {
+            table.inputUnits[row] = unitCode(unit);
+            table.modifications.increment();
+        }
+    }
+
+    /**
+     * An output flow that reads and writes one row of the output columns.
+     */
+    private static final class TableOutputFlow extends OutputFlow {
+        private final FlowTable table;
+        private final int row;
+
+        private TableOutputFlow(FlowTable table, int row) {
+            super(null, null, 0.0, null);
+            this.table = table;
+            this.row = row;
+        }
+
+        @Override
+        public OutputFlowTypes getName() {
+            return type(table.outputTypes[row]);
+        }
+
+        @Override
+        public void setName(OutputFlowTypes name) {
+            table.outputTypes[row] = typeCode(name);
+            table.modifications.increment();
+        }
+
+        @Override
+        public String getCategory() {
+            return table.string(table.outputCategories[row]);
+        }
+
+        @Override
+        public void setCategory(String category) {
+            table.outputCategories[row] = table.stringId(category);
+            table.modifications.increment();
+        }
+
+        @Override
+        public double getValue() {
+            return table.outputValues[row];
+        }
+
+        @Override
+        public void setValue(double value) {
+            table.outputValues[row] = value;
+            table.modifications.increment();
+        }
+
+        @Override
+        public Enum<?> getUnit() {
+            return unit(table.outputUnits[row]);
+        }
+
+        @Override
+        public void setUnit(Enum<?> unit) {
+            table.outputUnits[row] = unitCode(unit);
+            table.modifications.increment();
+        }
+    }
+
+    /**
+     * Loads the input flows of a table that was built without them.
+     */
+    @FunctionalInterface
+    public interface InputFlowLoader {
+        /**
+         * Gives the input flows of every process, in the order of the table:
+         * the input flow of the first output flow first.
+         *
+         * @param sink Receives every input flow. Only the fields of a flow are
+         *             kept, so the same object can be given every time.
+         * @throws IOException                if the input flows cannot be
+         *                                    read.
+         * @throws UnitNotRecognizedException if an input flow has an unknown
+         *                                    unit.
+         */
+        void load(Consumer<InputFlow> sink) throws IOException, UnitNotRecognizedException;
+    }
+
+    /**
+     * Collects processes and flows row by row and builds a {@link FlowTable}.
+     * Flows always belong to the process started last.
+     */
+    public static final class Builder {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> stringIds = new HashMap<>();
+
+        private int processCount;
+        private int[] processNames = new int[INITIAL_CAPACITY];
+        private int[] processCategories = new int[INITIAL_CAPACITY];
+        private int[] inputOffsets = new int[INITIAL_CAPACITY + 1];
+        private int[] outputOffsets = new int[INITIAL_CAPACITY + 1];
+
+        private int inputCount;
+        private int[] inputNames = new int[INITIAL_CAPACITY];
+        private int[] inputCategories = new int[INITIAL_CAPACITY];
+        private double[] inputValues = new double[INITIAL_CAPACITY];
+        private byte[] inputUnits = new byte[INITIAL_CAPACITY];
+
+        private int outputCount;
+        private byte[] outputTypes = new byte[INITIAL_CAPACITY];
+        private int[] outputCategories = new int[INITIAL_CAPACITY];
+        private double[] outputValues = new double[INITIAL_CAPACITY];
+        private byte[] outputUnits = new byte[INITIAL_CAPACITY];
+
+        private InputFlowLoader inputFlowLoader;
+
+        /**
+         * Starts a new process. The flows added afterwards belong to it.
+         *
+         * @param name     The name of the process.
+         * @param category The category of the process.
+         * @return This builder.
+         */
+        public Builder startProcess(String name, String category) {
+            if (processCount == processNames.length) {
+                int size = processCount * 2;
+                processNames = Arrays.copyOf(processNames, size);
+                processCategories = Arrays.copyOf(processCategories, size);
+                inputOffsets = Arrays.copyOf(inputOffsets, size + 1);
+                outputOffsets = Arrays.copyOf(outputOffsets, size + 1);
+            }
+            processNames[processCount] = id(strings, stringIds, name);
+            processCategories[processCount] = id(strings, stringIds, category);
+            inputOffsets[processCount] = inputCount;
+            outputOffsets[processCount] = outputCount;
+            processCount++;
+            return this;
+        }
+
+        /**
+         * Adds an input flow to the current process.
+         *
+         * @param name     The name of the input flow.
+         * @param category The category of the input flow.
+         * @param value    The value of the input flow.
+         * @param unit     The unit of the input flow.
+         * @return This builder.
+         */
+        public Builder addInputFlow(String name, String category, double value, Enum<?> unit) {
+            requireProcess();
+            if (inputFlowLoader != null) {
+                throw new IllegalStateException("Input flows are loaded by the loader");
+            }
+            if (inputCount == inputValues.length) {
+                int size = inputCount * 2;
+                inputNames = Arrays.copyOf(inputNames, size);
+                inputCategories = Arrays.copyOf(inputCategories, size);
+                inputValues = Arrays.copyOf(inputValues, size);
+                inputUnits = Arrays.copyOf(inputUnits, size);
+            }
+            inputNames[inputCount] = id(strings, stringIds, name);
+            inputCategories[inputCount] = id(strings, stringIds, category);
+            inputValues[inputCount] = value;
+            inputUnits[inputCount] = unitCode(unit);
+            inputCount++;
+            return this;
+        }
+
+        /**
+         * Adds an output flow to the current process.
+         *
+         * @param type     The output flow type.
+         * @param category The category of the output flow.
+         * @param value    The value of the output flow.
+         * @param unit     The unit of the output flow.
+         * @return This builder.
+         */
+        public Builder addOutputFlow(OutputFlowTypes type, String category, double value, Enum<?> unit) {
+            requireProcess();
+            if (outputCount == outputValues.length) {
+                int size = outputCount * 2;
+                outputTypes = Arrays.copyOf(outputTypes, size);
+                outputCategories = Arrays.copyOf(outputCategories, size);
+                outputValues = Arrays.copyOf(outputValues, size);
+                outputUnits = Arrays.copyOf(outputUnits, size);
+            }
+            outputTypes[outputCount] = typeCode(type);
+            outputCategories[outputCount] = id(strings, stringIds, category);
+            outputValues[outputCount] = value;
+            outputUnits[outputCount] = unitCode(unit);
+            outputCount++;
+            return this;
+        }
+
+        /**
+         * Adds a whole process, copying its flows into the columns.
+         *
+         * @param name        The name of the process.
+         * @param category    The category of the process.
+         * @param inputFlows  The input flows of the process.
+         * @param outputFlows The output flows of the process.
+         * @return This builder.
+         */
+        public Builder addProcess(String name, String category, List<InputFlow> inputFlows,
+                List<OutputFlow> outputFlows) {
+            startProcess(name, category);
+            for (InputFlow flow : inputFlows) {
+                addInputFlow(flow.getName(), flow.getCategory(), flow.getValue(), flow.getUnit());
+            }
+            for (OutputFlow flow : outputFlows) {
+                addOutputFlow(flow.getName(), flow.getCategory(), flow.getValue(), flow.getUnit());
+            }
+            return this;
+        }
+
+        /**
+         * Leaves the input flows out of the table, to be loaded by a loader the
+         * first time they are asked for. No input flow may be added to the
+         * builder, and the loader must give one input flow per output flow.
+         *
+         * @param loader The loader of the input flows.
+         * @return This builder.
+         */
+        public Builder deferInputFlows(InputFlowLoader loader) {
+            if (inputCount > 0) {
+                throw new IllegalStateException("Input flows were already added");
+            }
+            this.inputFlowLoader = loader;
+            return this;
+        }
+
+        /**
+         * Gets the number of processes started so far.
+         *
+         * @return The number of processes.
+         */
+        public int getProcessCount() {
+            return processCount;
+        }
+
+        /**
+         * Builds the table. The builder should not be used afterwards.
+         *
+         * @return The table.
+         */
+        public FlowTable build() {
+            return new FlowTable(this);
+        }
+
+        private void requireProcess() {
+            if (processCount == 0) {
+                throw new IllegalStateException("A process must be started before adding flows");
+            }
+        }
+    }
+}
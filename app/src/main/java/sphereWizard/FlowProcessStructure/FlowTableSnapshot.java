@@ -0,0 +1,520 @@
+package sphereWizard.FlowProcessStructure;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import sphereWizard.Enums.OutputFlowTypes;
+
+/**
+ * The `FlowTableSnapshot` class writes a {@link FlowTable} to a binary file
+ * and reads it back, so that a table read once from a CSV file can be loaded
+ * again without parsing and converting every line.
+ *
+ * <p>
+ * The file holds the columns of the table as they are in memory: values
+ * already converted to the standard units, names and categories as ids into
+ * a dictionary of distinct Strings, and the offsets of the flows of every
+ * process. In order, little-endian:
+ * </p>
+ * <ul>
+ * <li>a header: the magic number, the format version, and the number of
+ * Strings, processes, input flows and output flows;</li>
+ * <li>the names of the units and of the output flow types, so that their
+ * codes are still read right if the enums change;</li>
+ * <li>the dictionary, each String as its length and its UTF-8 bytes;</li>
+ * <li>the process columns, the offsets, then the input and the output flow
+ * columns, each starting at a multiple of 8 bytes.</li>
+ * </ul>
+ *
+ * <p>
+ * The reader memory-maps the file, a window of up to a gigabyte at a time so
+ * that files of any size can be read, and copies every column out of the
+ * mapping in bulk reads, which is as fast as the disk cache allows. The
+ * columns are copied onto the heap, as the flows of the table can be changed:
+ * the table takes as much memory as a table read from a CSV file, and holds
+ * at most {@link Integer#MAX_VALUE} flows of each kind. Only the processes of
+ * the table are created when they are asked for, as views over the columns.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public final class FlowTableSnapshot {
+
+    /**
+     * The first four bytes of a snapshot, "SWFT".
+     */
+    private static final int MAGIC = 0x54465753;
+
+    /**
+     * The version of the format written.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Size of the buffer used to write a snapshot.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Size of the window of the file mapped at a time when reading.
+     */
+    private static final int WINDOW_SIZE = 1 << 30;
+
+    private FlowTableSnapshot() {
+        // Only static methods
+    }
+
+    /**
+     * Writes a table to a snapshot file, replacing the file if it exists. The
+     * file is written next to the target and moved into place once complete,
+     * so a reader never sees half a snapshot.
+     *
+     * @param table The table.
+     * @param path  The path of the snapshot file.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(FlowTable table, Path path) throws IOException {
+        // The input flows that were left out are part of the snapshot
+        table.loadInputFlows();
+
+        Path target = path.toAbsolutePath();
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Output output = new Output(channel);
+            writeTable(table, output);
+            output.flush();
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        try {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads a table from a snapshot file.
+     *
+     * @param path The path of the snapshot file.
+     * @return The table.
+     * @throws IOException if the file cannot be read, is not a snapshot, or
+     *                     was written in another version of the format.
+     */
+    public static FlowTable read(Path path) throws IOException {
+        return read(path, WINDOW_SIZE);
+    }
+
+    /**
+     * Reads a table from a snapshot file, mapping a window of the given size
+     * at a time.
+     *
+     * @param path       The path of the snapshot file.
+     * @param windowSize The size of a window, at least 16 bytes.
+     * @return The table.
+     * @throws IOException if the file cannot be read, is not a snapshot, or
+     *                     was written in another version of the format.
+     */
+    static FlowTable read(Path path, int windowSize) throws IOException {
+        if (windowSize < 2 * Double.BYTES) {
+            throw new IllegalArgumentException("Window too small: " + windowSize);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Input input = new Input(channel, windowSize);
+            try {
+                return readTable(input, path);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                throw new IOException("Snapshot is truncated or corrupted: " + path, e);
+            }
+        }
+    }
+
+    private static void writeTable(FlowTable table, Output output) throws IOException {
+        int processCount = table.processNames.length;
+        int inputCount = table.inputValues.length;
+        int outputCount = table.outputValues.length;
+        List<String> strings = table.dictionary();
+
+        output.putInt(MAGIC);
+        output.putInt(VERSION);
+        output.putInt(strings.size());
+        output.putInt(processCount);
+        output.putInt(inputCount);
+        output.putInt(outputCount);
+
+        output.putInt(FlowTable.UNITS.length);
+        for (Enum<?> unit : FlowTable.UNITS) {
+            output.putString(name(unit));
+        }
+        output.putInt(FlowTable.TYPES.length);
+        for (OutputFlowTypes type : FlowTable.TYPES) {
+            output.putString(name(type));
+        }
+
+        for (String string : strings) {
+            output.putString(string);
+        }
+
+        output.putInts(table.processNames, processCount);
+        output.putInts(table.processCategories, processCount);
+        output.putInts(table.inputOffsets, processCount + 1);
+        output.putInts(table.outputOffsets, processCount + 1);
+
+        output.putInts(table.inputNames, inputCount);
+        output.putInts(table.inputCategories, inputCount);
+        output.putDoubles(table.inputValues, inputCount);
+        output.putBytes(table.inputUnits, inputCount);
+
+        output.putBytes(table.outputTypes, outputCount);
+        output.putInts(table.outputCategories, outputCount);
+        output.putDoubles(table.outputValues, outputCount);
+        output.putBytes(table.outputUnits, outputCount);
+    }
+
+    private static FlowTable readTable(Input input, Path path) throws IOException {
+        if (input.remaining() < 8 || input.getInt() != MAGIC) {
+            throw new IOException("Not a flow table snapshot: " + path);
+        }
+        int version = input.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ": " + path);
+        }
+
+        int stringCount = count(input);
+        int processCount = count(input);
+        int inputCount = count(input);
+        int outputCount = count(input);
+
+        byte[] unitCodes = new byte[count(input)];
+        for (int i = 0; i < unitCodes.length; i++) {
+            unitCodes[i] = code(FlowTable.UNITS, getString(input), path);
+        }
+        byte[] typeCodes = new byte[count(input)];
+        for (int i = 0; i < typeCodes.length; i++) {
+            typeCodes[i] = code(FlowTable.TYPES, getString(input), path);
+        }
+
+        List<String> strings = new ArrayList<>(stringCount);
+        for (int i = 0; i < stringCount; i++) {
+            strings.add(getString(input));
+        }
+
+        int[] processNames = getInts(input, processCount);
+        int[] processCategories = getInts(input, processCount);
+        int[] inputOffsets = getInts(input, processCount + 1);
+        int[] outputOffsets = getInts(input, processCount + 1);
+
+        int[] inputNames = getInts(input, inputCount);
+        int[] inputCategories = getInts(input, inputCount);
+        double[] inputValues = getDoubles(input, inputCount);
+        byte[] inputUnits = getCodes(input, inputCount, unitCodes);
+
+        byte[] outputTypes = getCodes(input, outputCount, typeCodes);
+        int[] outputCategories = getInts(input, outputCount);
+        double[] outputValues = getDoubles(input, outputCount);
+        byte[] outputUnits = getCodes(input, outputCount, unitCodes);
+
+        checkOffsets(inputOffsets, inputCount, path);
+        checkOffsets(outputOffsets, outputCount, path);
+        checkIds(processNames, stringCount, path);
+        checkIds(processCategories, stringCount, path);
+        checkIds(inputNames, stringCount, path);
+        checkIds(inputCategories, stringCount, path);
+        checkIds(outputCategories, stringCount, path);
+
+        return new FlowTable(strings, processNames, processCategories, inputOffsets, outputOffsets, inputNames,
+                inputCategories, inputValues, inputUnits, outputTypes, outputCategories, outputValues, outputUnits);
+    }
+
+    private static int count(Input input) throws IOException {
+        int count = input.getInt();
+        // Every counted item takes at least a byte, which also keeps a
+        // corrupted count from allocating a huge array
+        if (count < 0 || count > input.size) {
+            throw new IOException("Negative count in snapshot: " + count);
+        }
+        return count;
+    }
+
+    /**
+     * Finds the code of a unit or type written by name.
+     */
+    private static byte code(Enum<?>[] values, String name, Path path) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (name(values[i]).equals(name)) {
+                return (byte) i;
+            }
+        }
+        throw new IOException("Snapshot uses an unknown unit or flow type " + name + ": " + path);
+    }
+
+    /**
+     * Gets the name a unit or type is written with, such as {@code Mass.KG}.
+     */
+    private static String name(Enum<?> value) {
+        return value.getDeclaringClass().getSimpleName() + "." + value.name();
+    }
+
+    private static String getString(Input input) throws IOException {
+        byte[] bytes = new byte[count(input)];
+        input.getBytes(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int[] getInts(Input input, int count) throws IOException {
+        input.align();
+        input.require((long) count * Integer.BYTES);
+        int[] values = new int[count];
+        int read = 0;
+        while (read < count) {
+            // A column may go on in the next window
+            input.next(Integer.BYTES);
+            int length = Math.min(count - read, input.window.remaining() / Integer.BYTES);
+            input.window.asIntBuffer().get(values, read, length);
+            input.window.position(input.window.position() + length * Integer.BYTES);
+            read += length;
+        }
+        return values;
+    }
+
+    private static double[] getDoubles(Input input, int count) throws IOException {
+        input.align();
+        input.require((long) count * Double.BYTES);
+        double[] values = new double[count];
+        int read = 0;
+        while (read < count) {
+            input.next(Double.BYTES);
+            int length = Math.min(count - read, input.window.remaining() / Double.BYTES);
+            input.window.asDoubleBuffer().get(values, read, length);
+            input.window.position(input.window.position() + length * Double.BYTES);
+            read += length;
+        }
+        return values;
+    }
+
+    /**
+     * Reads a column of codes, translating the codes of the file into the
+     * codes of the running version when they differ.
+     */
+    private static byte[] getCodes(Input input, int count, byte[] codes) throws IOException {
+        input.align();
+        byte[] values = new byte[count];
+        input.getBytes(values);
+
+        boolean same = true;
+        for (int i = 0; i < codes.length; i++) {
+            same &= codes[i] == i;
+        }
+        for (int i = 0; i < count; i++) {
+            int code = values[i];
+            if (code < 0) {
+                // A missing unit or type
+                continue;
+            }
+            if (code >= codes.length) {
+                throw new IOException("Unknown code in snapshot: " + code);
+            }
+            if (!same) {
+                values[i] = codes[code];
+            }
+        }
+        return values;
+    }
+
+    private static void checkOffsets(int[] offsets, int count, Path path) throws IOException {
+        int previous = 0;
+        for (int offset : offsets) {
+            if (offset < previous || offset > count) {
+                throw new IOException("Snapshot has invalid flow offsets: " + path);
+            }
+            previous = offset;
+        }
+        if (offsets[offsets.length - 1] != count) {
+            throw new IOException("Snapshot has invalid flow offsets: " + path);
+        }
+    }
+
+    private static void checkIds(int[] ids, int stringCount, Path path) throws IOException {
+        for (int id : ids) {
+            if (id < -1 || id >= stringCount) {
+                throw new IOException("Snapshot has an invalid String id " + id + ": " + path);
+            }
+        }
+    }
+
+    /**
+     * Reads the snapshot through mappings of a window of the file at a time,
+     * so that a file larger than a single mapping can be read.
+     */
+    private static final class Input {
+        private final FileChannel channel;
+        private final long size;
+        private final int windowSize;
+        private ByteBuffer window = ByteBuffer.allocate(0);
+        private long windowStart;
+
+        private Input(FileChannel channel, int windowSize) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.windowSize = windowSize;
+        }
+
+        private long position() {
+            return windowStart + window.position();
+        }
+
+        private long remaining() {
+            return size - position();
+        }
+
+        private int getInt() throws IOException {
+            next(Integer.BYTES);
+            return window.getInt();
+        }
+
+        private void getBytes(byte[] values) throws IOException {
+            require(values.length);
+            int read = 0;
+            while (read < values.length) {
+                next(1);
+                int length = Math.min(values.length - read, window.remaining());
+                window.get(values, read, length);
+                read += length;
+            }
+        }
+
+        /**
+         * Checks that the rest of the file holds at least some bytes.
+         */
+        private void require(long bytes) {
+            if (bytes > remaining()) {
+                throw new BufferUnderflowException();
+            }
+        }
+
+        /**
+         * Makes sure the window holds the next bytes, mapping the next window
+         * of the file when it does not.
+         */
+        private void next(int bytes) throws IOException {
+            if (window.remaining() < bytes) {
+                require(bytes);
+                map(position());
+            }
+        }
+
+        private void align() throws IOException {
+            long aligned = (position() + 7) & ~7L;
+            require(aligned - position());
+            if (aligned - windowStart <= window.limit()) {
+                window.position((int) (aligned - windowStart));
+            } else {
+                map(aligned);
+            }
+        }
+
+        private void map(long position) throws IOException {
+            // Windows start at a multiple of 8, so that the columns stay aligned
+            long start = position & ~7L;
+            long length = Math.min(windowSize, size - start);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, length).order(ByteOrder.LITTLE_ENDIAN);
+            window.position((int) (position - start));
+            windowStart = start;
+        }
+    }
+
+    /**
+     * Writes the snapshot through a buffer, keeping track of the position so
+     * that the columns can be aligned.
+     */
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private long position;
+
+        private Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void putInt(int value) throws IOException {
+            require(Integer.BYTES);
+            buffer.putInt(value);
+            position += Integer.BYTES;
+        }
+
+        private void putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            putBytes(bytes, 0, bytes.length);
+        }
+
+        private void putInts(int[] values, int count) throws IOException {
+            align();
+            for (int i = 0; i < count; i++) {
+                putInt(values[i]);
+            }
+        }
+
+        private void putDoubles(double[] values, int count) throws IOException {
+            align();
+            for (int i = 0; i < count; i++) {
+                require(Double.BYTES);
+                buffer.putDouble(values[i]);
+            }
+            position += (long) count * Double.BYTES;
+        }
+
+        private void putBytes(byte[] values, int count) throws IOException {
+            align();
+            putBytes(values, 0, count);
+        }
+
+        private void putBytes(byte[] values, int offset, int count) throws IOException {
+            while (count > 0) {
+                require(1);
+                int length = Math.min(count, buffer.remaining());
+                buffer.put(values, offset, length);
+                offset += length;
+                count -= length;
+                position += length;
+            }
+        }
+
+        private void align() throws IOException {
+            while ((position & 7) != 0) {
+                require(1);
+                buffer.put((byte) 0);
+                position++;
+            }
+        }
+
+        private void require(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
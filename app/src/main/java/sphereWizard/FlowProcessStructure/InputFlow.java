@@ -43,6 +43,7 @@ public class InputFlow extends Flow {
      */
     public void setName(String name) {
         this.name = name;
+        modified();
     }
 
     /**
@@ -53,7 +54,7 @@ public class InputFlow extends Flow {
     @Override
     public String toString() {
         return "InputFlow {" +
-                "name='" + name + '\'' +
+                "name='" + getName() + '\'' +
                 ", category='" + getCategory() + '\'' +
                 ", value=" + getValue() +
                 ", unit='" + getUnit() + '\'' +
@@ -0,0 +1,39 @@
+package sphereWizard.FlowProcessStructure;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The `ModificationCounter` class counts the changes made to the flows of a
+ * {@link Process}: a flow changed through its setters, or a flow added,
+ * removed or replaced. The processes of a {@link FlowTable} share the counter
+ * of their table; any other process has a counter of its own.
+ *
+ * <p>
+ * The count only grows, so a result calculated from the flows is still valid
+ * as long as the counters of its processes have not changed, and changes to
+ * unrelated processes leave it valid.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public final class ModificationCounter {
+
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * Gets the number of changes counted so far.
+     *
+     * @return The number of changes.
+     */
+    public long get() {
+        return count.get();
+    }
+
+    /**
+     * Counts a change.
+     */
+    void increment() {
+        count.incrementAndGet();
+    }
+}
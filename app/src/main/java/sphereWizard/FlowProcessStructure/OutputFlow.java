@@ -45,6 +45,7 @@ public class OutputFlow extends Flow {
      */
     public void setName(OutputFlowTypes name) {
         this.name = name;
+        modified();
     }
 
     /**
@@ -55,7 +56,7 @@ public class OutputFlow extends Flow {
     @Override
     public String toString() {
         return "OutputFlow {" +
-                "name=" + name +
+                "name=" + getName() +
                 ", category='" + getCategory() + '\'' +
                 ", value=" + getValue() +
                 ", unit='" + getUnit() + '\'' +
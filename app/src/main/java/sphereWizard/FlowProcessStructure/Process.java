@@ -1,7 +1,9 @@
 package sphereWizard.FlowProcessStructure;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.ObjDoubleConsumer;
+
+import sphereWizard.Enums.OutputFlowTypes;
 
 /**
  * The `Process` class represents a process, containing input flows and output
@@ -30,6 +32,11 @@ public class Process {
      */
     private List<OutputFlow> outputFlows;
 
+    /**
+     * Counts the changes made to the flows of the process.
+     */
+    private final ModificationCounter modifications = new ModificationCounter();
+
     /**
      * Constructs a `Process` object with the specified name.
      *
@@ -39,8 +46,8 @@ public class Process {
     public Process(String name, String category) {
         this.name = name;
         this.category = category;
-        this.inputFlows = new ArrayList<>();
-        this.outputFlows = new ArrayList<>();
+        this.inputFlows = new FlowList<>(modifications);
+        this.outputFlows = new FlowList<>(modifications);
     }
 
     /**
@@ -55,8 +62,8 @@ public class Process {
     public Process(String name, String category, List<InputFlow> inputFlows, List<OutputFlow> outputFlows) {
         this.name = name;
         this.category = category;
-        this.inputFlows = new ArrayList<>(inputFlows);
-        this.outputFlows = new ArrayList<>(outputFlows);
+        this.inputFlows = new FlowList<>(inputFlows, modifications);
+        this.outputFlows = new FlowList<>(outputFlows, modifications);
     }
     
     /**
@@ -95,6 +102,63 @@ public class Process {
         return outputFlows;
     }
 
+    /**
+     * Gets the counter of the changes made to the flows of the process,
+     * through their setters or by adding, removing or replacing a flow. The
+     * processes of a {@link FlowTable} share the counter of their table.
+     *
+     * @return The counter.
+     */
+    public ModificationCounter getModificationCounter() {
+        return modifications;
+    }
+
+    /**
+     * Adds the values of the output flows of a given type to a running total,
+     * in the order the flows appear in the process.
+     *
+     * @param flowType The type of the output flows to add.
+     * @param total    The total so far.
+     * @return The total with the values of this process added.
+     */
+    public double addOutputFlowValues(OutputFlowTypes flowType, double total) {
+        for (OutputFlow outputFlow : getOutputFlows()) {
+            if ((outputFlow != null) && outputFlow.getName().equals(flowType)) {
+                total += outputFlow.getValue();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Adds the value of every output flow to the running total of its type, in
+     * the order the flows appear in the process.
+     *
+     * @param totals The totals so far, indexed by the ordinal of each output
+     *               flow type.
+     */
+    public void addOutputFlowTotals(double[] totals) {
+        for (OutputFlow outputFlow : getOutputFlows()) {
+            if ((outputFlow != null) && (outputFlow.getName() != null)) {
+                totals[outputFlow.getName().ordinal()] += outputFlow.getValue();
+            }
+        }
+    }
+
+    /**
+     * Passes the type and value of every output flow to an action, in the order
+     * the flows appear in the process. Flows without a type are skipped.
+     *
+     * @param action The action receiving each output flow type and value.
+     */
+    public void forEachOutputFlowValue(ObjDoubleConsumer<OutputFlowTypes> action) {
+        for (OutputFlow outputFlow : getOutputFlows()) {
+            if ((outputFlow != null) && (outputFlow.getName() != null)) {
+                action.accept(outputFlow.getName(), outputFlow.getValue());
+            }
+        }
+    }
+
     /**
      * Returns a string representation of the `Process`, including its name, input
      * flows, and output flows.
@@ -105,11 +169,11 @@ public class Process {
     public String toString() {
         StringBuilder result = new StringBuilder("Process: " + name + "\nCategory: " + category +"\n");
         result.append("Input Flows:\n");
-        for (Flow inputFlow : inputFlows) {
+        for (Flow inputFlow : getInputFlows()) {
             result.append(inputFlow.toString()).append("\n");
         }
         result.append("Output Flows:\n");
-        for (Flow outputFlow : outputFlows) {
+        for (Flow outputFlow : getOutputFlows()) {
             result.append(outputFlow.toString()).append("\n");
         }
         return result.toString();
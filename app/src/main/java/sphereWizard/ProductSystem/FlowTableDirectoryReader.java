@@ -0,0 +1,215 @@
+package sphereWizard.ProductSystem;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import sphereWizard.FlowProcessStructure.Process;
+import sphereWizard.Util.DecimalParser;
+import sphereWizard.Util.UnitRegistry;
+
+/**
+ * The `FlowTableDirectoryReader` class reads many flow table files at once,
+ * for product systems spread over one file per supplier, and merges their
+ * processes into a single {@link ProductSystemData}.
+ *
+ * <p>
+ * Every file is read by a {@link FlowTableReader} on its own thread, and no
+ * more than {@link #setMaxOpenFiles(int) a given number} of files are open at
+ * the same time. The files are sorted by path and their processes are merged
+ * in that order once every file is read, so the result does not depend on
+ * which file finishes first. A file that cannot be read is reported with its
+ * error and does not stop the others.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public class FlowTableDirectoryReader {
+
+    /**
+     * The files read by {@link #read(Path)}.
+     */
+    public static final String DEFAULT_GLOB = "*.csv";
+
+    private final String delimiter;
+    private int maxOpenFiles = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private DecimalParser decimalParser = DecimalParser.DEFAULT;
+    private UnitRegistry unitRegistry = UnitRegistry.standard();
+
+    /**
+     * Constructs a reader for files using the given delimiter.
+     *
+     * @param delimiter The delimiter used to separate data in the files, a
+     *                  single ASCII character.
+     * @throws IllegalArgumentException if the delimiter is not a single ASCII
+     *                                  character.
+     */
+    public FlowTableDirectoryReader(String delimiter) {
+        FlowTableScanner.toByte(delimiter);
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Reads every file of a directory with the {@code .csv} extension.
+     *
+     * @param directory The directory.
+     * @return The processes of the files and the files that failed.
+     * @throws IOException          if the directory cannot be listed.
+     * @throws InterruptedException if the thread is interrupted while waiting
+     *                              for the files.
+     */
+    public IngestionResult read(Path directory) throws IOException, InterruptedException {
+        return read(directory, DEFAULT_GLOB);
+    }
+
+    /**
+     * Reads every file of a directory whose name matches a glob, such as
+     * {@code "supplier-*.csv"}. Subdirectories are not read.
+     *
+     * @param directory The directory.
+     * @param glob      The glob the file names must match.
+     * @return The processes of the files and the files that failed.
+     * @throws IOException          if the directory cannot be listed.
+     * @throws InterruptedException if the thread is interrupted while waiting
+     *                              for the files.
+     */
+    public IngestionResult read(Path directory, String glob) throws IOException, InterruptedException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        return read(files);
+    }
+
+    /**
+     * Reads a collection of files.
+     *
+     * @param files The files, read in sorted order whatever their order in
+     *              the collection.
+     * @return The processes of the files and the files that failed.
+     * @throws InterruptedException if the thread is interrupted while waiting
+     *                              for the files.
+     */
+    public IngestionResult read(Collection<Path> files) throws InterruptedException {
+        List<Path> sorted = new ArrayList<>(files);
+        Collections.sort(sorted);
+
+        FlowTableReader reader = new FlowTableReader(delimiter);
+        reader.setDecimalParser(decimalParser);
+        reader.setUnitRegistry(unitRegistry);
+
+        List<Callable<List<Process>>> tasks = new ArrayList<>();
+        for (Path file : sorted) {
+            tasks.add(() -> {
+                ProductSystemData part = new ProductSystemData();
+                reader.read(file.toString(), part);
+                return part.getProcesses();
+            });
+        }
+
+        // The pool size is the number of files open at the same time
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(maxOpenFiles, sorted.size())));
+        List<Future<List<Process>>> futures;
+        try {
+            futures = pool.invokeAll(tasks);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        ProductSystemData data = new ProductSystemData();
+        data.setDecimalParser(decimalParser);
+        data.setUnitRegistry(unitRegistry);
+        List<Path> read = new ArrayList<>();
+        Map<Path, Exception> errors = new LinkedHashMap<>();
+
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            try {
+                processes.addAll(futures.get(i).get());
+                read.add(sorted.get(i));
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                errors.put(sorted.get(i), (Exception) e.getCause());
+            }
+        }
+        data.getProcesses().addAll(processes);
+
+        return new IngestionResult(data, Collections.unmodifiableList(read), Collections.unmodifiableMap(errors));
+    }
+
+    /**
+     * Sets the largest number of files read at the same time.
+     *
+     * @param maxOpenFiles The number of files, by default the number of
+     *                     available processors.
+     */
+    public void setMaxOpenFiles(int maxOpenFiles) {
+        if (maxOpenFiles < 1) {
+            throw new IllegalArgumentException("At least one file must be open: " + maxOpenFiles);
+        }
+        this.maxOpenFiles = maxOpenFiles;
+    }
+
+    /**
+     * Gets the largest number of files read at the same time.
+     *
+     * @return The number of files.
+     */
+    public int getMaxOpenFiles() {
+        return maxOpenFiles;
+    }
+
+    /**
+     * Sets the parser of the quantities of every file.
+     *
+     * @param decimalParser The parser, {@link DecimalParser#DEFAULT} by
+     *                      default.
+     */
+    public void setDecimalParser(DecimalParser decimalParser) {
+        if (decimalParser == null) {
+            throw new IllegalArgumentException("The decimal parser cannot be null");
+        }
+        this.decimalParser = decimalParser;
+    }
+
+    /**
+     * Sets the registry of the units of every file.
+     *
+     * @param unitRegistry The registry, {@link UnitRegistry#standard()} by
+     *                     default.
+     */
+    public void setUnitRegistry(UnitRegistry unitRegistry) {
+        if (unitRegistry == null) {
+            throw new IllegalArgumentException("The unit registry cannot be null");
+        }
+        this.unitRegistry = unitRegistry;
+    }
+
+    /**
+     * Gets the delimiter used to separate data in the files.
+     *
+     * @return The delimiter.
+     */
+    public String getDelimiter() {
+        return delimiter;
+    }
+}
@@ -0,0 +1,310 @@
+package sphereWizard.ProductSystem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import sphereWizard.Exceptions.FlowOutputNotRecognizedException;
+import sphereWizard.Exceptions.UnitNotRecognizedException;
+import sphereWizard.Util.BackgroundInflater;
+
+/**
+ * The `FlowTableIndex` class records where every process of a flow table
+ * starts, so that a single process can be read without parsing the rest of
+ * the file. Building it only looks at the first cell of every row to find
+ * the process headers, with the same rules as
+ * {@link ProductSystemData#readCsv(String, String)}; no flow is decoded.
+ *
+ * <p>
+ * The index is saved next to the flow table, with the {@link #EXTENSION}
+ * extension, together with the size and modification time of the file.
+ * {@link #open(String, String)} reuses a saved index as long as the file has
+ * not changed since, and builds it again otherwise.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public final class FlowTableIndex {
+
+    /**
+     * The extension added to the path of a flow table to get the path of its
+     * index.
+     */
+    public static final String EXTENSION = ".idx";
+
+    /**
+     * The first four bytes of an index file, "SWIX".
+     */
+    private static final int MAGIC = 0x53574958;
+
+    /**
+     * The version of the format written.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Where a process is in a flow table.
+     *
+     * @param name       The name of the process.
+     * @param category   The category of the process.
+     * @param offset     The offset of the first byte of the process header.
+     * @param end        The offset after the last flow row of the process.
+     * @param lineNumber The line number of the process header, starting at 1.
+     */
+    public record Entry(String name, String category, long offset, long end, long lineNumber) {
+    }
+
+    private final String delimiter;
+    private final long fileSize;
+    private final long lastModified;
+    private final List<Entry> entries;
+    private final Map<String, List<Entry>> byName = new HashMap<>();
+
+    private FlowTableIndex(String delimiter, long fileSize, long lastModified, List<Entry> entries) {
+        this.delimiter = delimiter;
+        this.fileSize = fileSize;
+        this.lastModified = lastModified;
+        this.entries = Collections.unmodifiableList(entries);
+        for (Entry entry : entries) {
+            byName.computeIfAbsent(entry.name(), name -> new ArrayList<>()).add(entry);
+        }
+    }
+
+    /**
+     * Opens the index of a flow table: the saved index if it is still up to
+     * date, or else a new index, which is saved for the next time. The index
+     * is still returned if it cannot be saved.
+     *
+     * @param path      The path to the flow table.
+     * @param delimiter The delimiter used to separate data in the file, a
+     *                  single ASCII character.
+     * @return The index.
+     * @throws FileNotFoundException if the file does not exist.
+     * @throws IOException           if the file cannot be read.
+     */
+    public static FlowTableIndex open(String path, String delimiter) throws IOException {
+        Path file = Paths.get(path);
+        Path indexFile = pathOf(path);
+
+        if (Files.isRegularFile(indexFile)) {
+            try {
+                FlowTableIndex saved = load(indexFile);
+                if (saved.delimiter.equals(delimiter) && saved.isCurrent(file)) {
+                    return saved;
+                }
+            } catch (IOException e) {
+                // A damaged or outdated index is built again
+            }
+        }
+
+        FlowTableIndex index = build(path, delimiter);
+        try {
+            index.save(indexFile);
+        } catch (IOException e) {
+            // The index is only a cache, the file may be in a read-only directory
+        }
+        return index;
+    }
+
+    /**
+     * Builds the index of a flow table by scanning its process headers.
+     *
+     * @param path      The path to the flow table.
+     * @param delimiter The delimiter used to separate data in the file, a
+     *                  single ASCII character.
+     * @return The index.
+     * @throws FileNotFoundException if the file does not exist.
+     * @throws IOException           if the file cannot be read or is
+     *                               compressed.
+     */
+    public static FlowTableIndex build(String path, String delimiter) throws IOException {
+        File file = new File(path);
+        if (!file.isFile()) {
+            throw new FileNotFoundException("File does not exist: " + path);
+        }
+        if (BackgroundInflater.isGzip(file.toPath())) {
+            throw new IOException("A compressed file cannot be indexed: " + path);
+        }
+        long lastModified = file.lastModified();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            HeaderCollector collector = new HeaderCollector();
+            new FlowTableReader(delimiter).readRange(channel, 0, size, new FlowTableScanner(delimiter), collector);
+            return new FlowTableIndex(delimiter, size, lastModified, collector.finish(size));
+        } catch (UnitNotRecognizedException | FlowOutputNotRecognizedException e) {
+            // The collector never decodes a flow
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Gets the path of the index of a flow table.
+     *
+     * @param path The path to the flow table.
+     * @return The path of its index.
+     */
+    public static Path pathOf(String path) {
+        return Paths.get(path + EXTENSION);
+    }
+
+    /**
+     * Saves the index.
+     *
+     * @param indexFile The path of the index file, replaced if it exists.
+     * @throws IOException if the file cannot be written.
+     */
+    public void save(Path indexFile) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(indexFile)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeUTF(delimiter);
+            output.writeLong(fileSize);
+            output.writeLong(lastModified);
+            output.writeInt(entries.size());
+            for (Entry entry : entries) {
+                writeString(output, entry.name());
+                writeString(output, entry.category());
+                output.writeLong(entry.offset());
+                output.writeLong(entry.end());
+                output.writeLong(entry.lineNumber());
+            }
+        }
+    }
+
+    /**
+     * Loads a saved index.
+     *
+     * @param indexFile The path of the index file.
+     * @return The index.
+     * @throws IOException if the file cannot be read or is not an index.
+     */
+    public static FlowTableIndex load(Path indexFile) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException("Not a flow table index: " + indexFile);
+            }
+            String delimiter = input.readUTF();
+            long fileSize = input.readLong();
+            long lastModified = input.readLong();
+
+            int count = input.readInt();
+            if (count < 0) {
+                throw new IOException("Not a flow table index: " + indexFile);
+            }
+            List<Entry> entries = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                entries.add(new Entry(readString(input), readString(input), input.readLong(), input.readLong(),
+                        input.readLong()));
+            }
+            return new FlowTableIndex(delimiter, fileSize, lastModified, entries);
+        }
+    }
+
+    /**
+     * Checks whether the flow table still has the size and modification time
+     * it had when the index was built.
+     *
+     * @param file The path to the flow table.
+     * @return {@code true} if the index is up to date.
+     */
+    public boolean isCurrent(Path file) {
+        File table = file.toFile();
+        return table.isFile() && table.length() == fileSize && table.lastModified() == lastModified;
+    }
+
+    /**
+     * Gets the processes of the flow table, in file order.
+     *
+     * @return An unmodifiable list of entries.
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Finds the processes with a given name.
+     *
+     * @param name The name of the processes.
+     * @return The entries of the processes, in file order.
+     */
+    public List<Entry> findByName(String name) {
+        return Collections.unmodifiableList(byName.getOrDefault(name, Collections.emptyList()));
+    }
+
+    /**
+     * Gets the delimiter the index was built with.
+     *
+     * @return The delimiter.
+     */
+    public String getDelimiter() {
+        return delimiter;
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    /**
+     * Records the process headers of a flow table, following the rules of
+     * {@link ProcessRowHandler}: processes without flows before the first flow
+     * row are left out.
+     */
+    private static final class HeaderCollector extends ProcessRowHandler {
+
+        private final List<String> names = new ArrayList<>();
+        private final List<String> categories = new ArrayList<>();
+        private final List<long[]> positions = new ArrayList<>();
+        private int firstWithFlows = -1;
+
+        @Override
+        void header(FlowTableRow row) {
+            names.add(row.text(3));
+            categories.add(row.text(4));
+            positions.add(new long[] { row.getOffset(), row.getLineNumber() });
+        }
+
+        @Override
+        void flowRow(FlowTableRow row) {
+            if (firstWithFlows < 0 && !names.isEmpty()) {
+                firstWithFlows = names.size() - 1;
+            }
+        }
+
+        private List<Entry> finish(long size) {
+            List<Entry> entries = new ArrayList<>();
+            if (firstWithFlows < 0) {
+                return entries;
+            }
+            for (int i = firstWithFlows; i < names.size(); i++) {
+                long end = i + 1 < names.size() ? positions.get(i + 1)[0] : size;
+                entries.add(new Entry(names.get(i), categories.get(i), positions.get(i)[0], end,
+                        positions.get(i)[1]));
+            }
+            return entries;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package sphereWizard.ProductSystem;
+
+import java.io.FileNotFoundException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+import sphereWizard.FlowProcessStructure.Process;
+
+/**
+ * The `FlowTablePublisher` class publishes the processes of a flow table
+ * while the file is being read, so that a subscriber can aggregate or export
+ * the first processes before the last ones are parsed. A process is published
+ * as soon as the header of the next process is read, or at the end of the
+ * file for the last one, following the rules of
+ * {@link ProductSystemData#readCsv(String, String)}.
+ *
+ * <p>
+ * Every subscriber gets its own read of the file, so subscribing twice reads
+ * it twice. The read runs on a thread of its own and stops while the
+ * subscriber has no outstanding demand, so at most one process is held
+ * waiting for a request. Every process has a table of its own, so the memory
+ * used by the read does not grow with the size of the file. Errors, like a
+ * missing file or an unknown unit, are signalled with
+ * {@link java.util.concurrent.Flow.Subscriber#onError(Throwable)} after the
+ * processes read before them.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public final class FlowTablePublisher implements java.util.concurrent.Flow.Publisher<Process> {
+
+    private final FlowTableReader reader;
+    private final String path;
+    private final Executor executor;
+
+    /**
+     * Constructs a publisher that reads the file on a new thread for every
+     * subscriber.
+     *
+     * @param reader The reader, whose delimiter, parser and units are used.
+     * @param path   The path to the file.
+     */
+    FlowTablePublisher(FlowTableReader reader, String path) {
+        this(reader, path, task -> {
+            Thread thread = new Thread(task, "flow-table-publisher");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    /**
+     * Constructs a publisher that reads the file on the threads of an
+     * executor.
+     *
+     * @param reader   The reader, whose delimiter, parser and units are used.
+     * @param path     The path to the file.
+     * @param executor The executor running each read.
+     */
+    FlowTablePublisher(FlowTableReader reader, String path, Executor executor) {
+        this.reader = Objects.requireNonNull(reader);
+        this.path = Objects.requireNonNull(path);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    @Override
+    public void subscribe(java.util.concurrent.Flow.Subscriber<? super Process> subscriber) {
+        Objects.requireNonNull(subscriber);
+        ReadSubscription subscription = new ReadSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        try {
+            executor.execute(subscription);
+        } catch (RuntimeException e) {
+            subscription.fail(e);
+        }
+    }
+
+    /**
+     * Thrown through the scanner to stop the read once the subscription is
+     * cancelled.
+     */
+    private static final class Cancelled extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private Cancelled() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * The read of the file for one subscriber. The subscriber is only ever
+     * called from the thread running the read, after
+     * {@link java.util.concurrent.Flow.Subscriber#onSubscribe}.
+     */
+    private final class ReadSubscription implements java.util.concurrent.Flow.Subscription, Runnable {
+
+        private final java.util.concurrent.Flow.Subscriber<? super Process> subscriber;
+
+        /**
+         * Number of processes requested and not yet published, guarded by
+         * this subscription.
+         */
+        private long demand;
+
+        /**
+         * The error of an invalid request, signalled by the reading thread.
+         */
+        private IllegalArgumentException invalidRequest;
+
+        private volatile boolean cancelled;
+
+        private ReadSubscription(java.util.concurrent.Flow.Subscriber<? super Process> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public synchronized void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException(
+                        "The number of processes requested must be positive: " + n);
+            } else {
+                // Saturates at Long.MAX_VALUE, which means no limit
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void cancel() {
+            cancelled = true;
+            notifyAll();
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (!Files.isRegularFile(Paths.get(path))) {
+                    throw new FileNotFoundException("File does not exist: " + path);
+                }
+
+                ProcessAssembler assembler = new ProcessAssembler(reader.getDecimalParser(),
+                        reader.getUnitRegistry(), new ArrayList<>());
+                assembler.publishEach(this::publish);
+                reader.scan(path, assembler);
+                assembler.finish();
+            } catch (Cancelled e) {
+                return;
+            } catch (Exception e) {
+                fail(e);
+                return;
+            }
+
+            synchronized (this) {
+                if (invalidRequest != null) {
+                    fail(invalidRequest);
+                }
+            }
+            if (!cancelled) {
+                cancelled = true;
+                subscriber.onComplete();
+            }
+        }
+
+        /**
+         * Signals an error, unless the subscription was cancelled.
+         */
+        private void fail(Throwable error) {
+            if (!cancelled) {
+                cancelled = true;
+                subscriber.onError(error);
+            }
+        }
+
+        /**
+         * Waits for the subscriber to request a process, then hands it over.
+         */
+        private void publish(Process process) {
+            awaitDemand();
+            try {
+                subscriber.onNext(process);
+            } catch (RuntimeException e) {
+                // A subscriber that throws is treated as cancelled
+                cancelled = true;
+                throw new Cancelled();
+            }
+        }
+
+        private synchronized void awaitDemand() {
+            try {
+                while (demand == 0 && !cancelled && invalidRequest == null) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(new InterruptedIOException("Interrupted while waiting for a request"));
+                throw new Cancelled();
+            }
+
+            if (invalidRequest != null) {
+                fail(invalidRequest);
+            }
+            if (cancelled) {
+                throw new Cancelled();
+            }
+            if (demand != Long.MAX_VALUE) {
+                demand--;
+            }
+        }
+    }
+}
@@ -0,0 +1,761 @@
+package sphereWizard.ProductSystem;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import sphereWizard.Exceptions.FlowOutputNotRecognizedException;
+import sphereWizard.Exceptions.UnitNotRecognizedException;
+import sphereWizard.FlowProcessStructure.Process;
+import sphereWizard.Util.BackgroundInflater;
+import sphereWizard.Util.DecimalParser;
+import sphereWizard.Util.UnitRegistry;
+
+/**
+ * The `FlowTableReader` class reads flow tables by memory-mapping the file and
+ * scanning its bytes directly, instead of going through a {@code Reader} and
+ * {@code String.split}. It builds the same processes, input flows and output
+ * flows as {@link ProductSystemData#readCsv(String, String)} while only
+ * decoding the cells it needs, and it supports quoted cells.
+ *
+ * <p>
+ * The file is expected to be encoded in UTF-8 (or plain ASCII).
+ * </p>
+ *
+ * <p>
+ * With a parallelism above one, the file is split into byte ranges that each
+ * start at a process header (a line whose first cell is blank), the ranges are
+ * parsed on fork-join workers and their processes are added in file order.
+ * Split points are found by looking at line starts only, so quoted cells must
+ * not contain a line break followed by the delimiter.
+ * </p>
+ *
+ * <p>
+ * With the {@link Projection#OUTPUT_FLOWS} projection, the input cells of each
+ * flow row are only skipped over. The input flows of the processes are read
+ * from the file again the first time they are asked for, so the file must not
+ * change while the processes are in use.
+ * </p>
+ *
+ * <p>
+ * A file compressed with gzip cannot be mapped. It is decompressed on a
+ * background thread and scanned as the decompressed bytes arrive, on the
+ * calling thread and with every column decoded, whatever the parallelism and
+ * projection.
+ * </p>
+ *
+ * <p>
+ * With diagnostics set, the reader is lenient: a flow row with a bad cell is
+ * recorded in the {@link LoadDiagnostics} and skipped instead of stopping the
+ * read. Every column is then decoded, whatever the projection.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public class FlowTableReader {
+
+    /**
+     * The columns of a flow table decoded by the reader.
+     */
+    public enum Projection {
+        /**
+         * Every column is decoded while reading.
+         */
+        ALL_COLUMNS,
+        /**
+         * Only the output flow columns are decoded while reading; the input
+         * flows are loaded when first asked for, and are not checked before.
+         */
+        OUTPUT_FLOWS
+    }
+
+    /**
+     * Largest region of the file mapped at once.
+     */
+    static final long MAX_MAPPING = Integer.MAX_VALUE;
+
+    /**
+     * The delimiter used to separate data in the file.
+     */
+    private final String delimiter;
+
+    /**
+     * Number of ranges given to each worker, so that a worker finishing early
+     * can steal the ranges left by a slower one.
+     */
+    private static final int RANGES_PER_WORKER = 4;
+
+    /**
+     * Size of the buffer used when looking for a process header.
+     */
+    private static final int SEARCH_BUFFER = 64 * 1024;
+
+    /**
+     * Size of the regions of the file mapped at once.
+     */
+    private long mappingSize = 1L << 30;
+
+    /**
+     * Number of workers parsing the file, 1 to read it on the calling thread.
+     */
+    private int parallelism = 1;
+
+    /**
+     * The columns decoded while reading.
+     */
+    private Projection projection = Projection.ALL_COLUMNS;
+
+    /**
+     * The parser of the quantities.
+     */
+    private DecimalParser decimalParser = DecimalParser.DEFAULT;
+
+    /**
+     * The registry of the units.
+     */
+    private UnitRegistry unitRegistry = UnitRegistry.standard();
+
+    /**
+     * Size of the buffer used to scan a compressed file.
+     */
+    private int streamBufferSize = 1 << 20;
+
+    /**
+     * Where bad rows are recorded, {@code null} to stop at the first one.
+     */
+    private LoadDiagnostics diagnostics;
+
+    /**
+     * Smallest range handed to a worker, smaller files are read on one thread.
+     */
+    private long minRangeSize = 8L * 1024 * 1024;
+
+    /**
+     * Constructs a reader for files using the given delimiter.
+     *
+     * @param delimiter The delimiter used to separate data in the file, a
+     *                  single ASCII character.
+     * @throws IllegalArgumentException if the delimiter is not a single ASCII
+     *                                  character.
+     */
+    public FlowTableReader(String delimiter) {
+        FlowTableScanner.toByte(delimiter);
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Reads a flow table and adds its processes to a ProductSystemData.
+     *
+     * @param path The path to the file.
+     * @param data The ProductSystemData receiving the processes.
+     * @throws FileNotFoundException            if the file does not exist.
+     * @throws UnitNotRecognizedException       if a flow has an unknown unit.
+     * @throws FlowOutputNotRecognizedException if an output flow has an unknown
+     *                                          type.
+     * @throws IOException                      if the file cannot be read.
+     */
+    public void read(String path, ProductSystemData data)
+            throws UnitNotRecognizedException, FlowOutputNotRecognizedException, IOException {
+        File file = new File(path);
+        if (!file.isFile()) {
+            throw new FileNotFoundException("File does not exist: " + path);
+        }
+
+        if (BackgroundInflater.isGzip(file.toPath())) {
+            ProcessAssembler assembler = new ProcessAssembler(decimalParser, unitRegistry, data.getProcesses());
+            if (diagnostics != null) {
+                assembler.recordProblems(diagnostics);
+            }
+            try (InputStream input = BackgroundInflater.open(path)) {
+                readStream(input, new FlowTableScanner(delimiter), assembler);
+            }
+            assembler.finish();
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            long[] splits = parallelism > 1 ? findSplits(channel) : new long[] { 0, channel.size() };
+
+            if (splits.length > 2) {
+                readParallel(path, channel, splits, data);
+            } else {
+                ProcessAssembler assembler = new ProcessAssembler(decimalParser, unitRegistry, data.getProcesses());
+                if (diagnostics != null) {
+                    assembler.recordProblems(diagnostics);
+                } else {
+                    project(assembler, path, 0, channel.size());
+                }
+                readRange(channel, 0, channel.size(), new FlowTableScanner(delimiter), assembler);
+                assembler.finish();
+            }
+        }
+    }
+
+    /**
+     * Reads a flow table in a single pass and only keeps the totals of every
+     * output flow type and the number of processes, instead of building its
+     * processes and flows. The memory used does not depend on the size of the
+     * file, and the totals are exactly those of the processes
+     * {@link #read(String, ProductSystemData)} would build. The file is always
+     * read on the calling thread, so that the flows are added in file order.
+     * With the {@link Projection#OUTPUT_FLOWS} projection, the input cells are
+     * not checked.
+     *
+     * @param path The path to the file.
+     * @return The summary of the table.
+     * @throws FileNotFoundException            if the file does not exist.
+     * @throws UnitNotRecognizedException       if a flow has an unknown unit.
+     * @throws FlowOutputNotRecognizedException if an output flow has an unknown
+     *                                          type.
+     * @throws IOException                      if the file cannot be read.
+     */
+    public FlowTableSummary summarize(String path)
+            throws UnitNotRecognizedException, FlowOutputNotRecognizedException, IOException {
+        File file = new File(path);
+        if (!file.isFile()) {
+            throw new FileNotFoundException("File does not exist: " + path);
+        }
+
+        FlowTableSummarizer summarizer = new FlowTableSummarizer(decimalParser, unitRegistry,
+                projection == Projection.ALL_COLUMNS);
+        scan(path, summarizer);
+        return summarizer.finish();
+    }
+
+    /**
+     * Creates a publisher of the processes of a flow table. Every subscriber
+     * gets its own read of the file, on its own thread, and receives each
+     * process as soon as the header of the next one is read. The file is only
+     * read as fast as the subscriber requests processes, and a process is no
+     * longer kept by the reader once it has been handed over. The projection
+     * and parallelism are not used.
+     *
+     * @param path The path to the file.
+     * @return The publisher.
+     * @see FlowTablePublisher
+     */
+    public FlowTablePublisher publish(String path) {
+        return new FlowTablePublisher(this, path);
+    }
+
+    /**
+     * Creates a publisher of the processes of a flow table, like
+     * {@link #publish(String)}, that reads the file on the threads of an
+     * executor.
+     *
+     * @param path     The path to the file.
+     * @param executor The executor running each read.
+     * @return The publisher.
+     */
+    public FlowTablePublisher publish(String path, Executor executor) {
+        return new FlowTablePublisher(this, path, executor);
+    }
+
+    /**
+     * Scans a whole file on the calling thread, in file order, decompressing
+     * it first if it is compressed with gzip.
+     *
+     * @param path    The path to the file.
+     * @param handler The handler of the rows.
+     * @throws UnitNotRecognizedException       if the handler rejects a unit.
+     * @throws FlowOutputNotRecognizedException if the handler rejects an
+     *                                          output flow type.
+     * @throws IOException                      if the file cannot be read.
+     */
+    void scan(String path, FlowTableScanner.RowHandler handler)
+            throws UnitNotRecognizedException, FlowOutputNotRecognizedException, IOException {
+        if (BackgroundInflater.isGzip(Paths.get(path))) {
+            try (InputStream input = BackgroundInflater.open(path)) {
+                readStream(input, new FlowTableScanner(delimiter), handler);
+            }
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            readRange(channel, 0, channel.size(), new FlowTableScanner(delimiter), handler);
+        }
+    }
+
+    /**
+     * Reads a single process of a flow table, from the position recorded in an
+     * index of the file. Only the rows of that process are scanned.
+     *
+     * @param path  The path to the file.
+     * @param entry The entry of the process in the index.
+     * @return The process, with its flows.
+     * @throws FileNotFoundException            if the file does not exist.
+     * @throws UnitNotRecognizedException       if a flow has an unknown unit.
+     * @throws FlowOutputNotRecognizedException if an output flow has an unknown
+     *                                          type.
+     * @throws IOException                      if the file cannot be read or
+     *                                          no longer matches the entry.
+     * @see FlowTableIndex
+     */
+    public Process readProcess(String path, FlowTableIndex.Entry entry)
+            throws UnitNotRecognizedException, FlowOutputNotRecognizedException, IOException {
+        File file = new File(path);
+        if (!file.isFile()) {
+            throw new FileNotFoundException("File does not exist: " + path);
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (entry.end() > channel.size()) {
+                throw new IOException("The file changed since it was indexed: " + path);
+            }
+
+            // The process is read as a part of the file starting at its header
+            List<Process> processes = new ArrayList<>();
+            ProcessAssembler assembler = new ProcessAssembler(decimalParser, unitRegistry, processes, true);
+            FlowTableScanner scanner = new FlowTableScanner(delimiter);
+            scanner.setLineNumber(entry.lineNumber() - 1);
+            readRange(channel, entry.offset(), entry.end(), scanner, assembler);
+            assembler.finish();
+
+            if (processes.size() != 1 || !Objects.equals(processes.get(0).getName(), entry.name())) {
+                throw new IOException("The file changed since it was indexed: " + path);
+            }
+            return processes.get(0);
+        }
+    }
+
+    /**
+     * Parses every range on a fork-join pool and adds the processes in file
+     * order. If several ranges fail, the error of the first one is thrown.
+     */
+    private void readParallel(String path, FileChannel channel, long[] splits, ProductSystemData data)
+            throws UnitNotRecognizedException, FlowOutputNotRecognizedException, IOException {
+        List<ForkJoinTask<RangeResult>> tasks = new ArrayList<>();
+        for (int i = 0; i < splits.length - 1; i++) {
+            long from = splits[i];
+            long to = splits[i + 1];
+            tasks.add(ForkJoinTask.adapt(() -> parseRange(path, channel, from, to, data)));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        List<RangeResult> results = new ArrayList<>();
+        try {
+            for (ForkJoinTask<RangeResult> task : tasks) {
+                pool.execute(task);
+            }
+            for (ForkJoinTask<RangeResult> task : tasks) {
+                results.add(task.join());
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        boolean sawFlows = false;
+        long linesBefore = 0;
+        for (RangeResult result : results) {
+            result.rethrow();
+
+            if (diagnostics != null) {
+                // The line numbers of a range start after its first byte
+                diagnostics.addAll(result.diagnostics, linesBefore);
+                linesBefore += result.lines;
+            }
+
+            // Like readCsv, processes before the first flow row of the file are dropped
+            List<Process> processes = result.processes;
+            int first = sawFlows ? 0 : result.processesBeforeFlows;
+            data.getProcesses().addAll(processes.subList(first, processes.size()));
+            sawFlows |= result.sawFlows;
+        }
+    }
+
+    private RangeResult parseRange(String path, FileChannel channel, long from, long to, ProductSystemData data) {
+        RangeResult result = new RangeResult();
+        ProcessAssembler assembler = new ProcessAssembler(decimalParser, unitRegistry, result.processes, from > 0);
+        if (diagnostics != null) {
+            result.diagnostics = new LoadDiagnostics(diagnostics.getMaxProblems());
+            assembler.recordProblems(result.diagnostics);
+        } else {
+            project(assembler, path, from, to);
+        }
+        FlowTableScanner scanner = new FlowTableScanner(delimiter);
+        try {
+            readRange(channel, from, to, scanner, assembler);
+            assembler.finish();
+        } catch (UnitNotRecognizedException | FlowOutputNotRecognizedException | IOException
+                | RuntimeException e) {
+            result.error = e;
+        }
+        result.sawFlows = assembler.sawFlows();
+        result.processesBeforeFlows = assembler.processesBeforeFlows();
+        result.lines = scanner.getLineNumber();
+        return result;
+    }
+
+    /**
+     * Applies the projection to an assembler of a range of a file.
+     */
+    private void project(ProcessAssembler assembler, String path, long from, long to) {
+        if (projection == Projection.OUTPUT_FLOWS) {
+            // The input flows may be loaded after the working directory changed
+            Path file = Paths.get(path).toAbsolutePath();
+            DecimalParser parser = decimalParser;
+            UnitRegistry units = unitRegistry;
+            assembler.deferInputFlows(sink -> {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    readRange(channel, from, to, new FlowTableScanner(delimiter),
+                            new InputFlowCollector(sink, parser, units));
+                } catch (FlowOutputNotRecognizedException e) {
+                    // The collector never reads output flow types
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Splits the file into ranges of roughly the same size, moving every split
+     * point forward to the next process header.
+     *
+     * @param channel The channel of the file.
+     * @return The offsets where the ranges start, followed by the file size.
+     * @throws IOException if the file cannot be read.
+     */
+    long[] findSplits(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int ranges = (int) Math.max(1, Math.min((long) parallelism * RANGES_PER_WORKER, size / minRangeSize));
+
+        List<Long> splits = new ArrayList<>();
+        splits.add(0L);
+        for (int i = 1; i < ranges; i++) {
+            long split = findProcessHeader(channel, size * i / ranges, size);
+            if (split > splits.get(splits.size() - 1) && split < size) {
+                splits.add(split);
+            }
+        }
+        splits.add(size);
+
+        long[] result = new long[splits.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = splits.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the first process header starting at or after an offset.
+     *
+     * @return The offset of the header line, or {@code size} if there is none.
+     */
+    private long findProcessHeader(FileChannel channel, long from, long size) throws IOException {
+        byte separator = FlowTableScanner.toByte(delimiter);
+        ByteBuffer buffer = ByteBuffer.allocate(SEARCH_BUFFER);
+
+        // Start on the previous byte so that a split falling on a line start is kept
+        long position = from - 1;
+        long lineStart = -1;
+
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n') {
+                    lineStart = position + i + 1;
+                } else if (lineStart >= 0) {
+                    if (b == separator) {
+                        return lineStart;
+                    }
+                    if ((b & 0xFF) > ' ') {
+                        // The first cell is not blank, skip to the next line
+                        lineStart = -1;
+                    }
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Scans a range of a file, mapping it one region at a time. A row that
+     * crosses the end of a region is scanned again from the start of the next
+     * region.
+     *
+     * @param channel The channel of the file.
+     * @param from    The offset of the first byte of the range.
+     * @param to      The offset after the last byte of the range.
+     * @param scanner The scanner splitting the rows.
+     * @param handler The handler receiving the rows.
+     * @throws UnitNotRecognizedException       if a flow has an unknown unit.
+     * @throws FlowOutputNotRecognizedException if an output flow has an unknown
+     *                                          type.
+     * @throws IOException                      if the file cannot be mapped.
+     */
+    void readRange(FileChannel channel, long from, long to, FlowTableScanner scanner,
+            FlowTableScanner.RowHandler handler)
+            throws UnitNotRecognizedException, FlowOutputNotRecognizedException, IOException {
+        long position = from;
+        long window = mappingSize;
+
+        while (position < to) {
+            long length = Math.min(window, to - position);
+            boolean endOfInput = position + length == to;
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            scanner.setBaseOffset(position);
+            int consumed = scanner.scan(buffer, 0, (int) length, endOfInput, handler);
+
+            if (consumed == 0) {
+                // A single row is larger than the window, map a bigger region
+                if (window == MAX_MAPPING) {
+                    throw new IOException("Row at offset " + position + " does not fit in a mapping");
+                }
+                window = Math.min(window * 2, MAX_MAPPING);
+                continue;
+            }
+            position += consumed;
+            window = mappingSize;
+        }
+    }
+
+    /**
+     * Scans a stream, such as a decompressed file, one buffer at a time. The
+     * row that crosses the end of a buffer is moved to its start and scanned
+     * with the bytes that follow.
+     *
+     * @param input   The stream.
+     * @param scanner The scanner splitting the rows.
+     * @param handler The handler receiving the rows.
+     * @throws UnitNotRecognizedException       if a flow has an unknown unit.
+     * @throws FlowOutputNotRecognizedException if an output flow has an unknown
+     *                                          type.
+     * @throws IOException                      if the stream cannot be read.
+     */
+    void readStream(InputStream input, FlowTableScanner scanner, FlowTableScanner.RowHandler handler)
+            throws UnitNotRecognizedException, FlowOutputNotRecognizedException, IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(streamBufferSize);
+        long offset = 0;
+        boolean endOfInput = false;
+
+        while (!endOfInput) {
+            while (buffer.hasRemaining()) {
+                int read = input.read(buffer.array(), buffer.position(), buffer.remaining());
+                if (read < 0) {
+                    endOfInput = true;
+                    break;
+                }
+                buffer.position(buffer.position() + read);
+            }
+
+            int length = buffer.position();
+            scanner.setBaseOffset(offset);
+            int consumed = scanner.scan(buffer, 0, length, endOfInput, handler);
+            offset += consumed;
+
+            if (consumed == 0 && !buffer.hasRemaining()) {
+                // A single row is larger than the buffer
+                if (buffer.capacity() >= MAX_MAPPING / 2) {
+                    throw new IOException("Row at offset " + offset + " does not fit in a buffer");
+                }
+                ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            } else {
+                buffer.limit(length).position(consumed);
+                buffer.compact();
+            }
+        }
+    }
+
+    /**
+     * Sets the size of the regions of the file mapped at once. Mainly useful to
+     * keep the address space used by the reader small.
+     *
+     * @param mappingSize The size in bytes, between 1 and
+     *                    {@code Integer.MAX_VALUE}.
+     */
+    public void setMappingSize(long mappingSize) {
+        if (mappingSize < 1 || mappingSize > MAX_MAPPING) {
+            throw new IllegalArgumentException("Mapping size out of range: " + mappingSize);
+        }
+        this.mappingSize = mappingSize;
+    }
+
+    /**
+     * Sets the number of workers parsing the file. Files smaller than a few
+     * megabytes are always read on the calling thread.
+     *
+     * @param parallelism The number of workers, 1 to read the file on the
+     *                    calling thread.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets the columns decoded while reading.
+     *
+     * @param projection The projection, {@link Projection#ALL_COLUMNS} by
+     *                   default.
+     */
+    public void setProjection(Projection projection) {
+        if (projection == null) {
+            throw new IllegalArgumentException("The projection cannot be null");
+        }
+        this.projection = projection;
+    }
+
+    /**
+     * Gets the columns decoded while reading.
+     *
+     * @return The projection.
+     */
+    public Projection getProjection() {
+        return projection;
+    }
+
+    /**
+     * Sets the parser of the quantities, for files using a comma as decimal
+     * separator or grouping the digits of large quantities.
+     *
+     * @param decimalParser The parser, {@link DecimalParser#DEFAULT} by
+     *                      default.
+     */
+    public void setDecimalParser(DecimalParser decimalParser) {
+        if (decimalParser == null) {
+            throw new IllegalArgumentException("The decimal parser cannot be null");
+        }
+        this.decimalParser = decimalParser;
+    }
+
+    /**
+     * Gets the parser of the quantities.
+     *
+     * @return The parser.
+     */
+    public DecimalParser getDecimalParser() {
+        return decimalParser;
+    }
+
+    /**
+     * Sets the registry of the units, for files using units defined in a
+     * configuration file.
+     *
+     * @param unitRegistry The registry, {@link UnitRegistry#standard()} by
+     *                     default.
+     */
+    public void setUnitRegistry(UnitRegistry unitRegistry) {
+        if (unitRegistry == null) {
+            throw new IllegalArgumentException("The unit registry cannot be null");
+        }
+        this.unitRegistry = unitRegistry;
+    }
+
+    /**
+     * Gets the registry of the units.
+     *
+     * @return The registry.
+     */
+    public UnitRegistry getUnitRegistry() {
+        return unitRegistry;
+    }
+
+    /**
+     * Gets the number of workers parsing the file.
+     *
+     * @return The number of workers.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the smallest range handed to a worker.
+     *
+     * @param minRangeSize The size in bytes.
+     */
+    void setMinRangeSize(long minRangeSize) {
+        this.minRangeSize = Math.max(1, minRangeSize);
+    }
+
+    /**
+     * Makes the reader lenient: flow rows with a bad cell are recorded and
+     * skipped instead of stopping the read. Only
+     * {@link #read(String, ProductSystemData)} is lenient.
+     *
+     * @param diagnostics Where the bad rows are recorded, or {@code null} to
+     *                    stop at the first bad row, which is the default.
+     */
+    public void setDiagnostics(LoadDiagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+    }
+
+    /**
+     * Gets where the bad rows are recorded.
+     *
+     * @return The diagnostics, or {@code null} if the reader is not lenient.
+     */
+    public LoadDiagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * Sets the size of the buffer used to scan a compressed file, it grows if
+     * a row does not fit.
+     *
+     * @param streamBufferSize The size in bytes.
+     */
+    void setStreamBufferSize(int streamBufferSize) {
+        this.streamBufferSize = Math.max(1, streamBufferSize);
+    }
+
+    /**
+     * Gets the delimiter used to separate data in the file.
+     *
+     * @return The delimiter.
+     */
+    public String getDelimiter() {
+        return delimiter;
+    }
+
+    /**
+     * The processes parsed from one range, or the error that stopped it.
+     */
+    private static final class RangeResult {
+        private final List<Process> processes = new ArrayList<>();
+        private boolean sawFlows;
+        private int processesBeforeFlows;
+        private Exception error;
+        private LoadDiagnostics diagnostics;
+        private long lines;
+
+        private void rethrow() throws UnitNotRecognizedException, FlowOutputNotRecognizedException, IOException {
+            if (error instanceof UnitNotRecognizedException) {
+                throw (UnitNotRecognizedException) error;
+            } else if (error instanceof FlowOutputNotRecognizedException) {
+                throw (FlowOutputNotRecognizedException) error;
+            } else if (error instanceof IOException) {
+                throw (IOException) error;
+            } else if (error != null) {
+                throw (RuntimeException) error;
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package sphereWizard.ProductSystem;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import sphereWizard.Util.DecimalParser;
+
+/**
+ * The `FlowTableRow` class is a reusable cursor over one row of a flow table
+ * that is still sitting in a byte buffer. It only records where each cell
+ * starts and ends, so a cell is decoded into a String only when somebody asks
+ * for it.
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+final class FlowTableRow {
+
+    /**
+     * Cells up to this length are looked up in the token cache before being
+     * decoded, so repeated units, flow types and categories share one String.
+     */
+    private static final int MAX_CACHED_TOKEN = 64;
+
+    /**
+     * Number of slots in the token cache (must be a power of two).
+     */
+    private static final int CACHE_SIZE = 4096;
+
+    private ByteBuffer buffer;
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private boolean[] escaped = new boolean[8];
+    private int count;
+    private long lineNumber;
+    private long offset;
+
+    private final byte[][] cachedBytes = new byte[CACHE_SIZE][];
+    private final String[] cachedStrings = new String[CACHE_SIZE];
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Points the row at a new buffer and forgets the previous cells.
+     *
+     * @param buffer     The buffer holding the row.
+     * @param lineNumber The line number (starting at 1) of the row.
+     * @param offset     The offset in the file of the first byte of the row.
+     */
+    void reset(ByteBuffer buffer, long lineNumber, long offset) {
+        this.buffer = buffer;
+        this.lineNumber = lineNumber;
+        this.offset = offset;
+        this.count = 0;
+    }
+
+    /**
+     * Appends a cell to the row.
+     *
+     * @param start   The first byte of the cell.
+     * @param end     The byte after the last byte of the cell.
+     * @param escaped {@code true} if the cell was quoted and contains doubled
+     *                quotes that still have to be collapsed.
+     */
+    void addCell(int start, int end, boolean escaped) {
+        if (count == starts.length) {
+            int size = count * 2;
+            starts = Arrays.copyOf(starts, size);
+            ends = Arrays.copyOf(ends, size);
+            this.escaped = Arrays.copyOf(this.escaped, size);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        this.escaped[count] = escaped;
+        count++;
+    }
+
+    /**
+     * Gets the number of cells in the row.
+     *
+     * @return The number of cells.
+     */
+    int cellCount() {
+        return count;
+    }
+
+    /**
+     * Gets the line number of the row in the file.
+     *
+     * @return The line number, starting at 1.
+     */
+    long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Gets the offset in the file of the first byte of the row.
+     *
+     * @return The offset.
+     */
+    long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Checks whether a cell only contains whitespace, with the same meaning as
+     * {@code String.trim().isEmpty()}.
+     *
+     * @param index The index of the cell.
+     * @return {@code true} if the cell is blank or missing.
+     */
+    boolean isBlank(int index) {
+        if (index >= count) {
+            return true;
+        }
+        for (int i = starts[index]; i < ends[index]; i++) {
+            if ((buffer.get(i) & 0xFF) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the row is an empty line.
+     *
+     * @return {@code true} if the row has a single blank cell.
+     */
+    boolean isEmptyLine() {
+        return count == 1 && starts[0] == ends[0];
+    }
+
+    /**
+     * Decodes a cell as UTF-8 text.
+     *
+     * @param index The index of the cell.
+     * @return The text of the cell.
+     * @throws ArrayIndexOutOfBoundsException if the row has no such cell.
+     */
+    String text(int index) {
+        if (index >= count) {
+            throw new ArrayIndexOutOfBoundsException("Index " + index + " out of bounds for length " + count);
+        }
+        int start = starts[index];
+        int length = ends[index] - start;
+
+        String text;
+        if (length <= MAX_CACHED_TOKEN) {
+            text = cachedText(start, length);
+        } else {
+            text = new String(copy(start, length), 0, length, StandardCharsets.UTF_8);
+        }
+
+        if (escaped[index]) {
+            text = text.replace("\"\"", "\"");
+        }
+        return text;
+    }
+
+    /**
+     * Parses a cell as a number straight from the buffer.
+     *
+     * @param index  The index of the cell.
+     * @param parser The parser of the numbers.
+     * @return The number in the cell.
+     * @throws ArrayIndexOutOfBoundsException if the row has no such cell.
+     * @throws NumberFormatException          if the cell is not a number.
+     */
+    double number(int index, DecimalParser parser) {
+        if (index >= count) {
+            throw new ArrayIndexOutOfBoundsException("Index " + index + " out of bounds for length " + count);
+        }
+        if (escaped[index]) {
+            return parser.parse(text(index));
+        }
+        return parser.parse(buffer, starts[index], ends[index]);
+    }
+
+    /**
+     * Parses a cell as a number straight from the buffer, without throwing.
+     *
+     * @param index  The index of the cell.
+     * @param parser The parser of the numbers.
+     * @return The number in the cell, or {@code NaN} if the row has no such
+     *         cell or the cell is not a number.
+     * @see DecimalParser#parseOrNaN(CharSequence)
+     */
+    double numberOrNaN(int index, DecimalParser parser) {
+        if (index >= count) {
+            return Double.NaN;
+        }
+        if (escaped[index]) {
+            return parser.parseOrNaN(text(index));
+        }
+        return parser.parseOrNaN(buffer, starts[index], ends[index]);
+    }
+
+    /**
+     * Copies the cells of the row into an array, the same way
+     * {@code String.split} would have filled it.
+     *
+     * @param data The array to fill.
+     * @throws ArrayIndexOutOfBoundsException if the row has fewer cells than
+     *                                        the array.
+     */
+    void fill(String[] data) {
+        for (int i = 0; i < data.length; i++) {
+            data[i] = text(i);
+        }
+    }
+
+    private String cachedText(int start, int length) {
+        int hash = 1;
+        for (int i = start; i < start + length; i++) {
+            hash = 31 * hash + buffer.get(i);
+        }
+        int slot = (hash ^ (hash >>> 16)) & (CACHE_SIZE - 1);
+
+        byte[] cached = cachedBytes[slot];
+        if (cached != null && sameBytes(cached, start, length)) {
+            return cachedStrings[slot];
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(start, bytes);
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        cachedBytes[slot] = bytes;
+        cachedStrings[slot] = text;
+        return text;
+    }
+
+    private boolean sameBytes(byte[] cached, int start, int length) {
+        if (cached.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (cached[i] != buffer.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private byte[] copy(int start, int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+        return scratch;
+    }
+}
@@ -0,0 +1,250 @@
+package sphereWizard.ProductSystem;
+
+import java.nio.ByteBuffer;
+
+import sphereWizard.Exceptions.FlowOutputNotRecognizedException;
+import sphereWizard.Exceptions.UnitNotRecognizedException;
+
+/**
+ * The `FlowTableScanner` class splits the bytes of a flow table into rows and
+ * cells without decoding them. Delimiters, quotes and line breaks are found by
+ * looking at the raw bytes, which is safe for UTF-8 because none of them can
+ * appear inside a multi-byte character.
+ *
+ * <p>
+ * Cells may be wrapped in double quotes, in which case they can contain the
+ * delimiter, line breaks and doubled quotes ({@code ""}).
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+final class FlowTableScanner {
+
+    private static final byte QUOTE = '"';
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    /**
+     * Receives every non-empty row found by the scanner.
+     */
+    interface RowHandler {
+        /**
+         * Handles one row. The row is only valid during the call.
+         *
+         * @param row The row that was scanned.
+         * @throws UnitNotRecognizedException       if the row has an unknown unit.
+         * @throws FlowOutputNotRecognizedException if the row has an unknown
+         *                                          output flow type.
+         */
+        void row(FlowTableRow row) throws UnitNotRecognizedException, FlowOutputNotRecognizedException;
+    }
+
+    /**
+     * The delimiter separating cells.
+     */
+    private final byte delimiter;
+
+    /**
+     * The row reused for every line.
+     */
+    private final FlowTableRow row = new FlowTableRow();
+
+    /**
+     * Number of lines scanned so far.
+     */
+    private long lineNumber;
+
+    /**
+     * Offset in the file of the first byte of the buffer being scanned.
+     */
+    private long baseOffset;
+
+    /**
+     * Line breaks found inside quoted cells of the current row.
+     */
+    private int quotedLineBreaks;
+
+    /**
+     * Constructs a scanner for the given delimiter.
+     *
+     * @param delimiter The delimiter separating cells, it must be a single
+     *                  ASCII character other than a quote or a line break.
+     */
+    FlowTableScanner(String delimiter) {
+        this.delimiter = toByte(delimiter);
+    }
+
+    /**
+     * Converts a delimiter to the byte the scanner looks for.
+     *
+     * @param delimiter The delimiter.
+     * @return The delimiter as a byte.
+     * @throws IllegalArgumentException if the delimiter is not a single ASCII
+     *                                  character or collides with a quote or a
+     *                                  line break.
+     */
+    static byte toByte(String delimiter) {
+        if (delimiter.length() != 1 || delimiter.charAt(0) > 0x7F) {
+            throw new IllegalArgumentException("Delimiter must be a single ASCII character: '" + delimiter + "'");
+        }
+        char c = delimiter.charAt(0);
+        if (c == QUOTE || c == LF || c == CR) {
+            throw new IllegalArgumentException("Delimiter cannot be a quote or a line break");
+        }
+        return (byte) c;
+    }
+
+    /**
+     * Sets the number of lines that come before the bytes about to be scanned,
+     * so that rows report their real line number.
+     *
+     * @param linesBefore The number of lines already consumed.
+     */
+    void setLineNumber(long linesBefore) {
+        this.lineNumber = linesBefore;
+    }
+
+    /**
+     * Sets the offset in the file of the first byte of the buffers about to be
+     * scanned, so that rows report where they start in the file.
+     *
+     * @param offset The offset of the first byte of the buffer.
+     */
+    void setBaseOffset(long offset) {
+        this.baseOffset = offset;
+    }
+
+    /**
+     * Gets the number of lines scanned so far.
+     *
+     * @return The number of lines scanned.
+     */
+    long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Scans every complete row between two positions of a buffer.
+     *
+     * @param buffer     The buffer to scan.
+     * @param from       The position of the first byte of the first row.
+     * @param to         The position after the last byte available.
+     * @param endOfInput {@code true} if no more bytes follow {@code to}, so a
+     *                   last row without a line break is complete as well.
+     * @param handler    The handler receiving the rows.
+     * @return The position after the last complete row, which is where the
+     *         next scan has to resume.
+     * @throws UnitNotRecognizedException       if the handler rejects a unit.
+     * @throws FlowOutputNotRecognizedException if the handler rejects an output
+     *                                          flow type.
+     */
+    int scan(ByteBuffer buffer, int from, int to, boolean endOfInput, RowHandler handler)
+            throws UnitNotRecognizedException, FlowOutputNotRecognizedException {
+        int position = from;
+
+        while (position < to) {
+            row.reset(buffer, lineNumber + 1, baseOffset + position);
+            quotedLineBreaks = 0;
+            int next = scanRow(buffer, position, to, endOfInput);
+            if (next < 0) {
+                // The row continues after the end of the buffer
+                break;
+            }
+
+            lineNumber += 1 + quotedLineBreaks;
+            position = next;
+
+            if (!row.isEmptyLine()) {
+                handler.row(row);
+            }
+        }
+
+        return position;
+    }
+
+    /**
+     * Reads the cells of the row starting at a position.
+     *
+     * @return The position after the row's line break, or -1 if the row is not
+     *         complete yet.
+     */
+    private int scanRow(ByteBuffer buffer, int start, int to, boolean endOfInput) {
+        int position = start;
+
+        while (true) {
+            int end;
+            if (position < to && buffer.get(position) == QUOTE) {
+                int close = findClosingQuote(buffer, position + 1, to, endOfInput);
+                if (close < 0) {
+                    return -1;
+                }
+                end = Math.min(close, to);
+                row.addCell(position + 1, end, hasEscapedQuote(buffer, position + 1, end));
+
+                // Anything between the closing quote and the delimiter is ignored
+                position = skipToSeparator(buffer, Math.min(close + 1, to), to);
+            } else {
+                end = skipToSeparator(buffer, position, to);
+                row.addCell(position, end, false);
+                position = end;
+            }
+
+            if (position >= to) {
+                return endOfInput ? to : -1;
+            }
+
+            byte b = buffer.get(position);
+            if (b == delimiter) {
+                position++;
+                continue;
+            }
+            if (b == CR) {
+                if (position + 1 < to) {
+                    return buffer.get(position + 1) == LF ? position + 2 : position + 1;
+                }
+                return endOfInput ? to : -1;
+            }
+            return position + 1;
+        }
+    }
+
+    private int skipToSeparator(ByteBuffer buffer, int position, int to) {
+        while (position < to) {
+            byte b = buffer.get(position);
+            if (b == delimiter || b == LF || b == CR) {
+                break;
+            }
+            position++;
+        }
+        return position;
+    }
+
+    private int findClosingQuote(ByteBuffer buffer, int position, int to, boolean endOfInput) {
+        while (position < to) {
+            if (buffer.get(position) == QUOTE) {
+                if (position + 1 >= to) {
+                    return endOfInput ? position : -1;
+                }
+                if (buffer.get(position + 1) != QUOTE) {
+                    return position;
+                }
+                position++;
+            } else if (buffer.get(position) == LF) {
+                quotedLineBreaks++;
+            }
+            position++;
+        }
+        // An unterminated quote runs until the end of the input
+        return endOfInput ? to : -1;
+    }
+
+    private boolean hasEscapedQuote(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == QUOTE) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,79 @@
+package sphereWizard.ProductSystem;
+
+import sphereWizard.Enums.OutputFlowTypes;
+import sphereWizard.Exceptions.FlowOutputNotRecognizedException;
+import sphereWizard.Exceptions.UnitNotRecognizedException;
+import sphereWizard.Util.DecimalParser;
+import sphereWizard.Util.UnitRegistry;
+
+/**
+ * The `FlowTableSummarizer` class adds up the output flows of a flow table as
+ * its rows are scanned, without building processes or flows. It counts
+ * processes with the rules of {@link ProcessRowHandler} and checks every flow
+ * row with the checks of {@link ProductSystemData#readCsv(String, String)},
+ * so a table is rejected for the same reasons. The output values are
+ * converted with the {@link UnitRegistry} and added to the totals in file order,
+ * which is the order {@link FlowTotals#of(Iterable)} adds them in.
+ *
+ * <p>
+ * Its memory does not grow with the size of the table. The input cells can be
+ * left unchecked, as nothing is calculated from them.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+final class FlowTableSummarizer extends ProcessRowHandler {
+
+    private final DecimalParser decimalParser;
+    private final UnitRegistry unitRegistry;
+    private final boolean checkInputFlows;
+    private final double[] totals = new double[OutputFlowTypes.values().length];
+    private int processCount;
+    private long flowCount;
+
+    /**
+     * Constructs a summarizer.
+     *
+     * @param decimalParser   The parser of the quantities.
+     * @param unitRegistry    The registry of the units.
+     * @param checkInputFlows {@code true} to check the input cells of every
+     *                        flow row, {@code false} to skip them.
+     */
+    FlowTableSummarizer(DecimalParser decimalParser, UnitRegistry unitRegistry, boolean checkInputFlows) {
+        this.decimalParser = decimalParser;
+        this.unitRegistry = unitRegistry;
+        this.checkInputFlows = checkInputFlows;
+    }
+
+    @Override
+    void flowRow(FlowTableRow row) throws UnitNotRecognizedException, FlowOutputNotRecognizedException {
+        requireFlowCells(row);
+        if (checkInputFlows) {
+            ProductSystemData.checkInputFlow(row.text(0), row.number(2, decimalParser), row.text(3), unitRegistry);
+        }
+
+        OutputFlowTypes type = ProductSystemData.readOutputFlowType(row.text(4));
+        double outputValue = row.number(6, decimalParser);
+        int outputUnit = ProductSystemData.checkOutputFlow(type, outputValue, row.text(7), unitRegistry);
+
+        totals[type.ordinal()] += unitRegistry.toStandard(outputUnit, outputValue);
+        flowCount++;
+    }
+
+    @Override
+    void endProcess() {
+        processCount++;
+    }
+
+    /**
+     * Counts the process that is still open, if any, and returns the summary.
+     * Must be called once every row has been handled.
+     *
+     * @return The summary of the table.
+     */
+    FlowTableSummary finish() {
+        endRows();
+        return new FlowTableSummary(new FlowTotals(totals), processCount, flowCount);
+    }
+}
@@ -0,0 +1,81 @@
+package sphereWizard.ProductSystem;
+
+/**
+ * The `FlowTableSummary` class holds what the circularity calculation needs
+ * from a flow table: the totals of every output flow type and the number of
+ * processes. It is produced by {@link FlowTableReader#summarize(String)}
+ * without building any process or flow.
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public final class FlowTableSummary {
+
+    /**
+     * The totals of every output flow type.
+     */
+    private final FlowTotals totals;
+
+    /**
+     * The number of processes that reading the table would have produced.
+     */
+    private final int processCount;
+
+    /**
+     * The number of flow rows in the table.
+     */
+    private final long flowCount;
+
+    /**
+     * Constructs a FlowTableSummary.
+     *
+     * @param totals       The totals of every output flow type.
+     * @param processCount The number of processes.
+     * @param flowCount    The number of flow rows.
+     */
+    FlowTableSummary(FlowTotals totals, int processCount, long flowCount) {
+        this.totals = totals;
+        this.processCount = processCount;
+        this.flowCount = flowCount;
+    }
+
+    /**
+     * Gets the totals of every output flow type, equal to
+     * {@link FlowTotals#of(Iterable)} of the processes read from the same
+     * table.
+     *
+     * @return The totals.
+     */
+    public FlowTotals getTotals() {
+        return totals;
+    }
+
+    /**
+     * Gets the number of processes that reading the table would have produced.
+     *
+     * @return The number of processes.
+     */
+    public int getProcessCount() {
+        return processCount;
+    }
+
+    /**
+     * Gets the number of flow rows in the table.
+     *
+     * @return The number of flow rows.
+     */
+    public long getFlowCount() {
+        return flowCount;
+    }
+
+    /**
+     * Returns a string representation of the FlowTableSummary.
+     *
+     * @return A string representation of the FlowTableSummary.
+     */
+    @Override
+    public String toString() {
+        return "FlowTableSummary {processCount=" + processCount + ", flowCount=" + flowCount + ", totals="
+                + totals + '}';
+    }
+}
@@ -0,0 +1,302 @@
+package sphereWizard.ProductSystem;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.ObjDoubleConsumer;
+
+import sphereWizard.Enums.OutputFlowTypes;
+import sphereWizard.FlowProcessStructure.Process;
+
+/**
+ * The `FlowTotals` class holds the total value of every output flow type of a
+ * product system, computed in a single traversal of its processes. Every
+ * quantity used by {@link ProductSystem} and the circularity calculator (V, R,
+ * Rr, W, Ri, M and the energies) derives from these totals.
+ *
+ * <p>
+ * Each total adds the flow values in the same order as
+ * {@link ProductSystem#calculateFlowValue(OutputFlowTypes)}, so the results are
+ * identical to calculating each type on its own.
+ * </p>
+ *
+ * <p>
+ * {@link #ofParallel(List, ForkJoinPool)} spreads the processes over a
+ * fork-join pool instead. It splits them into blocks of a fixed size, adds
+ * each block with compensated (Neumaier) summation and merges the partial
+ * sums following a tree that only depends on the number of processes. The
+ * result is therefore the same, bit for bit, whatever the number of threads
+ * or the order in which they finish.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public final class FlowTotals {
+
+    /**
+     * Number of processes below which a block is added on one thread. It must
+     * not depend on the pool, so that the summation tree stays the same.
+     */
+    static final int BLOCK_SIZE = 256;
+
+    /**
+     * Number of output flow types.
+     */
+    private static final int TYPE_COUNT = OutputFlowTypes.values().length;
+
+    /**
+     * The total value of each output flow type, indexed by its ordinal.
+     */
+    private final double[] totals;
+
+    /**
+     * Constructs FlowTotals from a vector of totals.
+     *
+     * @param totals The total of each output flow type, indexed by its ordinal.
+     */
+    FlowTotals(double[] totals) {
+        if (totals.length != TYPE_COUNT) {
+            throw new IllegalArgumentException("Expected one total per output flow type");
+        }
+        this.totals = totals.clone();
+    }
+
+    /**
+     * Calculates the totals of a list of processes in one traversal.
+     *
+     * @param processes The processes to add up.
+     * @return The totals of every output flow type.
+     */
+    public static FlowTotals of(Iterable<Process> processes) {
+        double[] totals = new double[TYPE_COUNT];
+        for (Process process : processes) {
+            process.addOutputFlowTotals(totals);
+        }
+        return new FlowTotals(totals);
+    }
+
+    /**
+     * Calculates the totals of a list of processes on a fork-join pool, with
+     * compensated summation merged in a fixed order. The result does not
+     * depend on the parallelism of the pool.
+     *
+     * @param processes The processes to add up.
+     * @param pool      The pool running the summation.
+     * @return The totals of every output flow type.
+     */
+    public static FlowTotals ofParallel(List<Process> processes, ForkJoinPool pool) {
+        CompensatedSums sums = pool.invoke(new SumTask(processes, 0, processes.size()));
+        return new FlowTotals(sums.toTotals());
+    }
+
+    /**
+     * Gets the total value of an output flow type.
+     *
+     * @param flowType The output flow type.
+     * @return The total value of that type.
+     */
+    public double get(OutputFlowTypes flowType) {
+        return totals[flowType.ordinal()];
+    }
+
+    /**
+     * Gets the total virgin material (V).
+     *
+     * @return The virgin material.
+     */
+    public double getVirginMaterial() {
+        return get(OutputFlowTypes.VIRGIN_MATERIAL);
+    }
+
+    /**
+     * Gets the total recycled material (R).
+     *
+     * @return The recycled material.
+     */
+    public double getRecycledMaterial() {
+        return get(OutputFlowTypes.RECYCLED_MATERIAL);
+    }
+
+    /**
+     * Gets the total recovered recycled material (Rr).
+     *
+     * @return The recovered recycled material.
+     */
+    public double getRecoveredRecycledMaterial() {
+        return get(OutputFlowTypes.RECOVERED_RECYCLED_MATERIAL);
+    }
+
+    /**
+     * Gets the total waste to be eliminated (W), calculated as W = V - Rr.
+     *
+     * @return The waste eliminated.
+     */
+    public double getWasteEliminated() {
+        return getVirginMaterial() - getRecoveredRecycledMaterial();
+    }
+
+    /**
+     * Gets the input of recycled value (Ri), calculated as Ri = R + Rr.
+     *
+     * @return The recycled input.
+     */
+    public double getRecycledInput() {
+        return getRecycledMaterial() + getRecoveredRecycledMaterial();
+    }
+
+    /**
+     * Gets the mass (M), calculated as M = V + Ri.
+     *
+     * @return The mass.
+     */
+    public double getMass() {
+        return getVirginMaterial() + getRecycledInput();
+    }
+
+    /**
+     * Gets the necessary energy for primary materials.
+     *
+     * @return The necessary energy for primary materials.
+     */
+    public double getNecessaryEnergyForPrimaryMaterials() {
+        return get(OutputFlowTypes.MAIN_MATERIALS_PRODUCTION_ENERGY);
+    }
+
+    /**
+     * Gets the necessary energy for secondary materials.
+     *
+     * @return The necessary energy for secondary materials.
+     */
+    public double getNecessaryEnergyForSecondaryMaterials() {
+        return get(OutputFlowTypes.SECONDARY_MATERIALS_PRODUCTION_ENERGY);
+    }
+
+    /**
+     * Gets a copy of the totals, indexed by the ordinal of each output flow type.
+     *
+     * @return The totals.
+     */
+    public double[] toArray() {
+        return totals.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof FlowTotals && Arrays.equals(totals, ((FlowTotals) o).totals);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(totals);
+    }
+
+    /**
+     * Returns a string representation of the FlowTotals.
+     *
+     * @return A string representation of the FlowTotals.
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("FlowTotals {");
+        for (OutputFlowTypes flowType : OutputFlowTypes.values()) {
+            if (flowType.ordinal() > 0) {
+                result.append(", ");
+            }
+            result.append(flowType).append('=').append(get(flowType));
+        }
+        return result.append('}').toString();
+    }
+
+    /**
+     * Adds up a range of processes, splitting it in halves until the ranges are
+     * no larger than a block.
+     */
+    private static final class SumTask extends RecursiveTask<CompensatedSums> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Process> processes;
+        private final int from;
+        private final int to;
+
+        private SumTask(List<Process> processes, int from, int to) {
+            this.processes = processes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected CompensatedSums compute() {
+            if (to - from <= BLOCK_SIZE) {
+                CompensatedSums sums = new CompensatedSums();
+                for (int i = from; i < to; i++) {
+                    processes.get(i).forEachOutputFlowValue(sums);
+                }
+                return sums;
+            }
+
+            int middle = (from + to) >>> 1;
+            SumTask left = new SumTask(processes, from, middle);
+            SumTask right = new SumTask(processes, middle, to);
+            left.fork();
+            CompensatedSums rightSums = right.compute();
+
+            // Always merge the right half into the left one
+            return left.join().merge(rightSums);
+        }
+    }
+
+    /**
+     * One Neumaier sum per output flow type: the running sum plus the rounding
+     * error lost so far.
+     */
+    static final class CompensatedSums implements ObjDoubleConsumer<OutputFlowTypes> {
+        private final double[] sums = new double[TYPE_COUNT];
+        private final double[] compensations = new double[TYPE_COUNT];
+
+        CompensatedSums() {
+        }
+
+        /**
+         * Starts the sums from existing totals.
+         *
+         * @param totals The totals to start from.
+         */
+        CompensatedSums(FlowTotals totals) {
+            System.arraycopy(totals.totals, 0, sums, 0, TYPE_COUNT);
+        }
+
+        @Override
+        public void accept(OutputFlowTypes flowType, double value) {
+            add(flowType.ordinal(), value);
+        }
+
+        void add(int type, double value) {
+            double sum = sums[type];
+            double total = sum + value;
+            if (Math.abs(sum) >= Math.abs(value)) {
+                compensations[type] += (sum - total) + value;
+            } else {
+                compensations[type] += (value - total) + sum;
+            }
+            sums[type] = total;
+        }
+
+        private CompensatedSums merge(CompensatedSums other) {
+            for (int type = 0; type < TYPE_COUNT; type++) {
+                add(type, other.sums[type]);
+                compensations[type] += other.compensations[type];
+            }
+            return this;
+        }
+
+        double[] toTotals() {
+            double[] totals = new double[TYPE_COUNT];
+            for (int type = 0; type < TYPE_COUNT; type++) {
+                totals[type] = sums[type] + compensations[type];
+            }
+            return totals;
+        }
+    }
+}
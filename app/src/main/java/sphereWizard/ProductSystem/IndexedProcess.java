@@ -0,0 +1,91 @@
+package sphereWizard.ProductSystem;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import sphereWizard.Exceptions.FlowOutputNotRecognizedException;
+import sphereWizard.Exceptions.UnitNotRecognizedException;
+import sphereWizard.FlowProcessStructure.InputFlow;
+import sphereWizard.FlowProcessStructure.OutputFlow;
+import sphereWizard.FlowProcessStructure.Process;
+
+/**
+ * The `IndexedProcess` class is a process of a flow table whose name and
+ * category come from a {@link FlowTableIndex}, and whose flows are only read
+ * from the file the first time they are asked for.
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+final class IndexedProcess extends Process {
+
+    private final FlowTableReader reader;
+    private final String path;
+    private final FlowTableIndex.Entry entry;
+
+    /**
+     * The process read from the file, {@code null} until then.
+     */
+    private volatile Process loaded;
+
+    /**
+     * Constructs a process that is read on first use.
+     *
+     * @param reader The reader of the file, not changed afterwards.
+     * @param path   The path to the file.
+     * @param entry  The entry of the process in the index of the file.
+     */
+    IndexedProcess(FlowTableReader reader, String path, FlowTableIndex.Entry entry) {
+        super(entry.name(), entry.category());
+        this.reader = reader;
+        this.path = path;
+        this.entry = entry;
+    }
+
+    @Override
+    public List<InputFlow> getInputFlows() {
+        return load().getInputFlows();
+    }
+
+    @Override
+    public List<OutputFlow> getOutputFlows() {
+        return load().getOutputFlows();
+    }
+
+    /**
+     * Checks whether the flows were read from the file.
+     *
+     * @return {@code true} if the flows are loaded.
+     */
+    boolean isLoaded() {
+        return loaded != null;
+    }
+
+    /**
+     * Reads the flows of the process, if that was not done yet.
+     *
+     * @throws UncheckedIOException  if the file cannot be read or changed since
+     *                               it was indexed.
+     * @throws IllegalStateException if a flow has an unknown unit or type.
+     */
+    private Process load() {
+        Process process = loaded;
+        if (process != null) {
+            return process;
+        }
+        synchronized (this) {
+            if (loaded == null) {
+                try {
+                    loaded = reader.readProcess(path, entry);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot read the process " + entry.name(), e);
+                } catch (UnitNotRecognizedException | FlowOutputNotRecognizedException e) {
+                    throw new IllegalStateException("Cannot read the process " + entry.name() + ": "
+                            + e.getMessage(), e);
+                }
+            }
+            return loaded;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package sphereWizard.ProductSystem;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The IngestionResult record holds the processes read from many flow table
+ * files and the files that could not be read.
+ *
+ * @param data   The processes of every file that was read, file after file
+ *               in the order of {@code files}.
+ * @param files  The files that were read, in sorted order.
+ * @param errors The error of every file that could not be read, in sorted
+ *               order. None of their processes are in {@code data}.
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public record IngestionResult(ProductSystemData data, List<Path> files, Map<Path, Exception> errors) {
+
+    /**
+     * Checks whether every file was read.
+     *
+     * @return {@code true} if no file failed.
+     */
+    public boolean isComplete() {
+        return errors.isEmpty();
+    }
+}
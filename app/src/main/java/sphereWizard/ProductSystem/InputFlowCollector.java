@@ -0,0 +1,44 @@
+package sphereWizard.ProductSystem;
+
+import java.util.function.Consumer;
+
+import sphereWizard.Exceptions.UnitNotRecognizedException;
+import sphereWizard.FlowProcessStructure.InputFlow;
+import sphereWizard.Util.DecimalParser;
+import sphereWizard.Util.UnitRegistry;
+
+/**
+ * The `InputFlowCollector` class reads the input flow of every flow row of a
+ * flow table, skipping process headers and title rows with the rules of
+ * {@link ProcessRowHandler}. It loads the input flows that a reader with a
+ * {@link FlowTableReader.Projection#OUTPUT_FLOWS} projection left out, so
+ * only the input cells of each row are decoded.
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+final class InputFlowCollector extends ProcessRowHandler {
+
+    private final Consumer<InputFlow> sink;
+    private final DecimalParser decimalParser;
+    private final UnitRegistry unitRegistry;
+
+    /**
+     * Constructs a collector giving every input flow to a sink.
+     *
+     * @param sink          Receives the input flows, in file order.
+     * @param decimalParser The parser of the quantities.
+     * @param unitRegistry  The registry of the units.
+     */
+    InputFlowCollector(Consumer<InputFlow> sink, DecimalParser decimalParser, UnitRegistry unitRegistry) {
+        this.sink = sink;
+        this.decimalParser = decimalParser;
+        this.unitRegistry = unitRegistry;
+    }
+
+    @Override
+    void flowRow(FlowTableRow row) throws UnitNotRecognizedException {
+        sink.accept(ProductSystemData.readInputFlow(row.text(0), row.text(1), row.number(2, decimalParser),
+                row.text(3), unitRegistry));
+    }
+}
@@ -0,0 +1,233 @@
+package sphereWizard.ProductSystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The `LoadDiagnostics` class collects the rows of a flow table that a
+ * lenient read skipped, so that every bad row of a file can be fixed after a
+ * single pass instead of one failed load at a time.
+ *
+ * <p>
+ * A problem is only a line number, a column and a {@link Reason}, kept in
+ * primitive arrays; no exception is created for it. Only the first
+ * {@link #getMaxProblems()} problems are kept, the others are only counted.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public final class LoadDiagnostics {
+
+    /**
+     * Number of problems kept by default.
+     */
+    public static final int DEFAULT_MAX_PROBLEMS = 1000;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Why a row was skipped.
+     */
+    public enum Reason {
+        /**
+         * The row has fewer cells than a flow row.
+         */
+        MISSING_CELLS("missing cells"),
+        /**
+         * A quantity is not a number.
+         */
+        INVALID_QUANTITY("not a number"),
+        /**
+         * A quantity is zero.
+         */
+        ZERO_QUANTITY("quantity is 0"),
+        /**
+         * A unit is not registered.
+         */
+        UNKNOWN_UNIT("unit not recognized"),
+        /**
+         * The type of the output flow is not recognized.
+         */
+        UNKNOWN_FLOW_TYPE("output flow type not recognized");
+
+        private final String description;
+
+        Reason(String description) {
+            this.description = description;
+        }
+
+        /**
+         * Gets a short description of the reason.
+         *
+         * @return The description.
+         */
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    /**
+     * A skipped row.
+     *
+     * @param lineNumber The line number of the row, starting at 1.
+     * @param column     The column of the first bad cell, starting at 1.
+     * @param reason     Why the row was skipped.
+     */
+    public record Problem(long lineNumber, int column, Reason reason) {
+
+        @Override
+        public String toString() {
+            return "Line " + lineNumber + ", column " + column + ": " + reason.getDescription();
+        }
+    }
+
+    private static final Reason[] REASONS = Reason.values();
+
+    private final int maxProblems;
+
+    private int size;
+    private long[] lineNumbers;
+    private int[] columns;
+    private byte[] reasons;
+    private long problemCount;
+
+    /**
+     * Constructs diagnostics keeping up to {@link #DEFAULT_MAX_PROBLEMS}
+     * problems.
+     */
+    public LoadDiagnostics() {
+        this(DEFAULT_MAX_PROBLEMS);
+    }
+
+    /**
+     * Constructs diagnostics keeping up to a number of problems.
+     *
+     * @param maxProblems The number of problems kept, 0 to only count them.
+     * @throws IllegalArgumentException if the number is negative.
+     */
+    public LoadDiagnostics(int maxProblems) {
+        if (maxProblems < 0) {
+            throw new IllegalArgumentException("Invalid number of problems: " + maxProblems);
+        }
+        this.maxProblems = maxProblems;
+        int capacity = Math.min(maxProblems, INITIAL_CAPACITY);
+        this.lineNumbers = new long[capacity];
+        this.columns = new int[capacity];
+        this.reasons = new byte[capacity];
+    }
+
+    /**
+     * Records a skipped row.
+     *
+     * @param lineNumber The line number of the row, starting at 1.
+     * @param column     The column of the first bad cell, starting at 1.
+     * @param reason     Why the row was skipped.
+     */
+    public synchronized void record(long lineNumber, int column, Reason reason) {
+        problemCount++;
+        if (size == maxProblems) {
+            return;
+        }
+        if (size == lineNumbers.length) {
+            int capacity = (int) Math.min(maxProblems, size * 2L);
+            lineNumbers = Arrays.copyOf(lineNumbers, capacity);
+            columns = Arrays.copyOf(columns, capacity);
+            reasons = Arrays.copyOf(reasons, capacity);
+        }
+        lineNumbers[size] = lineNumber;
+        columns[size] = column;
+        reasons[size] = (byte) reason.ordinal();
+        size++;
+    }
+
+    /**
+     * Records the problems of other diagnostics, moving their line numbers.
+     * Used to gather the problems of the parts of a file read separately, in
+     * file order.
+     *
+     * @param other       The diagnostics of a part of the file.
+     * @param linesBefore The number of lines before that part.
+     */
+    synchronized void addAll(LoadDiagnostics other, long linesBefore) {
+        long dropped = other.problemCount;
+        for (int i = 0; i < other.size; i++) {
+            record(other.lineNumbers[i] + linesBefore, other.columns[i], REASONS[other.reasons[i]]);
+            dropped--;
+        }
+        // Problems the other diagnostics could not keep are still counted
+        problemCount += dropped;
+    }
+
+    /**
+     * Gets the number of rows skipped, including those that were not kept.
+     *
+     * @return The number of problems.
+     */
+    public synchronized long getProblemCount() {
+        return problemCount;
+    }
+
+    /**
+     * Checks whether a row was skipped.
+     *
+     * @return {@code true} if there is at least one problem.
+     */
+    public synchronized boolean hasProblems() {
+        return problemCount > 0;
+    }
+
+    /**
+     * Checks whether some problems were counted but not kept.
+     *
+     * @return {@code true} if there were more problems than are kept.
+     */
+    public synchronized boolean isTruncated() {
+        return problemCount > size;
+    }
+
+    /**
+     * Gets the number of problems kept at most.
+     *
+     * @return The number of problems kept.
+     */
+    public int getMaxProblems() {
+        return maxProblems;
+    }
+
+    /**
+     * Gets the problems kept, in the order they were recorded.
+     *
+     * @return An unmodifiable list of problems.
+     */
+    public synchronized List<Problem> getProblems() {
+        List<Problem> problems = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            problems.add(new Problem(lineNumbers[i], columns[i], REASONS[reasons[i]]));
+        }
+        return Collections.unmodifiableList(problems);
+    }
+
+    /**
+     * Forgets every problem.
+     */
+    public synchronized void clear() {
+        size = 0;
+        problemCount = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder result = new StringBuilder();
+        result.append(problemCount).append(problemCount == 1 ? " row skipped" : " rows skipped");
+        for (Problem problem : getProblems()) {
+            result.append(System.lineSeparator()).append(problem);
+        }
+        if (isTruncated()) {
+            result.append(System.lineSeparator()).append("... ").append(problemCount - size).append(" more");
+        }
+        return result.toString();
+    }
+}
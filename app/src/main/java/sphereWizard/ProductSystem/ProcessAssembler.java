@@ -0,0 +1,228 @@
+package sphereWizard.ProductSystem;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import sphereWizard.Exceptions.FlowOutputNotRecognizedException;
+import sphereWizard.Exceptions.UnitNotRecognizedException;
+import sphereWizard.FlowProcessStructure.FlowTable;
+import sphereWizard.FlowProcessStructure.Process;
+import sphereWizard.Util.DecimalParser;
+import sphereWizard.Util.UnitRegistry;
+
+/**
+ * The `ProcessAssembler` class turns the rows of a flow table into processes,
+ * following the same rules as {@link ProductSystemData#readCsv(String, String)}:
+ * a row whose first cell is blank starts a new process, the two rows after it
+ * are column titles, and every other row holds one input flow and one output
+ * flow. The cells of every flow row are written straight into a
+ * {@link FlowTable}, without making flow objects, and the processes added to
+ * the list are views over it.
+ *
+ * <p>
+ * When the input flows are deferred, the input cells of a flow row are never
+ * decoded; the table loads them on first use instead.
+ * </p>
+ *
+ * <p>
+ * When the processes are published, each one gets a table of its own and is
+ * handed over as soon as the next process header is seen, instead of being
+ * added to the list once the whole file is read.
+ * </p>
+ *
+ * <p>
+ * When problems are recorded, a flow row with a bad cell is recorded and
+ * skipped instead of throwing, and its process is kept with its other flows.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+final class ProcessAssembler extends ProcessRowHandler {
+
+    private final DecimalParser decimalParser;
+    private final UnitRegistry unitRegistry;
+    private final List<Process> processes;
+
+    private FlowTable.Builder table = new FlowTable.Builder();
+    private Consumer<Process> publisher;
+    private LoadDiagnostics diagnostics;
+
+    private String processName;
+    private String processCategory;
+    private boolean processStarted;
+    private boolean outputFlowsOnly;
+    private boolean sawFlows;
+    private int processesBeforeFlows;
+
+    /**
+     * Constructs an assembler that adds the processes it finds to a list.
+     *
+     * @param decimalParser The parser of the quantities.
+     * @param unitRegistry  The registry of the units.
+     * @param processes     The list receiving the processes.
+     */
+    ProcessAssembler(DecimalParser decimalParser, UnitRegistry unitRegistry, List<Process> processes) {
+        this(decimalParser, unitRegistry, processes, false);
+    }
+
+    /**
+     * Constructs an assembler for a part of a file that starts at a process
+     * header. Processes without flows are kept, as if flows had already been
+     * seen earlier in the file; the caller drops them if that was not the case.
+     *
+     * @param decimalParser The parser of the quantities.
+     * @param unitRegistry  The registry of the units.
+     * @param processes     The list receiving the processes.
+     * @param atHeader      {@code true} if the rows start at a process header.
+     */
+    ProcessAssembler(DecimalParser decimalParser, UnitRegistry unitRegistry, List<Process> processes,
+            boolean atHeader) {
+        super(atHeader);
+        this.decimalParser = decimalParser;
+        this.unitRegistry = unitRegistry;
+        this.processes = processes;
+    }
+
+    /**
+     * Leaves the input flows out of the table, so that only the output cells
+     * of every flow row are decoded. The loader gives the input flows of the
+     * rows handled by this assembler when they are first asked for.
+     *
+     * @param loader The loader of the input flows.
+     */
+    void deferInputFlows(FlowTable.InputFlowLoader loader) {
+        if (diagnostics != null) {
+            throw new IllegalStateException("Bad rows are skipped");
+        }
+        table.deferInputFlows(loader);
+        outputFlowsOnly = true;
+    }
+
+    /**
+     * Records the flow rows with a bad cell and skips them, instead of
+     * throwing. Input flows cannot be deferred as well, as a skipped row has
+     * no input flow either.
+     *
+     * @param diagnostics Where the bad rows are recorded.
+     */
+    void recordProblems(LoadDiagnostics diagnostics) {
+        if (outputFlowsOnly) {
+            throw new IllegalStateException("Input flows are deferred");
+        }
+        this.diagnostics = diagnostics;
+    }
+
+    /**
+     * Hands every process to a consumer as soon as it is complete, in its own
+     * table, instead of adding it to the list. Input flows cannot be deferred
+     * as well.
+     *
+     * @param publisher The consumer of the processes.
+     */
+    void publishEach(Consumer<Process> publisher) {
+        if (outputFlowsOnly) {
+            throw new IllegalStateException("Input flows are deferred");
+        }
+        this.publisher = publisher;
+    }
+
+    @Override
+    void header(FlowTableRow row) {
+        processName = row.text(3);
+        processCategory = row.text(4);
+    }
+
+    @Override
+    void flowRow(FlowTableRow row) throws UnitNotRecognizedException, FlowOutputNotRecognizedException {
+        if (diagnostics != null) {
+            startProcess();
+            if (row.cellCount() < FLOW_CELLS) {
+                diagnostics.record(row.getLineNumber(), row.cellCount() + 1, LoadDiagnostics.Reason.MISSING_CELLS);
+            } else {
+                // No exception is created for a bad cell
+                ProductSystemData.readFlowsLeniently(row.text(0), row.text(1), row.numberOrNaN(2, decimalParser),
+                        row.text(3), row.text(4), row.text(5), row.numberOrNaN(6, decimalParser), row.text(7),
+                        unitRegistry, table, diagnostics, row.getLineNumber());
+            }
+        } else {
+            requireFlowCells(row);
+            startProcess();
+            // The quantities are parsed straight from the bytes of the row
+            if (!outputFlowsOnly) {
+                ProductSystemData.addInputFlow(table, row.text(0), row.text(1), row.number(2, decimalParser),
+                        row.text(3), unitRegistry);
+            }
+            ProductSystemData.addOutputFlow(table, row.text(4), row.text(5), row.number(6, decimalParser),
+                    row.text(7), unitRegistry);
+        }
+        sawFlows = true;
+    }
+
+    /**
+     * Checks whether at least one flow row was handled.
+     *
+     * @return {@code true} if a flow row was seen.
+     */
+    boolean sawFlows() {
+        return sawFlows;
+    }
+
+    /**
+     * Counts the processes ended before any flow row was handled, which only
+     * happens to a part of a file that starts at a process header. They are
+     * the first processes added or published; every later process came after
+     * a flow row, of its own or of an earlier process, even if each of those
+     * rows was skipped.
+     *
+     * @return The number of processes ended before the first flow row.
+     */
+    int processesBeforeFlows() {
+        return processesBeforeFlows;
+    }
+
+    /**
+     * Adds the process that is still open, if any, builds the flow table and
+     * adds its processes to the list. Must be called once every row has been
+     * handled.
+     */
+    void finish() {
+        endRows();
+        if (publisher == null) {
+            processes.addAll(table.build().getProcesses());
+        }
+    }
+
+    /**
+     * Starts the open process in the table, before its first flow is added.
+     */
+    private void startProcess() {
+        if (!processStarted) {
+            if (publisher != null) {
+                // A table per process, so that nothing is kept once it is handed over
+                table = new FlowTable.Builder();
+            }
+            table.startProcess(processName, processCategory);
+            processStarted = true;
+        }
+    }
+
+    /**
+     * Ends the open process, which is kept even if it has no flows, and
+     * publishes it if processes are published.
+     */
+    @Override
+    void endProcess() {
+        if (!sawFlows) {
+            processesBeforeFlows++;
+        }
+        startProcess();
+        if (publisher != null) {
+            publisher.accept(table.build().getProcesses().get(0));
+        }
+
+        // Reset for the next process
+        processName = null;
+        processStarted = false;
+    }
+}
@@ -0,0 +1,305 @@
+package sphereWizard.ProductSystem;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import sphereWizard.FlowProcessStructure.ModificationCounter;
+import sphereWizard.FlowProcessStructure.Process;
+
+/**
+ * The `ProcessList` class is the list of processes of a
+ * {@link ProductSystemData}. Besides the processes, it keeps two hash indexes
+ * from process name and from process category to the positions of the
+ * matching processes, so that looking processes up costs the size of the
+ * result instead of a scan of the whole list.
+ *
+ * <p>
+ * Processes added at the end of the list are indexed the next time a lookup
+ * happens. Any other change (insertion, removal, replacement) drops the
+ * indexes, which are rebuilt on the next lookup. The list holds its own copy
+ * of the processes, so every change goes through it and is seen by the
+ * indexes and by {@link #getChanges()}.
+ * </p>
+ *
+ * <p>
+ * The list also keeps the distinct {@link ModificationCounter}s of its
+ * processes, one per flow table, so that {@link #getFlowChanges()} adds up
+ * the changes made to the flows of these processes only.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+final class ProcessList extends AbstractList<Process> implements RandomAccess {
+
+    /**
+     * The processes.
+     */
+    private final List<Process> processes;
+
+    /**
+     * Positions of the processes, by name.
+     */
+    private final Map<String, Positions> byName = new HashMap<>();
+
+    /**
+     * Positions of the processes, by category.
+     */
+    private final Map<String, Positions> byCategory = new HashMap<>();
+
+    /**
+     * Number of processes, from the start of the list, already in the indexes.
+     */
+    private int indexed;
+
+    /**
+     * Number of changes made through this list.
+     */
+    private volatile long changes;
+
+    /**
+     * The counters of the flows of the processes, with the number of
+     * processes sharing each one.
+     */
+    private final Map<ModificationCounter, int[]> counters = new IdentityHashMap<>();
+
+    /**
+     * Changes counted by the counters that no process of the list uses any
+     * more, so that the flow changes never go down.
+     */
+    private long retiredFlowChanges;
+
+    /**
+     * Constructs an empty list.
+     */
+    ProcessList() {
+        this.processes = new ArrayList<>();
+    }
+
+    /**
+     * Constructs a list holding a copy of some processes. Later changes to
+     * the given collection are not seen by this list.
+     *
+     * @param processes The processes, in order.
+     */
+    ProcessList(Collection<? extends Process> processes) {
+        this.processes = new ArrayList<>(processes);
+        for (Process process : this.processes) {
+            track(process);
+        }
+    }
+
+    @Override
+    public Process get(int index) {
+        return processes.get(index);
+    }
+
+    @Override
+    public int size() {
+        return processes.size();
+    }
+
+    @Override
+    public synchronized void add(int index, Process process) {
+        if (index != processes.size()) {
+            invalidate();
+        }
+        processes.add(index, process);
+        track(process);
+        modCount++;
+        changes++;
+    }
+
+    @Override
+    public synchronized boolean addAll(Collection<? extends Process> c) {
+        modCount++;
+        changes++;
+        for (Process process : c) {
+            track(process);
+        }
+        return processes.addAll(c);
+    }
+
+    @Override
+    public synchronized Process set(int index, Process process) {
+        invalidate();
+        changes++;
+        track(process);
+        Process previous = processes.set(index, process);
+        untrack(previous);
+        return previous;
+    }
+
+    @Override
+    public synchronized Process remove(int index) {
+        invalidate();
+        modCount++;
+        changes++;
+        Process removed = processes.remove(index);
+        untrack(removed);
+        return removed;
+    }
+
+    @Override
+    protected synchronized void removeRange(int fromIndex, int toIndex) {
+        invalidate();
+        modCount++;
+        changes++;
+        List<Process> removed = processes.subList(fromIndex, toIndex);
+        for (Process process : removed) {
+            untrack(process);
+        }
+        removed.clear();
+    }
+
+    /**
+     * Gets the number of changes made through this list, which only grows.
+     *
+     * @return The number of changes.
+     */
+    long getChanges() {
+        return changes;
+    }
+
+    /**
+     * Gets the number of changes made to the flows of the processes of this
+     * list, which only grows. Changes to the flows of other processes are not
+     * counted.
+     *
+     * @return The number of flow changes.
+     */
+    synchronized long getFlowChanges() {
+        long total = retiredFlowChanges;
+        for (ModificationCounter counter : counters.keySet()) {
+            total += counter.get();
+        }
+        return total;
+    }
+
+    private void track(Process process) {
+        if (process != null) {
+            counters.computeIfAbsent(process.getModificationCounter(), key -> new int[1])[0]++;
+        }
+    }
+
+    private void untrack(Process process) {
+        if (process == null) {
+            return;
+        }
+        ModificationCounter counter = process.getModificationCounter();
+        int[] users = counters.get(counter);
+        if (--users[0] == 0) {
+            counters.remove(counter);
+            retiredFlowChanges += counter.get();
+        }
+    }
+
+    /**
+     * Finds the processes with the given name.
+     *
+     * @param name The name of the processes.
+     * @return The matching processes in list order, or an empty list.
+     */
+    synchronized List<Process> findByName(String name) {
+        updateIndexes();
+        return collect(byName.get(name));
+    }
+
+    /**
+     * Finds the positions of the processes with the given name.
+     *
+     * @param name The name of the processes.
+     * @return The positions in ascending order, or an empty array.
+     */
+    synchronized int[] positionsByName(String name) {
+        updateIndexes();
+        return toArray(byName.get(name));
+    }
+
+    /**
+     * Finds the processes with the given category.
+     *
+     * @param category The category of the processes.
+     * @return The matching processes in list order, or an empty list.
+     */
+    synchronized List<Process> findByCategory(String category) {
+        updateIndexes();
+        return collect(byCategory.get(category));
+    }
+
+    /**
+     * Finds the positions of the processes with the given category.
+     *
+     * @param category The category of the processes.
+     * @return The positions in ascending order, or an empty array.
+     */
+    synchronized int[] positionsByCategory(String category) {
+        updateIndexes();
+        return toArray(byCategory.get(category));
+    }
+
+    /**
+     * Adds the processes that are not indexed yet to the indexes.
+     */
+    private void updateIndexes() {
+        int size = processes.size();
+        for (int i = indexed; i < size; i++) {
+            Process process = processes.get(i);
+            if (process == null) {
+                continue;
+            }
+            if (process.getName() != null) {
+                byName.computeIfAbsent(process.getName(), key -> new Positions()).add(i);
+            }
+            if (process.getCategory() != null) {
+                byCategory.computeIfAbsent(process.getCategory(), key -> new Positions()).add(i);
+            }
+        }
+        indexed = size;
+    }
+
+    private void invalidate() {
+        byName.clear();
+        byCategory.clear();
+        indexed = 0;
+    }
+
+    private List<Process> collect(Positions positions) {
+        if (positions == null) {
+            return Collections.emptyList();
+        }
+
+        List<Process> result = new ArrayList<>(positions.size);
+        for (int i = 0; i < positions.size; i++) {
+            result.add(processes.get(positions.values[i]));
+        }
+        return result;
+    }
+
+    private static int[] toArray(Positions positions) {
+        return positions == null ? new int[0] : Arrays.copyOf(positions.values, positions.size);
+    }
+
+    /**
+     * A growable list of positions.
+     */
+    private static final class Positions {
+        private int[] values = new int[2];
+        private int size;
+
+        private void add(int position) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = position;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package sphereWizard.ProductSystem;
+
+import sphereWizard.Exceptions.FlowOutputNotRecognizedException;
+import sphereWizard.Exceptions.UnitNotRecognizedException;
+
+/**
+ * The `ProcessRowHandler` class sorts the rows of a flow table the way
+ * {@link ProductSystemData#readCsv(String, String)} does: a row whose first
+ * cell is blank is the header of a new process, the two rows after it are
+ * column titles and are skipped, and every other row is a flow row. Once a
+ * flow row has been seen, every process is ended at the next header or at the
+ * end of the rows, even a process without flows of its own.
+ *
+ * <p>
+ * Subclasses only say what is done with headers, flow rows and ended
+ * processes, so every reader of flow tables groups rows into processes the
+ * same way.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+abstract class ProcessRowHandler implements FlowTableScanner.RowHandler {
+
+    /**
+     * Number of title rows that follow each process header.
+     */
+    static final int TITLE_ROWS = 2;
+
+    /**
+     * Number of cells in a flow row.
+     */
+    static final int FLOW_CELLS = 8;
+
+    private boolean hasFlows;
+    private boolean processOpen = true;
+    private int rowsToSkip;
+
+    /**
+     * Constructs a handler for the rows of a whole file.
+     */
+    ProcessRowHandler() {
+    }
+
+    /**
+     * Constructs a handler for a part of a file. A part that starts at a
+     * process header ends its processes even without flows, as if flows had
+     * already been seen earlier in the file.
+     *
+     * @param atHeader {@code true} if the rows start at a process header.
+     */
+    ProcessRowHandler(boolean atHeader) {
+        this.hasFlows = atHeader;
+        this.processOpen = !atHeader;
+    }
+
+    @Override
+    public final void row(FlowTableRow row) throws UnitNotRecognizedException, FlowOutputNotRecognizedException {
+        if (rowsToSkip > 0) {
+            rowsToSkip--;
+            return;
+        }
+
+        if (row.isBlank(0)) {
+            // If the previous process had flows, it is complete
+            if (hasFlows && processOpen) {
+                endProcess();
+            }
+            processOpen = true;
+            rowsToSkip = TITLE_ROWS;
+            header(row);
+        } else {
+            flowRow(row);
+            hasFlows = true;
+        }
+    }
+
+    /**
+     * Ends the process that is still open, if any. Must be called once every
+     * row has been handled.
+     */
+    final void endRows() {
+        if (hasFlows && processOpen) {
+            endProcess();
+            processOpen = false;
+        }
+    }
+
+    /**
+     * Handles the header of a process, after the previous process was ended.
+     *
+     * @param row The header row.
+     */
+    void header(FlowTableRow row) {
+    }
+
+    /**
+     * Handles a flow row.
+     *
+     * @param row The flow row.
+     * @throws UnitNotRecognizedException       if the row has an unknown unit.
+     * @throws FlowOutputNotRecognizedException if the row has an unknown
+     *                                          output flow type.
+     */
+    abstract void flowRow(FlowTableRow row) throws UnitNotRecognizedException, FlowOutputNotRecognizedException;
+
+    /**
+     * Ends the open process.
+     */
+    void endProcess() {
+    }
+
+    /**
+     * Checks that a flow row has a cell for every column.
+     *
+     * @param row The flow row.
+     * @throws ArrayIndexOutOfBoundsException if a cell is missing, like
+     *                                        reading the cells of a split line.
+     */
+    static void requireFlowCells(FlowTableRow row) {
+        if (row.cellCount() < FLOW_CELLS) {
+            throw new ArrayIndexOutOfBoundsException("Line " + row.getLineNumber() + " has "
+                    + row.cellCount() + " cells, expected " + FLOW_CELLS);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package sphereWizard.ProductSystem;
 
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
 import sphereWizard.Enums.OutputFlowTypes;
 import sphereWizard.Exceptions.EmptyListException;
 import sphereWizard.FlowProcessStructure.OutputFlow;
@@ -58,6 +61,29 @@ public class ProductSystem implements sendModeledData {
      */
     private double necessaryEnergyForSecundaryMaterials;
 
+    /**
+     * The totals of every output flow type from the last calculation.
+     */
+    private FlowTotals flowTotals;
+
+    /**
+     * The pool used to calculate the totals in parallel, or {@code null} to
+     * calculate them on the calling thread.
+     */
+    private ForkJoinPool aggregationPool;
+
+    /**
+     * The totals kept up to date by the flow mutation methods, or {@code null}
+     * until the totals are first calculated.
+     */
+    private FlowTotals.CompensatedSums runningTotals;
+
+    /**
+     * The version of the data the totals were calculated for, or -1 if they
+     * must be calculated again.
+     */
+    private long totalsVersion = -1;
+
 
     /**
      * Constructs a ProductSystem object with the specified ProductSystem.
@@ -91,6 +117,7 @@ public class ProductSystem implements sendModeledData {
      */
     public void setProductSystemDataFilter(sendFileData psd) throws EmptyListException {
         this.productSystemData = psd.getProductSystemData().filter(1, "");
+        invalidate();
     }
 
     // Calculations ...
@@ -103,10 +130,7 @@ public class ProductSystem implements sendModeledData {
     public double calculateWasteEliminated() {
         // W = V - Rr
 
-        double totalVirginMaterial = calculateFlowValue(OutputFlowTypes.VIRGIN_MATERIAL);
-        double totalRecoveredMaterialRecycled = calculateFlowValue(OutputFlowTypes.RECOVERED_RECYCLED_MATERIAL);
-
-        wasteEliminated = (totalVirginMaterial - totalRecoveredMaterialRecycled);
+        wasteEliminated = calculateFlowTotals().getWasteEliminated();
         return wasteEliminated;
     }
 
@@ -118,10 +142,7 @@ public class ProductSystem implements sendModeledData {
     public double calculateRecycledInput() {
         // Ri = R + Rr
 
-        double totalMaterialRecycled = calculateFlowValue(OutputFlowTypes.RECYCLED_MATERIAL);
-        double totalRecoveredMaterialRecycled = calculateFlowValue(OutputFlowTypes.RECOVERED_RECYCLED_MATERIAL);
-
-        recycledInput = totalMaterialRecycled + totalRecoveredMaterialRecycled ;
+        recycledInput = calculateFlowTotals().getRecycledInput();
         return recycledInput;
     }
 
@@ -133,10 +154,10 @@ public class ProductSystem implements sendModeledData {
     public double calculateMass() {
         // M = V + Ri
 
-        double totalVirginMaterial = calculateFlowValue(OutputFlowTypes.VIRGIN_MATERIAL);
-        double totalRecycledInput = calculateRecycledInput();
+        FlowTotals totals = calculateFlowTotals();
 
-        mass = totalVirginMaterial + totalRecycledInput;
+        recycledInput = totals.getRecycledInput();
+        mass = totals.getMass();
         return mass;
     }
 
@@ -147,7 +168,7 @@ public class ProductSystem implements sendModeledData {
      */
     public double calculateNecessaryEnergyForPrimaryMaterials() {
 
-        necessaryEnergyForPrimaryMaterials = calculateFlowValue(OutputFlowTypes.MAIN_MATERIALS_PRODUCTION_ENERGY);
+        necessaryEnergyForPrimaryMaterials = calculateFlowTotals().getNecessaryEnergyForPrimaryMaterials();
         return necessaryEnergyForPrimaryMaterials;
 
     }
@@ -159,7 +180,7 @@ public class ProductSystem implements sendModeledData {
      */
     public double calculateNecessaryEnergyForSecondaryMaterials() {
 
-        necessaryEnergyForSecundaryMaterials = calculateFlowValue(OutputFlowTypes.SECONDARY_MATERIALS_PRODUCTION_ENERGY);
+        necessaryEnergyForSecundaryMaterials = calculateFlowTotals().getNecessaryEnergyForSecondaryMaterials();
         return necessaryEnergyForSecundaryMaterials;
     }
 
@@ -181,6 +202,7 @@ public class ProductSystem implements sendModeledData {
      */
     public void setProductSystemData(ProductSystemData productSystemData) {
         this.productSystemData = productSystemData;
+        invalidate();
     }
 
     /**
@@ -267,37 +289,206 @@ public class ProductSystem implements sendModeledData {
         // Method for Output Flows (OutputFlow):
         double totalFlowValue = 0.0;
         for (Process process : productSystemData.getProductSystemData().getProcesses()) {
-            for (OutputFlow outputFlow : process.getOutputFlows()) {
-                if ((outputFlow != null) && outputFlow.getName().equals(flowType)){
-                    totalFlowValue += outputFlow.getValue();
-                }
-            }
+            // Processes backed by a FlowTable add their values straight from the columns
+            totalFlowValue = process.addOutputFlowValues(flowType, totalFlowValue);
         }
         return totalFlowValue;
     }
 
+    /**
+     * Calculates the total value of every output flow type in a single
+     * traversal of the processes.
+     * <p>
+     * The totals are kept for the current {@link ProductSystemData#getVersion()
+     * version} of the data: until the data changes, this method returns the
+     * same totals without traversing the processes, and so do the other
+     * calculations, which all derive from them.
+     * </p>
+     *
+     * @return The totals of every output flow type.
+     */
+    public FlowTotals calculateFlowTotals() {
+        long version = productSystemData.getProductSystemData().getVersion();
+        if (flowTotals != null && totalsVersion == version) {
+            return flowTotals;
+        }
+
+        List<Process> processes = productSystemData.getProductSystemData().getProcesses();
+
+        if (aggregationPool == null) {
+            flowTotals = FlowTotals.of(processes);
+        } else {
+            flowTotals = FlowTotals.ofParallel(processes, aggregationPool);
+        }
+        runningTotals = new FlowTotals.CompensatedSums(flowTotals);
+        totalsVersion = version;
+        return flowTotals;
+    }
+
+    /**
+     * Forgets the cached totals, so that the next calculation traverses the
+     * processes again.
+     */
+    public void invalidate() {
+        totalsVersion = -1;
+    }
+
+    /**
+     * Sets the pool used to calculate the flow totals. With a pool, the totals
+     * use compensated summation merged in a fixed order, so every calculation
+     * (including the circularity index) gives the same result whatever the
+     * number of threads. Without one, the totals are plain sums calculated on
+     * the calling thread.
+     *
+     * @param aggregationPool The pool, or {@code null} to calculate on the
+     *                        calling thread.
+     * @see FlowTotals#ofParallel(List, ForkJoinPool)
+     */
+    public void setAggregationPool(ForkJoinPool aggregationPool) {
+        this.aggregationPool = aggregationPool;
+        invalidate();
+    }
+
+    /**
+     * Gets the pool used to calculate the flow totals.
+     *
+     * @return The pool, or {@code null} if the totals are calculated on the
+     *         calling thread.
+     */
+    public ForkJoinPool getAggregationPool() {
+        return aggregationPool;
+    }
+
+    /**
+     * Gets the totals computed by the last call to
+     * {@link #calculateFlowTotals()} or any of the calculations.
+     *
+     * @return The last totals, or {@code null} if nothing was calculated yet.
+     */
+    public FlowTotals getFlowTotals() {
+        return flowTotals;
+    }
+
     /**
      * Calculates various methods related to the product system.
      * These calculations include waste eliminated, recycled input, mass, necessary
      * energy for primary materials, and necessary energy for secondary materials.
      *
      * This method serves as a convenience method to calculate all the related methods
-     * in one call.
+     * in one call, traversing the processes only once.
      */
     public void calculateAllMethods(){
+        // One traversal of the processes feeds every calculation
+        FlowTotals totals = calculateFlowTotals();
+
         // Calculate waste eliminated
-        this.calculateWasteEliminated();
+        this.wasteEliminated = totals.getWasteEliminated();
 
         // Calculate recycled input
-        this.calculateRecycledInput();
+        this.recycledInput = totals.getRecycledInput();
 
         // Calculate mass
-        this.calculateMass();
+        this.mass = totals.getMass();
 
         // Calculate necessary energy for primary materials
-        this.calculateNecessaryEnergyForPrimaryMaterials();
+        this.necessaryEnergyForPrimaryMaterials = totals.getNecessaryEnergyForPrimaryMaterials();
 
         // Calculate necessary energy for secondary materials
-        this.calculateNecessaryEnergyForSecondaryMaterials();
+        this.necessaryEnergyForSecundaryMaterials = totals.getNecessaryEnergyForSecondaryMaterials();
+    }
+
+    // Flow mutations
+
+    /**
+     * Changes the value of an output flow and updates the flow totals, the
+     * waste eliminated, the recycled input, the mass and the energies without
+     * traversing the processes again. The circularity index can then be
+     * calculated from {@link #getFlowTotals()} in constant time.
+     * <p>
+     * The process must belong to this product system. The first mutation
+     * calculates the totals if they are not cached; after that, every mutation
+     * takes constant time. The change is recorded in the version of the data,
+     * so other product systems sharing it calculate their totals again.
+     * </p>
+     *
+     * @param process         The process of the flow.
+     * @param outputFlowIndex The position of the flow in the output flows of
+     *                        the process.
+     * @param value           The new value of the flow.
+     */
+    public void updateOutputFlowValue(Process process, int outputFlowIndex, double value) {
+        ensureRunningTotals();
+
+        OutputFlow outputFlow = process.getOutputFlows().get(outputFlowIndex);
+        double previousValue = outputFlow.getValue();
+        outputFlow.setValue(value);
+
+        adjustTotals(outputFlow.getName(), -previousValue);
+        adjustTotals(outputFlow.getName(), value);
+        updateResults();
+    }
+
+    /**
+     * Adds an output flow to a process and updates the totals and results like
+     * {@link #updateOutputFlowValue(Process, int, double)}.
+     *
+     * @param process    The process receiving the flow.
+     * @param outputFlow The flow to add.
+     */
+    public void addOutputFlow(Process process, OutputFlow outputFlow) {
+        ensureRunningTotals();
+
+        process.getOutputFlows().add(outputFlow);
+
+        adjustTotals(outputFlow.getName(), outputFlow.getValue());
+        updateResults();
+    }
+
+    /**
+     * Removes an output flow from a process and updates the totals and results
+     * like {@link #updateOutputFlowValue(Process, int, double)}.
+     *
+     * @param process         The process of the flow.
+     * @param outputFlowIndex The position of the flow in the output flows of
+     *                        the process.
+     * @return The flow that was removed.
+     */
+    public OutputFlow removeOutputFlow(Process process, int outputFlowIndex) {
+        ensureRunningTotals();
+
+        OutputFlow outputFlow = process.getOutputFlows().remove(outputFlowIndex);
+
+        adjustTotals(outputFlow.getName(), -outputFlow.getValue());
+        updateResults();
+        return outputFlow;
+    }
+
+    private void ensureRunningTotals() {
+        // Brings the totals up to date with the data if needed
+        calculateFlowTotals();
+    }
+
+    private void adjustTotals(OutputFlowTypes flowType, double value) {
+        if (flowType != null) {
+            runningTotals.add(flowType.ordinal(), value);
+        }
+    }
+
+    /**
+     * Recalculates every result from the running totals.
+     */
+    private void updateResults() {
+        flowTotals = new FlowTotals(runningTotals.toTotals());
+
+        // The totals already include the change, keep them for the new version
+        ProductSystemData data = productSystemData.getProductSystemData();
+        data.markChanged();
+        totalsVersion = data.getVersion();
+
+        this.wasteEliminated = flowTotals.getWasteEliminated();
+        this.recycledInput = flowTotals.getRecycledInput();
+        this.mass = flowTotals.getMass();
+        this.necessaryEnergyForPrimaryMaterials = flowTotals.getNecessaryEnergyForPrimaryMaterials();
+        this.necessaryEnergyForSecundaryMaterials = flowTotals.getNecessaryEnergyForSecondaryMaterials();
     }
 }
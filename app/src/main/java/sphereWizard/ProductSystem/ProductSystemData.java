@@ -3,22 +3,24 @@ package sphereWizard.ProductSystem;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
 import sphereWizard.Exceptions.FlowOutputNotRecognizedException;
 import sphereWizard.Exceptions.UnitNotRecognizedException;
 import sphereWizard.Exceptions.EmptyListException;
-import sphereWizard.FilterData.FilterData;
+import sphereWizard.FlowProcessStructure.FlowTable;
+import sphereWizard.FlowProcessStructure.FlowTableSnapshot;
 import sphereWizard.FlowProcessStructure.InputFlow;
-import sphereWizard.FlowProcessStructure.OutputFlow;
 import sphereWizard.FlowProcessStructure.Process;
-import sphereWizard.Interfaces.SendFilteredData;
 import sphereWizard.Interfaces.sendFileData;
-import sphereWizard.Util.Converter;
-import sphereWizard.Util.UnitAssigner;
+import sphereWizard.Util.BackgroundInflater;
+import sphereWizard.Util.DecimalParser;
+import sphereWizard.Util.UnitRegistry;
 import sphereWizard.Enums.OutputFlowTypes;
 
 /**
@@ -27,6 +29,16 @@ import sphereWizard.Enums.OutputFlowTypes;
  * input flows, and output flows. It provides methods for reading data from a
  * CSV file and retrieving
  * the list of processes.
+ * <p>
+ * Processes read from a file keep their flows in a columnar {@link FlowTable};
+ * the processes in the list are views over it.
+ * </p>
+ * <p>
+ * The list of processes keeps hash indexes on process name and category, kept
+ * up to date as processes are added or removed, so
+ * {@link #findByName(String)} and {@link #findByCategory(String)} do not scan
+ * the whole list.
+ * </p>
  * 
  * @author Group 22
  * @version 1.0
@@ -40,25 +52,57 @@ public class ProductSystemData implements sendFileData {
      */
     private List<Process> processes;
 
+    /**
+     * Changes made other than through the current list of processes, see
+     * {@link #getVersion()}.
+     */
+    private volatile long version;
+
+    /**
+     * Lists of processes replaced through {@link #setProcesses(List)}, counted
+     * with their changes, see {@link #getStructureChanges()}.
+     */
+    private volatile long replacedChanges;
+
+    /**
+     * The parser of the quantities read from files.
+     */
+    private DecimalParser decimalParser = DecimalParser.DEFAULT;
+
+    /**
+     * The registry of the units read from files.
+     */
+    private UnitRegistry unitRegistry = UnitRegistry.standard();
+
+    /**
+     * Where bad rows are recorded when reading leniently, {@code null} to
+     * stop at the first bad row.
+     */
+    private LoadDiagnostics diagnostics;
+
     /**
      * Constructs an empty ProductSystemData.
      */
     public ProductSystemData() {
-        this.processes = new ArrayList<>();
+        this.processes = new ProcessList();
     }
 
     /**
-     * Constructs a ProductSystemData with the specified list of processes.
+     * Constructs a ProductSystemData with the specified list of processes. The
+     * processes are copied, so later changes to the given list are not seen;
+     * change the processes through {@link #getProcesses()} instead.
      *
      * @param processes The list of processes to initialize the ProductSystemData.
      */
     public ProductSystemData(ArrayList<Process> processes) {
-        this.processes = processes;
+        this.processes = new ProcessList(processes);
     }
 
     /**
      * Reads a CSV file containing information about processes, input flows, and
-     * output flows.
+     * output flows. A file compressed with gzip is decompressed on a background
+     * thread while it is parsed; if it is damaged or cut, the IOException is
+     * thrown, after the processes before the damage were added.
      *
      * @param path      The path to the CSV file.
      * @param delimiter The delimiter used to separate data in the CSV
@@ -70,7 +114,9 @@ public class ProductSystemData implements sendFileData {
     public void readCsv(String path, String delimiter)
             throws UnitNotRecognizedException, FlowOutputNotRecognizedException,
             NumberFormatException, IOException {
-        BufferedReader reader = new BufferedReader(new FileReader(path));
+        // Files compressed with gzip are decompressed while they are read
+        InputStream input = BackgroundInflater.open(path);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input));
 
         try {
             // If the file does not exist
@@ -80,6 +126,10 @@ public class ProductSystemData implements sendFileData {
 
             processCsvData(reader, delimiter);
         } catch (IOException e) {
+            // A damaged compressed file must not pass for a shorter file
+            if (input instanceof BackgroundInflater) {
+                throw e;
+            }
             e.printStackTrace();
         } finally {
             reader.close();
@@ -87,51 +137,201 @@ public class ProductSystemData implements sendFileData {
 
     }
 
+    /**
+     * Reads a CSV file like {@link #readCsv(String, String)}, but memory-maps
+     * the file and scans its bytes directly instead of splitting every line
+     * into Strings. Cells may be quoted. The file must be encoded in UTF-8.
+     *
+     * @param path      The path to the CSV file.
+     * @param delimiter The delimiter used to separate data in the CSV file, a
+     *                  single ASCII character.
+     * @throws FlowOutputNotRecognizedException
+     * @throws UnitNotRecognizedException
+     * @throws IOException
+     * @see FlowTableReader
+     */
+    public void readCsvMapped(String path, String delimiter)
+            throws UnitNotRecognizedException, FlowOutputNotRecognizedException,
+            NumberFormatException, IOException {
+        FlowTableReader reader = new FlowTableReader(delimiter);
+        reader.setDecimalParser(decimalParser);
+        reader.setUnitRegistry(unitRegistry);
+        reader.setDiagnostics(diagnostics);
+        reader.read(path, this);
+    }
+
+    /**
+     * Reads a CSV file like {@link #readCsvMapped(String, String)}, splitting
+     * it at process headers and parsing the parts on every available core.
+     * The processes are added in the same order as in the file.
+     *
+     * @param path      The path to the CSV file.
+     * @param delimiter The delimiter used to separate data in the CSV file, a
+     *                  single ASCII character.
+     * @throws FlowOutputNotRecognizedException
+     * @throws UnitNotRecognizedException
+     * @throws IOException
+     * @see FlowTableReader#setParallelism(int)
+     */
+    public void readCsvParallel(String path, String delimiter)
+            throws UnitNotRecognizedException, FlowOutputNotRecognizedException,
+            NumberFormatException, IOException {
+        FlowTableReader reader = new FlowTableReader(delimiter);
+        reader.setParallelism(Runtime.getRuntime().availableProcessors());
+        reader.setDecimalParser(decimalParser);
+        reader.setUnitRegistry(unitRegistry);
+        reader.setDiagnostics(diagnostics);
+        reader.read(path, this);
+    }
+
+    /**
+     * Opens a CSV file through its index, see {@link FlowTableIndex}, and adds
+     * its processes without reading their flows. The flows of a process are
+     * read from the file the first time they are asked for, so finding a few
+     * processes by name only costs a scan of the process headers, or nothing
+     * once the index was saved. The file must not change while the processes
+     * are in use.
+     *
+     * @param path      The path to the CSV file.
+     * @param delimiter The delimiter used to separate data in the CSV file, a
+     *                  single ASCII character.
+     * @throws IOException if the file cannot be read.
+     */
+    public void readCsvIndexed(String path, String delimiter) throws IOException {
+        FlowTableIndex index = FlowTableIndex.open(path, delimiter);
+
+        FlowTableReader reader = new FlowTableReader(delimiter);
+        reader.setDecimalParser(decimalParser);
+        reader.setUnitRegistry(unitRegistry);
+
+        // The process may be read after the working directory changed
+        String file = Paths.get(path).toAbsolutePath().toString();
+        List<Process> indexed = new ArrayList<>();
+        for (FlowTableIndex.Entry entry : index.getEntries()) {
+            indexed.add(new IndexedProcess(reader, file, entry));
+        }
+        getProcesses().addAll(indexed);
+    }
+
+    /**
+     * Publishes the processes of a CSV file while it is read, instead of
+     * adding them to the processes, so that they can be aggregated or
+     * exported before the whole file is parsed. Each process is published as
+     * soon as the header of the next one is read, and the file is only read
+     * as fast as the subscriber requests processes. The file must be encoded
+     * in UTF-8, and may be compressed with gzip.
+     *
+     * @param path      The path to the CSV file.
+     * @param delimiter The delimiter used to separate data in the CSV file, a
+     *                  single ASCII character.
+     * @return The publisher, which reads the file again for every subscriber.
+     * @see FlowTablePublisher
+     */
+    public FlowTablePublisher publishCsv(String path, String delimiter) {
+        FlowTableReader reader = new FlowTableReader(delimiter);
+        reader.setDecimalParser(decimalParser);
+        reader.setUnitRegistry(unitRegistry);
+        return reader.publish(path);
+    }
+
+    /**
+     * Writes the processes to a binary snapshot file, which
+     * {@link #readSnapshot(String)} loads far faster than a CSV file is read.
+     * The values are written as they are, already converted to the standard
+     * units.
+     *
+     * @param path The path to the snapshot file, replaced if it exists.
+     * @throws IOException if the file cannot be written.
+     * @see FlowTableSnapshot
+     */
+    public void writeSnapshot(String path) throws IOException {
+        FlowTable.Builder table = new FlowTable.Builder();
+        for (Process process : getProcesses()) {
+            table.addProcess(process.getName(), process.getCategory(), process.getInputFlows(),
+                    process.getOutputFlows());
+        }
+        FlowTableSnapshot.write(table.build(), Paths.get(path));
+    }
+
+    /**
+     * Reads the processes of a snapshot file written by
+     * {@link #writeSnapshot(String)} and adds them to the processes, like
+     * {@link #readCsv(String, String)} does. The columns are copied out of a
+     * mapping of the file, and no value is parsed or converted again.
+     *
+     * @param path The path to the snapshot file.
+     * @throws IOException if the file cannot be read or is not a snapshot.
+     * @see FlowTableSnapshot
+     */
+    public void readSnapshot(String path) throws IOException {
+        // The processes are views over the columns of the table
+        getProcesses().addAll(FlowTableSnapshot.read(Paths.get(path)).getProcesses());
+    }
+
     private void processCsvData(BufferedReader reader, String delimiter)
             throws UnitNotRecognizedException, FlowOutputNotRecognizedException, IOException {
         String line;
+        FlowTable.Builder table = new FlowTable.Builder();
 
         String processName = null;
         String processCategory = null;
-        List<InputFlow> inputFlows = new ArrayList<>();
-        List<OutputFlow> outputFlows = new ArrayList<>();
+        boolean processStarted = false;
         boolean hasFlows = false;
+        long lineNumber = 0;
 
         while ((line = reader.readLine()) != null) {
+            lineNumber++;
             String[] data = line.split(delimiter);
 
             if (isHeaderLine(data)) {
-                // If the previous process had flows, add it to the list of processes
-                if (hasFlows) {
-                    this.processes.add(new Process(processName, processCategory, inputFlows, outputFlows));
-
-                    // Reset for the next process
-                    processName = null;
-                    inputFlows = new ArrayList<>();
-                    outputFlows = new ArrayList<>();
+                // Once flows have been seen, the previous process is kept even without flows
+                if (hasFlows && !processStarted) {
+                    table.startProcess(processName, processCategory);
                 }
 
                 // Read the name and the category of the new process
                 processName = data[3];
                 processCategory = data[4];
+                processStarted = false;
 
                 // Skip the next two lines because they are useless
                 reader.readLine();
                 reader.readLine();
-            } else {
-                processFlowData(data, inputFlows, outputFlows);
+                lineNumber += 2;
+                continue;
+            }
 
-                // To indicate that the previous process had flows
-                hasFlows = true;
+            // The flows are written straight into the table
+            if (!processStarted) {
+                table.startProcess(processName, processCategory);
+                processStarted = true;
+            }
 
+            if (diagnostics != null) {
+                if (data.length < ProcessRowHandler.FLOW_CELLS) {
+                    diagnostics.record(lineNumber, data.length + 1, LoadDiagnostics.Reason.MISSING_CELLS);
+                } else {
+                    readFlowsLeniently(data[0], data[1], decimalParser.parseOrNaN(data[2]), data[3], data[4],
+                            data[5], decimalParser.parseOrNaN(data[6]), data[7], unitRegistry, table,
+                            diagnostics, lineNumber);
+                }
+            } else {
+                processFlowData(data, table);
             }
+
+            // To indicate that the previous process had flows, a bad row is skipped
+            // but its process is kept
+            hasFlows = true;
         }
 
         // When the loop ends, there may still be a process to insert, ensuring that
         // nothing is left to add
-        if (hasFlows) {
-            this.processes.add(new Process(processName, processCategory, inputFlows, outputFlows));
+        if (hasFlows && !processStarted) {
+            table.startProcess(processName, processCategory);
         }
+
+        // The processes are views over the columns of the table
+        getProcesses().addAll(table.build().getProcesses());
     }
 
     /**
@@ -156,49 +356,173 @@ public class ProductSystemData implements sendFileData {
     }
 
     /**
-     * Processes the flow data from a line and adds it to the input and output flow
-     * lists.
+     * Processes the flow data from a line and adds its input and output flows
+     * to the current process of the table.
      *
-     * @param data        The array representing the line data.
-     * @param inputFlows  The list of input flows to add to.
-     * @param outputFlows The list of output flows to add to.
+     * @param data  The array representing the line data.
+     * @param table The table to add the flows to.
      * @throws UnitNotRecognizedException
      * @throws FlowOutputNotRecognizedException
      */
-    private void processFlowData(String[] data, List<InputFlow> inputFlows, List<OutputFlow> outputFlows)
+    private void processFlowData(String[] data, FlowTable.Builder table)
             throws UnitNotRecognizedException, FlowOutputNotRecognizedException {
-        UnitAssigner unitAssigner = new UnitAssigner();
-
-        String inputName = data[0];
-        String inputCategoria = data[1];
-        double inputQuantidade = Double.parseDouble(data[2]);
-        Enum<?> inputUnit = unitAssigner.assignEnum(data[3]);
+        addInputFlow(table, data[0], data[1], decimalParser.parse(data[2]), data[3], unitRegistry);
+        addOutputFlow(table, data[4], data[5], decimalParser.parse(data[6]), data[7], unitRegistry);
+    }
 
-        if (inputQuantidade == 0) {
-            // Handle the case where quantity is 0
-            throw new IllegalArgumentException("Quantity should not be 0 for input flow: " + inputName);
+    /**
+     * Reads the flows of a line without throwing: if a cell is bad, the line
+     * is recorded in the diagnostics and no flow is added. The cells are
+     * checked in the order {@link #processFlowData} reads them, and only the
+     * first bad one is recorded.
+     *
+     * @param inputName      The name of the input flow.
+     * @param inputCategory  The category of the input flow.
+     * @param inputValue     The quantity of the input flow, {@code NaN} if it
+     *                       is not a number.
+     * @param inputUnit      The unit of the input flow.
+     * @param outputType     The type of the output flow.
+     * @param outputCategory The category of the output flow.
+     * @param outputValue    The quantity of the output flow, {@code NaN} if it
+     *                       is not a number.
+     * @param outputUnit     The unit of the output flow.
+     * @param units          The registry of the units.
+     * @param table          The table whose current process gets the flows.
+     * @param diagnostics    Where a bad line is recorded.
+     * @param lineNumber     The line number, starting at 1.
+     * @return {@code true} if the flows were added.
+     */
+    static boolean readFlowsLeniently(String inputName, String inputCategory, double inputValue,
+            String inputUnit, String outputType, String outputCategory, double outputValue, String outputUnit,
+            UnitRegistry units, FlowTable.Builder table, LoadDiagnostics diagnostics, long lineNumber) {
+        int inputUnitId = units.find(inputUnit);
+        OutputFlowTypes type = outputFlowTypeOf(outputType);
+        int outputUnitId = units.find(outputUnit);
+
+        // Columns start at 1, as in a spreadsheet
+        if (Double.isNaN(inputValue)) {
+            diagnostics.record(lineNumber, 3, LoadDiagnostics.Reason.INVALID_QUANTITY);
+        } else if (inputUnitId == UnitRegistry.UNKNOWN) {
+            diagnostics.record(lineNumber, 4, LoadDiagnostics.Reason.UNKNOWN_UNIT);
+        } else if (inputValue == 0) {
+            diagnostics.record(lineNumber, 3, LoadDiagnostics.Reason.ZERO_QUANTITY);
+        } else if (Double.isNaN(outputValue)) {
+            diagnostics.record(lineNumber, 7, LoadDiagnostics.Reason.INVALID_QUANTITY);
+        } else if (type == null) {
+            diagnostics.record(lineNumber, 5, LoadDiagnostics.Reason.UNKNOWN_FLOW_TYPE);
+        } else if (outputUnitId == UnitRegistry.UNKNOWN) {
+            diagnostics.record(lineNumber, 8, LoadDiagnostics.Reason.UNKNOWN_UNIT);
+        } else if (Math.ceil(outputValue) == 0) {
+            diagnostics.record(lineNumber, 7, LoadDiagnostics.Reason.ZERO_QUANTITY);
+        } else {
+            table.addInputFlow(inputName, inputCategory, units.toStandard(inputUnitId, inputValue),
+                    units.getStandardUnit(inputUnitId));
+            table.addOutputFlow(type, outputCategory, units.toStandard(outputUnitId, outputValue),
+                    units.getStandardUnit(outputUnitId));
+            return true;
         }
+        return false;
+    }
 
-        OutputFlowTypes outputName = readOutputFlowType(data[4]);
-        String outputCategoria = data[5];
-        double outputQuantidade = Double.parseDouble(data[6]);
-        Enum<?> outputUnit = unitAssigner.assignEnum(data[7]);
+    /**
+     * Reads the input flow of a line, from its first four cells, and converts it
+     * to the standard unit.
+     *
+     * @param name     The name of the input flow.
+     * @param category The category of the input flow.
+     * @param value    The quantity of the input flow.
+     * @param unit     The unit of the input flow.
+     * @param units    The registry of the units.
+     * @return The input flow.
+     * @throws UnitNotRecognizedException if the unit is not recognized.
+     */
+    static InputFlow readInputFlow(String name, String category, double value, String unit, UnitRegistry units)
+            throws UnitNotRecognizedException {
+        int unitId = checkInputFlow(name, value, unit, units);
+        return new InputFlow(name, category, units.toStandard(unitId, value), units.getStandardUnit(unitId));
+    }
 
-        if (Math.ceil(outputQuantidade) == 0) {
-            // Handle the case where quantity is 0
-            throw new IllegalArgumentException("Quantity should not be 0 for output flow: " + outputName);
-        }
+    /**
+     * Reads the input flow of a line, from its first four cells, converts it
+     * to the standard unit and adds it to the current process of a table.
+     *
+     * @param table    The table to add the input flow to.
+     * @param name     The name of the input flow.
+     * @param category The category of the input flow.
+     * @param value    The quantity of the input flow.
+     * @param unit     The unit of the input flow.
+     * @param units    The registry of the units.
+     * @throws UnitNotRecognizedException if the unit is not recognized.
+     */
+    static void addInputFlow(FlowTable.Builder table, String name, String category, double value, String unit,
+            UnitRegistry units) throws UnitNotRecognizedException {
+        int unitId = checkInputFlow(name, value, unit, units);
+        table.addInputFlow(name, category, units.toStandard(unitId, value), units.getStandardUnit(unitId));
+    }
 
-        Converter converter = new Converter();
+    /**
+     * Reads the output flow of a line, from its last four cells, converts it
+     * to the standard unit and adds it to the current process of a table.
+     *
+     * @param table    The table to add the output flow to.
+     * @param type     The type of the output flow.
+     * @param category The category of the output flow.
+     * @param value    The quantity of the output flow.
+     * @param unit     The unit of the output flow.
+     * @param units    The registry of the units.
+     * @throws UnitNotRecognizedException       if the unit is not recognized.
+     * @throws FlowOutputNotRecognizedException if the output flow type is not
+     *                                          recognized.
+     */
+    static void addOutputFlow(FlowTable.Builder table, String type, String category, double value, String unit,
+            UnitRegistry units) throws UnitNotRecognizedException, FlowOutputNotRecognizedException {
+        OutputFlowTypes outputName = readOutputFlowType(type);
+        int unitId = checkOutputFlow(outputName, value, unit, units);
+        table.addOutputFlow(outputName, category, units.toStandard(unitId, value), units.getStandardUnit(unitId));
+    }
 
-        InputFlow inputFlow = new InputFlow(inputName, inputCategoria, inputQuantidade, inputUnit);
-        OutputFlow outputFlow = new OutputFlow(outputName, outputCategoria, outputQuantidade, outputUnit);
+    /**
+     * Checks the unit and the quantity of an input flow.
+     *
+     * @param name  The name of the input flow.
+     * @param value The quantity of the input flow.
+     * @param unit  The unit of the input flow.
+     * @param units The registry of the units.
+     * @return The id of the unit in the registry.
+     * @throws UnitNotRecognizedException if the unit is not recognized.
+     * @throws IllegalArgumentException   if the quantity is 0.
+     */
+    static int checkInputFlow(String name, double value, String unit, UnitRegistry units)
+            throws UnitNotRecognizedException {
+        int unitId = units.lookup(unit);
+
+        if (value == 0) {
+            // Handle the case where quantity is 0
+            throw new IllegalArgumentException("Quantity should not be 0 for input flow: " + name);
+        }
+        return unitId;
+    }
 
-        converter.convert(inputFlow);
-        converter.convert(outputFlow);
+    /**
+     * Checks the unit and the quantity of an output flow.
+     *
+     * @param type  The type of the output flow.
+     * @param value The quantity of the output flow.
+     * @param unit  The unit of the output flow.
+     * @param units The registry of the units.
+     * @return The id of the unit in the registry.
+     * @throws UnitNotRecognizedException if the unit is not recognized.
+     * @throws IllegalArgumentException   if the quantity rounds up to 0.
+     */
+    static int checkOutputFlow(OutputFlowTypes type, double value, String unit, UnitRegistry units)
+            throws UnitNotRecognizedException {
+        int unitId = units.lookup(unit);
 
-        inputFlows.add(inputFlow);
-        outputFlows.add(outputFlow);
+        if (Math.ceil(value) == 0) {
+            // Handle the case where quantity is 0
+            throw new IllegalArgumentException("Quantity should not be 0 for output flow: " + type);
+        }
+        return unitId;
     }
 
     /**
@@ -210,7 +534,26 @@ public class ProductSystemData implements sendFileData {
      * @throws FlowOutputNotRecognizedException If the output flow type is not
      *                                          recognized.
      */
-    private OutputFlowTypes readOutputFlowType(String data) throws FlowOutputNotRecognizedException {
+    static OutputFlowTypes readOutputFlowType(String data) throws FlowOutputNotRecognizedException {
+        OutputFlowTypes type = outputFlowTypeOf(data);
+
+        if (type == null) {
+            // Handle the case where the output type is not recognized
+            throw new FlowOutputNotRecognizedException("Not recognized: " + data);
+        }
+
+        return type;
+    }
+
+    /**
+     * Maps an output flow type to the corresponding enum value, without
+     * throwing.
+     *
+     * @param data The string representing the output flow type.
+     * @return The OutputFlowTypes enum value, or {@code null} if the type is
+     *         not recognized.
+     */
+    static OutputFlowTypes outputFlowTypeOf(String data) {
         OutputFlowTypes type = null;
 
         switch (data) {
@@ -233,8 +576,7 @@ public class ProductSystemData implements sendFileData {
                 type = OutputFlowTypes.TRANSPORT_MATERIAL;
                 break;
             default:
-                // Handle the case where the output type is not recognized
-                throw new FlowOutputNotRecognizedException("Not recognized: " + data);
+                break;
         }
 
         return type;
@@ -249,8 +591,211 @@ public class ProductSystemData implements sendFileData {
         return processes;
     }
 
+    /**
+     * Replaces the processes. The processes are copied, so later changes to
+     * the given list are not seen; change the processes through
+     * {@link #getProcesses()} instead.
+     *
+     * @param processes The new processes.
+     */
     public void setProcesses(List<Process> processes) {
-        this.processes = processes;
+        // Keep the version growing even though the new list counts its own changes
+        ProcessList previous = (ProcessList) this.processes;
+        long changes = previous.getChanges() + 1;
+        version += changes + previous.getFlowChanges();
+        replacedChanges += changes;
+        this.processes = new ProcessList(processes);
+    }
+
+    /**
+     * Gets the parser of the quantities read from files.
+     *
+     * @return The parser.
+     */
+    public DecimalParser getDecimalParser() {
+        return decimalParser;
+    }
+
+    /**
+     * Sets the parser of the quantities read from files. Files exported with
+     * a comma as decimal separator, such as {@code 1000,5} or
+     * {@code 1.000,5}, need {@code new DecimalParser(',', '.')}.
+     *
+     * @param decimalParser The parser, {@link DecimalParser#DEFAULT} by
+     *                      default.
+     */
+    public void setDecimalParser(DecimalParser decimalParser) {
+        if (decimalParser == null) {
+            throw new IllegalArgumentException("The decimal parser cannot be null");
+        }
+        this.decimalParser = decimalParser;
+    }
+
+    /**
+     * Gets the registry of the units read from files.
+     *
+     * @return The registry.
+     */
+    public UnitRegistry getUnitRegistry() {
+        return unitRegistry;
+    }
+
+    /**
+     * Sets the registry of the units read from files, for files using units
+     * defined in a configuration file.
+     *
+     * @param unitRegistry The registry, {@link UnitRegistry#standard()} by
+     *                     default.
+     * @see UnitRegistry#withUnits(java.nio.file.Path)
+     */
+    public void setUnitRegistry(UnitRegistry unitRegistry) {
+        if (unitRegistry == null) {
+            throw new IllegalArgumentException("The unit registry cannot be null");
+        }
+        this.unitRegistry = unitRegistry;
+    }
+
+    /**
+     * Gets where bad rows are recorded when reading leniently.
+     *
+     * @return The diagnostics, or {@code null} if reading stops at the first
+     *         bad row.
+     */
+    public LoadDiagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * Makes {@link #readCsv(String, String)},
+     * {@link #readCsvMapped(String, String)} and
+     * {@link #readCsvParallel(String, String)} lenient: a flow row with a bad
+     * cell, such as a zero quantity, an unknown unit or an unknown output flow
+     * type, is recorded in the diagnostics and skipped instead of stopping
+     * the read, so that a whole file is checked in one pass. The process of a
+     * skipped row is kept with its other flows.
+     *
+     * @param diagnostics The diagnostics, or {@code null} to stop at the first
+     *                    bad row, which is the default.
+     */
+    public void setDiagnostics(LoadDiagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+    }
+
+    /**
+     * Gets the version of the data. It grows whenever processes are added,
+     * removed or replaced through {@link #getProcesses()} or
+     * {@link #setProcesses(List)}, whenever a flow is changed, added or
+     * removed in one of its processes (see
+     * {@link Process#getModificationCounter()}), and when
+     * {@link #markChanged()} is called. Calculations cache their results for
+     * a version.
+     *
+     * @return The version of the data.
+     */
+    public long getVersion() {
+        ProcessList list = (ProcessList) processes;
+        return version + list.getChanges() + list.getFlowChanges();
+    }
+
+    /**
+     * Gets the number of times processes were added, removed or replaced,
+     * which only grows. Views of the data check it to notice that the
+     * positions they hold are no longer valid.
+     *
+     * @return The number of structural changes.
+     */
+    long getStructureChanges() {
+        return replacedChanges + ((ProcessList) processes).getChanges();
+    }
+
+    /**
+     * Records that the data changed in a way the version cannot see, so that
+     * cached calculations are redone. Changes to the processes and to their
+     * flows are recorded already.
+     */
+    public synchronized void markChanged() {
+        version++;
+    }
+
+    /**
+     * Finds the processes with the given name using the name index.
+     *
+     * @param name The name of the processes.
+     * @return The matching processes in list order, or an empty list if there
+     *         are none.
+     */
+    public List<Process> findByName(String name) {
+        return ((ProcessList) processes).findByName(name);
+    }
+
+    /**
+     * Finds the processes with the given category using the category index.
+     *
+     * @param category The category of the processes.
+     * @return The matching processes in list order, or an empty list if there
+     *         are none.
+     */
+    public List<Process> findByCategory(String category) {
+        return ((ProcessList) processes).findByCategory(category);
+    }
+
+    /**
+     * Gets the data holding the processes, which is this object unless it is a
+     * view.
+     *
+     * @return The data holding the processes.
+     */
+    ProductSystemData getSource() {
+        return this;
+    }
+
+    /**
+     * Finds the positions in {@link #getSource()} of the processes with the
+     * given name.
+     *
+     * @param name The name of the processes.
+     * @return The positions in ascending order.
+     */
+    int[] positionsByName(String name) {
+        return ((ProcessList) processes).positionsByName(name);
+    }
+
+    /**
+     * Finds the positions in {@link #getSource()} of the processes with the
+     * given category.
+     *
+     * @param category The category of the processes.
+     * @return The positions in ascending order.
+     */
+    int[] positionsByCategory(String category) {
+        return ((ProcessList) processes).positionsByCategory(category);
+    }
+
+    /**
+     * Gets the positions in {@link #getSource()} of every process.
+     *
+     * @return The positions in ascending order.
+     */
+    int[] positions() {
+        int[] positions = new int[processes.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        return positions;
+    }
+
+    /**
+     * Gets the processes at the given positions.
+     *
+     * @param positions The positions of the processes.
+     * @return The processes, in the order of the positions.
+     */
+    List<Process> toProcesses(int[] positions) {
+        List<Process> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(processes.get(position));
+        }
+        return result;
     }
 
     /**
@@ -261,50 +806,56 @@ public class ProductSystemData implements sendFileData {
     @Override
     public String toString() {
         StringBuilder result = new StringBuilder("ProductSystem:\n");
-        for (Process process : processes) {
+        for (Process process : getProcesses()) {
             result.append(process.toString()).append("\n");
         }
         return result.toString();
     }
 
     /**
-     * Returns a filtered version of the ProductSystemData object with the following
+     * Returns a filtered view of the ProductSystemData object with the following
      * rules :
-     * for option 1 -> the method returns the entire productSystemData object;
-     * for option 2 -> the method returns the processes in productSystemData with
-     * the given category as string;
-     * for option 3 -> the method returns the processes in productSystemData with
-     * the given name as string;
+     * for option 1 -> the method returns this object, with every process;
+     * for option 2 -> the method returns a view of the processes with the given
+     * category as string;
+     * for option 3 -> the method returns a view of the processes with the given
+     * name as string;
+     * any other option returns this object.
+     * <p>
+     * The ProductSystemData itself is never changed, so the same data can be
+     * filtered many times, from several threads, without reading it again.
+     * Views of options 2 and 3 stop working once processes are added to,
+     * removed from or replaced in this object.
+     * </p>
      *
      * @param option         can be 1,2 or 3 and represents " send all ", " send by
      *                       category ", "send by name " respectively
      * @param nameOrCategory String that represents the name of a process or
      *                       category of processes.
-     * @return null
-     * @throws EmptyListException if productSystemData object is empty.
+     * @return this object for option 1, or a {@link ProductSystemView} of the
+     *         selected processes.
+     * @throws EmptyListException if no process is selected.
      */
-    public ProductSystemData filter(int option, String nameOrCategory) throws EmptyListException { // posso receber
-                                                                                                   // string e comparar
-                                                                                                   // com processos ou
-                                                                                                   // categorias e se
-                                                                                                   // nenhum dos dois,
-                                                                                                   // envio tudo
-
-        SendFilteredData filterData = new FilterData(this);
-        ProductSystemData toSend = this;
-
-        // System.out.println(" 1 - Enviar tudo; ");
-        // System.out.println(" 2 - Enviar processos por categoria ");
-        // System.out.println(" 3 - Enviar processos por nome; ");
+    public ProductSystemData filter(int option, String nameOrCategory) throws EmptyListException {
+        int[] selected;
 
         if (option == 1) {
-            toSend.setProcesses(filterData.sendAll().getProcesses());
+            if (getProcesses().isEmpty()) {
+                throw new EmptyListException("thine list is empty");
+            }
+            return this;
         } else if (option == 2) {
-            toSend.setProcesses(filterData.sendByCategory(nameOrCategory));
+            selected = positionsByCategory(nameOrCategory);
         } else if (option == 3) {
-            toSend.setProcesses(filterData.sendByName(nameOrCategory));
+            selected = positionsByName(nameOrCategory);
+        } else {
+            return this;
+        }
+
+        if (selected.length == 0) {
+            throw new EmptyListException("thine list is empty");
         }
-        return toSend;
+        return new ProductSystemView(getSource(), selected);
     }
 
     @Override
@@ -0,0 +1,182 @@
+package sphereWizard.ProductSystem;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.RandomAccess;
+
+import sphereWizard.FlowProcessStructure.Process;
+
+/**
+ * The `ProductSystemView` class is a read-only selection of the processes of a
+ * {@link ProductSystemData}, as returned by
+ * {@link ProductSystemData#filter(int, String)}. It only stores the positions
+ * of the selected processes in the original data, so any number of views can
+ * share one loaded product system without copying it, and they can be used
+ * from several threads at once.
+ *
+ * <p>
+ * A view can be used anywhere a ProductSystemData is expected, for instance to
+ * build a {@link ProductSystem}. Its processes cannot be changed, and reading
+ * a file into it is not supported. Once processes are added to, removed from
+ * or replaced in the original data, the view fails with a
+ * {@link ConcurrentModificationException}, like the iterator of a list; a new
+ * view has to be made. Changes to the flows of the processes are seen by the
+ * view.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public final class ProductSystemView extends ProductSystemData {
+
+    /**
+     * The data holding the processes.
+     */
+    private final ProductSystemData source;
+
+    /**
+     * Positions of the selected processes in the source, in ascending order.
+     */
+    private final int[] positions;
+
+    /**
+     * The selected processes.
+     */
+    private final List<Process> processes;
+
+    /**
+     * The structural changes of the source when the view was made.
+     */
+    private final long expectedChanges;
+
+    /**
+     * Constructs a view over some of the processes of a ProductSystemData.
+     *
+     * @param source    The data holding the processes, it must not be a view.
+     * @param positions The positions of the selected processes, in ascending
+     *                  order. The array is not copied.
+     */
+    ProductSystemView(ProductSystemData source, int[] positions) {
+        this.source = source;
+        this.positions = positions;
+        this.processes = new SelectedProcesses();
+        this.expectedChanges = source.getStructureChanges();
+    }
+
+    /**
+     * Gets the selected processes. The list cannot be modified.
+     *
+     * @return The selected processes, in the same order as in the source.
+     */
+    @Override
+    public List<Process> getProcesses() {
+        return processes;
+    }
+
+    /**
+     * Views cannot be changed.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void setProcesses(List<Process> processes) {
+        throw new UnsupportedOperationException("A ProductSystemView cannot be changed");
+    }
+
+    /**
+     * Gets the version of the data holding the processes, since the flows of
+     * the selected processes change with it.
+     *
+     * @return The version of the source.
+     */
+    @Override
+    public long getVersion() {
+        return source.getVersion();
+    }
+
+    @Override
+    public void markChanged() {
+        source.markChanged();
+    }
+
+    @Override
+    public List<Process> findByName(String name) {
+        return source.toProcesses(positionsByName(name));
+    }
+
+    @Override
+    public List<Process> findByCategory(String category) {
+        return source.toProcesses(positionsByCategory(category));
+    }
+
+    @Override
+    ProductSystemData getSource() {
+        return source;
+    }
+
+    @Override
+    int[] positionsByName(String name) {
+        checkForComodification();
+        return select(source.positionsByName(name));
+    }
+
+    @Override
+    int[] positionsByCategory(String category) {
+        checkForComodification();
+        return select(source.positionsByCategory(category));
+    }
+
+    @Override
+    int[] positions() {
+        checkForComodification();
+        return positions;
+    }
+
+    /**
+     * Checks that the positions of the view still hold the processes they
+     * were taken from.
+     *
+     * @throws ConcurrentModificationException if processes were added to,
+     *                                         removed from or replaced in the
+     *                                         source.
+     */
+    private void checkForComodification() {
+        if (source.getStructureChanges() != expectedChanges) {
+            throw new ConcurrentModificationException("The processes of the original data changed");
+        }
+    }
+
+    /**
+     * Keeps the positions of the source that are part of this view.
+     */
+    private int[] select(int[] candidates) {
+        int[] selected = new int[candidates.length];
+        int count = 0;
+        for (int candidate : candidates) {
+            if (Arrays.binarySearch(positions, candidate) >= 0) {
+                selected[count++] = candidate;
+            }
+        }
+        return count == selected.length ? selected : Arrays.copyOf(selected, count);
+    }
+
+    /**
+     * The list of selected processes, read through the positions.
+     */
+    private final class SelectedProcesses extends AbstractList<Process> implements RandomAccess {
+
+        @Override
+        public Process get(int index) {
+            checkForComodification();
+            return source.getProcesses().get(positions[index]);
+        }
+
+        @Override
+        public int size() {
+            checkForComodification();
+            return positions.length;
+        }
+    }
+}
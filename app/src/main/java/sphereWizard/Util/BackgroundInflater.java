@@ -0,0 +1,260 @@
+package sphereWizard.Util;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The `BackgroundInflater` class decompresses a gzip stream on its own thread
+ * and hands the decompressed bytes to the reader in large buffers, so that
+ * inflating the next part of a file overlaps with parsing the current one.
+ *
+ * <p>
+ * The buffers go through a bounded queue and are reused once read, so the
+ * memory used is the size of a buffer times their number, whatever the size
+ * of the file. The inflating thread stops at the end of the stream, at the
+ * first error, which is thrown by every read once the bytes before it are
+ * read, or when the stream is closed.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public final class BackgroundInflater extends InputStream {
+
+    /**
+     * Default size of a buffer of decompressed bytes.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Default number of buffers, that is how far the inflating thread can get
+     * ahead of the reader, plus the buffer being read.
+     */
+    public static final int DEFAULT_BUFFER_COUNT = 4;
+
+    /**
+     * Size of the buffer of compressed bytes read from the file.
+     */
+    private static final int INPUT_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The first two bytes of a gzip stream.
+     */
+    private static final int GZIP_MAGIC_1 = 0x1F;
+    private static final int GZIP_MAGIC_2 = 0x8B;
+
+    /**
+     * A buffer of decompressed bytes.
+     */
+    private static final class Chunk {
+        private final byte[] data;
+        private int length;
+
+        private Chunk(byte[] data) {
+            this.data = data;
+        }
+    }
+
+    /**
+     * Put in the queue after the last buffer, or after an error.
+     */
+    private static final Chunk END = new Chunk(new byte[0]);
+
+    private final BlockingQueue<Chunk> filled;
+    private final BlockingQueue<Chunk> free;
+    private final Thread inflater;
+
+    /**
+     * The error that stopped the inflating thread, thrown as the cause of an
+     * IOException by every read once the buffers before it are read.
+     */
+    private volatile Throwable error;
+
+    private Chunk current;
+    private int position;
+    private boolean finished;
+    private volatile boolean closed;
+
+    /**
+     * Starts decompressing a gzip stream with the default buffers.
+     *
+     * @param compressed The gzip stream, closed once it is read.
+     */
+    public BackgroundInflater(InputStream compressed) {
+        this(compressed, DEFAULT_BUFFER_SIZE, DEFAULT_BUFFER_COUNT);
+    }
+
+    /**
+     * Starts decompressing a gzip stream.
+     *
+     * @param compressed  The gzip stream, closed once it is read.
+     * @param bufferSize  The size of a buffer of decompressed bytes.
+     * @param bufferCount The number of buffers, at least 2.
+     */
+    public BackgroundInflater(InputStream compressed, int bufferSize, int bufferCount) {
+        if (bufferSize < 1 || bufferCount < 2) {
+            throw new IllegalArgumentException("Invalid buffers: " + bufferCount + " of " + bufferSize + " bytes");
+        }
+        // Room for every buffer and the end, so that the end never waits
+        this.filled = new ArrayBlockingQueue<>(bufferCount + 1);
+        this.free = new ArrayBlockingQueue<>(bufferCount);
+        for (int i = 0; i < bufferCount; i++) {
+            free.add(new Chunk(new byte[bufferSize]));
+        }
+
+        this.inflater = new Thread(() -> inflate(compressed), "gzip-inflater");
+        inflater.setDaemon(true);
+        inflater.start();
+    }
+
+    /**
+     * Checks whether a file starts with the gzip magic bytes.
+     *
+     * @param path The path to the file.
+     * @return {@code true} if the file is compressed with gzip.
+     * @throws IOException if the file cannot be read.
+     */
+    public static boolean isGzip(Path path) throws IOException {
+        try (InputStream input = new FileInputStream(path.toFile())) {
+            return isGzip(input);
+        }
+    }
+
+    /**
+     * Opens a file for reading, decompressing it on a background thread if it
+     * is compressed with gzip.
+     *
+     * @param path The path to the file.
+     * @return The bytes of the file, decompressed.
+     * @throws java.io.FileNotFoundException if the file does not exist.
+     * @throws IOException                   if the file cannot be opened.
+     */
+    public static InputStream open(String path) throws IOException {
+        InputStream input = new BufferedInputStream(new FileInputStream(path), INPUT_BUFFER_SIZE);
+        try {
+            input.mark(2);
+            boolean gzip = isGzip(input);
+            input.reset();
+            return gzip ? new BackgroundInflater(input) : input;
+        } catch (IOException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    private static boolean isGzip(InputStream input) throws IOException {
+        return input.read() == GZIP_MAGIC_1 && input.read() == GZIP_MAGIC_2;
+    }
+
+    private void inflate(InputStream compressed) {
+        try (InputStream input = new GZIPInputStream(compressed, INPUT_BUFFER_SIZE)) {
+            while (true) {
+                Chunk chunk = free.take();
+                chunk.length = 0;
+                // Fill the whole buffer, so that the reader gets large blocks
+                while (chunk.length < chunk.data.length) {
+                    int read = input.read(chunk.data, chunk.length, chunk.data.length - chunk.length);
+                    if (read < 0) {
+                        break;
+                    }
+                    chunk.length += read;
+                }
+
+                if (chunk.length == 0) {
+                    break;
+                }
+                filled.put(chunk);
+            }
+        } catch (InterruptedException e) {
+            // The stream was closed, nothing reads the end
+        } catch (Throwable e) {
+            // Whatever stops the thread is thrown by the reader, not lost with it
+            error = e;
+        } finally {
+            // There is always room for the end, so the reader never waits forever
+            filled.offer(END);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextBytes()) {
+            return -1;
+        }
+        return current.data[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!nextBytes()) {
+            return -1;
+        }
+        int count = Math.min(length, current.length - position);
+        System.arraycopy(current.data, position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    /**
+     * Makes sure the current buffer holds unread bytes, taking the next one
+     * from the queue when it does not.
+     *
+     * @return {@code false} at the end of the stream.
+     * @throws IOException if the stream was closed, or could not be
+     *                     decompressed up to its end.
+     */
+    private boolean nextBytes() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        while (!finished && (current == null || position == current.length)) {
+            if (current != null) {
+                free.offer(current);
+                current = null;
+            }
+
+            Chunk next;
+            try {
+                next = filled.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the gzip stream");
+            }
+
+            if (next == END) {
+                finished = true;
+            } else {
+                current = next;
+                position = 0;
+            }
+        }
+
+        // A damaged stream must not look like it ended, however often it is read
+        if (finished && error != null) {
+            throw new IOException("Cannot decompress the gzip stream", error);
+        }
+        return !finished;
+    }
+
+    @Override
+    public int available() {
+        return current == null ? 0 : current.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        inflater.interrupt();
+        filled.clear();
+    }
+}
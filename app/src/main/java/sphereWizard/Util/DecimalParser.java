@@ -0,0 +1,327 @@
+package sphereWizard.Util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses decimal numbers straight from the characters or bytes of a cell,
+ * without creating a String for it. The decimal separator can be a point
+ * ({@code 1000.5}) or a comma ({@code 1000,5}), and the integer part may be
+ * split in groups of three digits ({@code 1.000,5}).
+ *
+ * <p>
+ * The results are correctly rounded, exactly as {@link Double#parseDouble}
+ * would give them. Numbers with up to 15 significant digits and a small
+ * exponent, which covers nearly every value of a flow table, are calculated
+ * with a single exact multiplication or division; any other number is handed
+ * to {@link Double#parseDouble} once its separators are normalised.
+ * </p>
+ *
+ * <p>
+ * A parser holds no mutable state and can be shared between threads.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public final class DecimalParser {
+
+    /**
+     * The parser used by default: a point as decimal separator and no
+     * grouping. It accepts everything {@link Double#parseDouble} accepts.
+     */
+    public static final DecimalParser DEFAULT = new DecimalParser('.');
+
+    /**
+     * Value of {@link #groupingSeparator} when grouping is not allowed.
+     */
+    private static final char NO_GROUPING = 0;
+
+    /**
+     * Largest significand that a double holds exactly (2^53).
+     */
+    private static final long MAX_EXACT_SIGNIFICAND = 1L << 53;
+
+    /**
+     * Most digits kept in the significand, so that it always fits in a long.
+     */
+    private static final int MAX_DIGITS = 19;
+
+    /**
+     * The powers of ten that a double holds exactly.
+     */
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    /**
+     * Reads the character at a position of a cell.
+     */
+    private interface Chars {
+        int charAt(Object source, int index);
+    }
+
+    private static final Chars BYTES = (source, index) -> ((ByteBuffer) source).get(index) & 0xFF;
+    private static final Chars CHARS = (source, index) -> ((CharSequence) source).charAt(index);
+
+    private final char decimalSeparator;
+    private final char groupingSeparator;
+
+    /**
+     * Constructs a parser that does not accept grouping separators.
+     *
+     * @param decimalSeparator The decimal separator, {@code '.'} or
+     *                         {@code ','}.
+     */
+    public DecimalParser(char decimalSeparator) {
+        this(decimalSeparator, NO_GROUPING);
+    }
+
+    /**
+     * Constructs a parser that accepts a grouping separator between every
+     * three digits of the integer part.
+     *
+     * @param decimalSeparator  The decimal separator, {@code '.'} or
+     *                          {@code ','}.
+     * @param groupingSeparator The grouping separator, for example
+     *                          {@code '.'}, {@code ','} or {@code ' '}.
+     * @throws IllegalArgumentException if a separator is a digit, a sign, or
+     *                                  both separators are the same.
+     */
+    public DecimalParser(char decimalSeparator, char groupingSeparator) {
+        if (decimalSeparator != '.' && decimalSeparator != ',') {
+            throw new IllegalArgumentException("The decimal separator must be '.' or ',': '" + decimalSeparator + "'");
+        }
+        if (groupingSeparator != NO_GROUPING && (groupingSeparator == decimalSeparator
+                || Character.isDigit(groupingSeparator) || groupingSeparator == '+' || groupingSeparator == '-'
+                || groupingSeparator == 'e' || groupingSeparator == 'E')) {
+            throw new IllegalArgumentException("Invalid grouping separator: '" + groupingSeparator + "'");
+        }
+        this.decimalSeparator = decimalSeparator;
+        this.groupingSeparator = groupingSeparator;
+    }
+
+    /**
+     * Gets the decimal separator.
+     *
+     * @return The decimal separator.
+     */
+    public char getDecimalSeparator() {
+        return decimalSeparator;
+    }
+
+    /**
+     * Parses a number.
+     *
+     * @param text The text of the number.
+     * @return The number.
+     * @throws NumberFormatException if the text is not a number.
+     */
+    public double parse(CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Parses the number between two positions of a text.
+     *
+     * @param text The text holding the number.
+     * @param from The position of the first character.
+     * @param to   The position after the last character.
+     * @return The number.
+     * @throws NumberFormatException if the characters are not a number.
+     */
+    public double parse(CharSequence text, int from, int to) {
+        return parse(CHARS, text, from, to, true);
+    }
+
+    /**
+     * Parses the number between two positions of a buffer of UTF-8 (or ASCII)
+     * bytes.
+     *
+     * @param buffer The buffer holding the number.
+     * @param from   The position of the first byte.
+     * @param to     The position after the last byte.
+     * @return The number.
+     * @throws NumberFormatException if the bytes are not a number.
+     */
+    public double parse(ByteBuffer buffer, int from, int to) {
+        return parse(BYTES, buffer, from, to, true);
+    }
+
+    /**
+     * Parses a number, returning {@code NaN} instead of throwing when the text
+     * is not a number, so that bad cells cost no exception. Only plain decimal
+     * numbers are accepted, even by the {@link #DEFAULT} parser.
+     *
+     * @param text The text of the number.
+     * @return The number, or {@code NaN}.
+     */
+    public double parseOrNaN(CharSequence text) {
+        return parse(CHARS, text, 0, text.length(), false);
+    }
+
+    /**
+     * Parses the number between two positions of a buffer of UTF-8 (or ASCII)
+     * bytes, like {@link #parseOrNaN(CharSequence)}.
+     *
+     * @param buffer The buffer holding the number.
+     * @param from   The position of the first byte.
+     * @param to     The position after the last byte.
+     * @return The number, or {@code NaN}.
+     */
+    public double parseOrNaN(ByteBuffer buffer, int from, int to) {
+        return parse(BYTES, buffer, from, to, false);
+    }
+
+    private double parse(Chars chars, Object source, int from, int to, boolean strict) {
+        // Leading and trailing whitespace is ignored, like Double.parseDouble does
+        int start = from;
+        int end = to;
+        while (start < end && chars.charAt(source, start) <= ' ') {
+            start++;
+        }
+        while (end > start && chars.charAt(source, end - 1) <= ' ') {
+            end--;
+        }
+
+        int position = start;
+        boolean negative = false;
+        if (position < end && (chars.charAt(source, position) == '-' || chars.charAt(source, position) == '+')) {
+            negative = chars.charAt(source, position) == '-';
+            position++;
+        }
+
+        long significand = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean truncated = false;
+        boolean sawDigit = false;
+        boolean sawDecimal = false;
+        int leadingDigits = 0;
+        int groupDigits = -1;
+
+        for (; position < end; position++) {
+            int c = chars.charAt(source, position);
+            if (c >= '0' && c <= '9') {
+                sawDigit = true;
+                if (groupDigits >= 0 && !sawDecimal) {
+                    groupDigits++;
+                } else if (!sawDecimal) {
+                    leadingDigits++;
+                }
+                if (significand == 0 && c == '0') {
+                    // Leading zeros only move the decimal point
+                    if (sawDecimal) {
+                        exponent--;
+                    }
+                } else if (digits < MAX_DIGITS) {
+                    significand = significand * 10 + (c - '0');
+                    digits++;
+                    if (sawDecimal) {
+                        exponent--;
+                    }
+                } else {
+                    truncated |= c != '0';
+                    if (!sawDecimal) {
+                        exponent++;
+                    }
+                }
+            } else if (c == decimalSeparator && !sawDecimal) {
+                if (groupDigits >= 0 && groupDigits != 3) {
+                    return strict ? invalid(chars, source, from, to) : Double.NaN;
+                }
+                sawDecimal = true;
+            } else if (c == groupingSeparator && groupingSeparator != NO_GROUPING && !sawDecimal && sawDigit
+                    && (groupDigits < 0 ? leadingDigits <= 3 : groupDigits == 3)) {
+                // The first group has one to three digits, leading zeros included
+                groupDigits = 0;
+            } else {
+                break;
+            }
+        }
+
+        if (!sawDigit || (groupDigits >= 0 && !sawDecimal && groupDigits != 3)) {
+            return strict ? invalid(chars, source, from, to) : Double.NaN;
+        }
+
+        if (position < end && (chars.charAt(source, position) == 'e' || chars.charAt(source, position) == 'E')) {
+            position++;
+            boolean negativeExponent = false;
+            if (position < end && (chars.charAt(source, position) == '-' || chars.charAt(source, position) == '+')) {
+                negativeExponent = chars.charAt(source, position) == '-';
+                position++;
+            }
+            int exponentStart = position;
+            int explicitExponent = 0;
+            for (; position < end; position++) {
+                int c = chars.charAt(source, position);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                // Past this the result is 0 or infinite anyway, Double.parseDouble decides
+                if (explicitExponent < 100_000) {
+                    explicitExponent = explicitExponent * 10 + (c - '0');
+                }
+            }
+            if (position == exponentStart) {
+                return strict ? invalid(chars, source, from, to) : Double.NaN;
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        if (position != end) {
+            return strict ? invalid(chars, source, from, to) : Double.NaN;
+        }
+
+        if (significand == 0) {
+            return negative ? -0.0 : 0.0;
+        }
+
+        if (!truncated && significand < MAX_EXACT_SIGNIFICAND && exponent >= -22 && exponent <= 22) {
+            // Both operands are exact, so the single rounding of the operation is
+            // the correct rounding of the number
+            double value = (double) significand;
+            value = exponent >= 0 ? value * POWERS_OF_TEN[exponent] : value / POWERS_OF_TEN[-exponent];
+            return negative ? -value : value;
+        }
+
+        return Double.parseDouble(normalize(chars, source, start, end));
+    }
+
+    /**
+     * Rewrites a valid number with a point as decimal separator and without
+     * grouping separators.
+     */
+    private String normalize(Chars chars, Object source, int from, int to) {
+        StringBuilder result = new StringBuilder(to - from);
+        for (int i = from; i < to; i++) {
+            int c = chars.charAt(source, i);
+            if (c == decimalSeparator) {
+                result.append('.');
+            } else if (c != groupingSeparator || groupingSeparator == NO_GROUPING) {
+                result.append((char) c);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Handles text that is not a plain decimal number. The default parser
+     * leaves it to {@link Double#parseDouble}, so that it accepts the same
+     * texts; any other parser rejects it.
+     */
+    private double invalid(Chars chars, Object source, int from, int to) {
+        String text;
+        if (source instanceof ByteBuffer) {
+            byte[] bytes = new byte[to - from];
+            ((ByteBuffer) source).get(from, bytes);
+            text = new String(bytes, StandardCharsets.UTF_8);
+        } else {
+            text = ((CharSequence) source).subSequence(from, to).toString();
+        }
+
+        if (decimalSeparator == '.' && groupingSeparator == NO_GROUPING) {
+            return Double.parseDouble(text);
+        }
+        throw new NumberFormatException("For input string: \"" + text + "\"");
+    }
+}
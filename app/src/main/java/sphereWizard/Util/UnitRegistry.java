@@ -0,0 +1,629 @@
+package sphereWizard.Util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import sphereWizard.Enums.UnitEnums.Area;
+import sphereWizard.Enums.UnitEnums.Distance;
+import sphereWizard.Enums.UnitEnums.Energy;
+import sphereWizard.Enums.UnitEnums.Mass;
+import sphereWizard.Enums.UnitEnums.Volume;
+import sphereWizard.Exceptions.UnitNotRecognizedException;
+
+/**
+ * The UnitRegistry class knows every unit that can appear in a flow table,
+ * and how to convert it to the standard unit of its dimension (KG, J, M3, M
+ * or M2).
+ *
+ * <p>
+ * Every unit has an id. Its dimension and conversion factor are stored in
+ * arrays indexed by that id, so converting a value is one table access and
+ * one multiplication or division. Unit tokens, and aliases such as
+ * {@code kilogram} or {@code kWh}, are found through a perfect hash table
+ * built when the registry is created: every token has its own slot, so a
+ * lookup hashes the token once and compares it with a single entry. Tokens
+ * are matched without regard to case or surrounding whitespace.
+ * </p>
+ *
+ * <p>
+ * The conversions give exactly the values of the {@link Converter}: units
+ * smaller than the standard unit divide by an exact power of ten instead of
+ * multiplying by its inexact inverse.
+ * </p>
+ *
+ * <p>
+ * {@link #withUnits(Reader)} adds user-defined units, read from a
+ * configuration file with one unit per line:
+ * </p>
+ *
+ * <pre>
+ * # token;unit[;factor]
+ * lb;KG;0.45359237
+ * quilograma;KG
+ * </pre>
+ *
+ * <p>
+ * The unit is any known token, and one {@code token} equals {@code factor}
+ * of it. Without a factor the token is an alias of the unit. User-defined
+ * units have no enum constant, so their values are always stored in the
+ * standard unit.
+ * </p>
+ *
+ * <p>
+ * A registry never changes once built and can be shared between threads.
+ * </p>
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public final class UnitRegistry {
+
+    /**
+     * The dimensions of the units, each with its standard unit.
+     */
+    public enum Dimension {
+        MASS(Mass.KG), ENERGY(Energy.J), VOLUME(Volume.M3), DISTANCE(Distance.M), AREA(Area.M2);
+
+        private final Enum<?> standardUnit;
+
+        Dimension(Enum<?> standardUnit) {
+            this.standardUnit = standardUnit;
+        }
+
+        /**
+         * Gets the unit every value of this dimension is converted to.
+         *
+         * @return The standard unit.
+         */
+        public Enum<?> getStandardUnit() {
+            return standardUnit;
+        }
+    }
+
+    /**
+     * Id returned by {@link #find(CharSequence)} for an unknown token.
+     */
+    public static final int UNKNOWN = -1;
+
+    /**
+     * Longest token that can be registered.
+     */
+    private static final int MAX_TOKEN_LENGTH = 64;
+
+    /**
+     * Number of seeds tried for each table size before the table is doubled.
+     */
+    private static final int SEEDS_PER_SIZE = 256;
+
+    private static final UnitRegistry STANDARD = createStandard();
+
+    // The units, indexed by id
+    private final String[] names;
+    private final Enum<?>[] units;
+    private final Dimension[] dimensions;
+    private final double[] multipliers;
+    private final double[] divisors;
+
+    /**
+     * The id of the first enum constant of every dimension, indexed by the
+     * ordinal of the dimension.
+     */
+    private final int[] enumIds;
+
+    // The perfect hash table from tokens to ids
+    private final int seed;
+    private final int mask;
+    private final String[] slotTokens;
+    private final int[] slotIds;
+
+    private UnitRegistry(Builder builder) {
+        this.names = builder.names.toArray(new String[0]);
+        this.units = builder.units.toArray(new Enum<?>[0]);
+        this.dimensions = builder.dimensions.toArray(new Dimension[0]);
+        this.multipliers = toArray(builder.multipliers);
+        this.divisors = toArray(builder.divisors);
+        this.enumIds = builder.enumIds.clone();
+
+        String[] tokens = builder.tokens.keySet().toArray(new String[0]);
+        int size = Integer.highestOneBit(Math.max(1, tokens.length * 2 - 1)) << 1;
+
+        // Look for a seed that sends every token to its own slot
+        int found = 0;
+        int[] slots = null;
+        while (slots == null) {
+            for (int candidate = 0; candidate < SEEDS_PER_SIZE && slots == null; candidate++) {
+                slots = place(tokens, candidate, size - 1);
+                found = candidate;
+            }
+            if (slots == null) {
+                size *= 2;
+            }
+        }
+
+        this.seed = found;
+        this.mask = size - 1;
+        this.slotTokens = new String[size];
+        this.slotIds = new int[size];
+        Arrays.fill(slotIds, UNKNOWN);
+        for (int i = 0; i < tokens.length; i++) {
+            slotTokens[slots[i]] = tokens[i];
+            slotIds[slots[i]] = builder.tokens.get(tokens[i]);
+        }
+    }
+
+    /**
+     * Gets the registry of the units of the {@code UnitEnums}, with common
+     * aliases.
+     *
+     * @return The standard registry.
+     */
+    public static UnitRegistry standard() {
+        return STANDARD;
+    }
+
+    /**
+     * Creates a registry with the units of this one and the user-defined units
+     * of a configuration file.
+     *
+     * @param config The path to the configuration file, in UTF-8.
+     * @return The new registry.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if a line is malformed or defines a
+     *                                  token that already exists.
+     */
+    public UnitRegistry withUnits(Path config) throws IOException {
+        try (Reader reader = Files.newBufferedReader(config, StandardCharsets.UTF_8)) {
+            return withUnits(reader);
+        }
+    }
+
+    /**
+     * Creates a registry with the units of this one and the user-defined units
+     * read from a configuration.
+     *
+     * @param config The configuration, with one {@code token;unit[;factor]}
+     *               per line. Blank lines and lines starting with {@code #}
+     *               are ignored.
+     * @return The new registry.
+     * @throws IOException              if the configuration cannot be read.
+     * @throws IllegalArgumentException if a line is malformed or defines a
+     *                                  token that already exists.
+     */
+    public UnitRegistry withUnits(Reader config) throws IOException {
+        Builder builder = new Builder(this);
+        BufferedReader reader = new BufferedReader(config);
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] data = line.split(";");
+            if (data.length < 2 || data.length > 3) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": expected token;unit[;factor]");
+            }
+
+            try {
+                // A unit may be defined through one defined earlier in the configuration
+                int target = builder.find(data[1]);
+                if (target == UNKNOWN) {
+                    throw new IllegalArgumentException("unknown unit " + data[1].trim());
+                }
+
+                if (data.length == 2) {
+                    builder.alias(data[0], target);
+                } else {
+                    double factor = Double.parseDouble(data[2].trim());
+                    if (!(factor > 0) || Double.isInfinite(factor)) {
+                        throw new IllegalArgumentException("the factor must be positive");
+                    }
+                    builder.add(data[0].trim(), null, builder.dimensions.get(target),
+                            factor * builder.multipliers.get(target), builder.divisors.get(target));
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return new UnitRegistry(builder);
+    }
+
+    /**
+     * Finds the id of a unit token.
+     *
+     * @param token The token, in any case.
+     * @return The id of the unit, or {@link #UNKNOWN}.
+     */
+    public int find(CharSequence token) {
+        int from = 0;
+        int to = token.length();
+        while (from < to && token.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && token.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        if (to - from > MAX_TOKEN_LENGTH) {
+            return UNKNOWN;
+        }
+
+        int slot = hash(token, from, to, seed) & mask;
+        String candidate = slotTokens[slot];
+        if (candidate == null || candidate.length() != to - from) {
+            return UNKNOWN;
+        }
+        for (int i = 0; i < candidate.length(); i++) {
+            if (candidate.charAt(i) != lowerCase(token.charAt(from + i))) {
+                return UNKNOWN;
+            }
+        }
+        return slotIds[slot];
+    }
+
+    /**
+     * Gets the id of a unit token.
+     *
+     * @param token The token, in any case.
+     * @return The id of the unit.
+     * @throws UnitNotRecognizedException if the token is not registered.
+     */
+    public int lookup(CharSequence token) throws UnitNotRecognizedException {
+        int id = find(token);
+        if (id == UNKNOWN) {
+            throw new UnitNotRecognizedException(
+                    "value " + token + "is not registered; please refer to the user manual.");
+        }
+        return id;
+    }
+
+    /**
+     * Gets the id of a unit of the {@code UnitEnums}.
+     *
+     * @param unit The unit.
+     * @return The id of the unit, or {@link #UNKNOWN} if it is not an enum of
+     *         a known dimension.
+     */
+    public int idOf(Enum<?> unit) {
+        if (unit == null) {
+            return UNKNOWN;
+        }
+        Class<?> type = unit.getDeclaringClass();
+        for (Dimension dimension : Dimension.values()) {
+            if (dimension.standardUnit.getDeclaringClass() == type) {
+                return enumIds[dimension.ordinal()] + unit.ordinal();
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Gets the number of units in the registry. Ids go from 0 to
+     * {@code size() - 1}.
+     *
+     * @return The number of units.
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Gets the token a unit was registered with.
+     *
+     * @param id The id of the unit.
+     * @return The token of the unit.
+     */
+    public String getName(int id) {
+        return names[id];
+    }
+
+    /**
+     * Gets the enum constant of a unit.
+     *
+     * @param id The id of the unit.
+     * @return The enum constant, or {@code null} for a user-defined unit.
+     */
+    public Enum<?> getUnit(int id) {
+        return units[id];
+    }
+
+    /**
+     * Gets the dimension of a unit.
+     *
+     * @param id The id of the unit.
+     * @return The dimension.
+     */
+    public Dimension getDimension(int id) {
+        return dimensions[id];
+    }
+
+    /**
+     * Gets the standard unit values of a unit are converted to.
+     *
+     * @param id The id of the unit.
+     * @return The standard unit of its dimension.
+     */
+    public Enum<?> getStandardUnit(int id) {
+        return dimensions[id].standardUnit;
+    }
+
+    /**
+     * Gets the factor that converts a unit to the standard unit of its
+     * dimension, for example 0.001 for grams.
+     *
+     * @param id The id of the unit.
+     * @return The factor.
+     */
+    public double getFactor(int id) {
+        return multipliers[id] / divisors[id];
+    }
+
+    /**
+     * Converts a value to the standard unit of its dimension.
+     *
+     * @param id    The id of the unit of the value.
+     * @param value The value.
+     * @return The value in the standard unit.
+     */
+    public double toStandard(int id, double value) {
+        // For the units of the UnitEnums one of the two is 1, so the value is
+        // rounded once, like the Converter does
+        return value * multipliers[id] / divisors[id];
+    }
+
+    /**
+     * Converts a column of values to the standard unit of their dimension, in
+     * place. Every value is converted exactly like
+     * {@link #toStandard(int, double)} converts it.
+     *
+     * @param values  The values.
+     * @param unitIds The id of the unit of every value.
+     * @throws IllegalArgumentException if the arrays differ in length or an id
+     *                                  is not a unit of this registry.
+     */
+    public void toStandard(double[] values, int[] unitIds) {
+        if (values.length != unitIds.length) {
+            throw new IllegalArgumentException(
+                    "Expected " + values.length + " unit ids, found " + unitIds.length);
+        }
+        toStandard(values, unitIds, 0, values.length);
+    }
+
+    /**
+     * Converts the values between two positions of a column to the standard
+     * unit of their dimension, in place.
+     *
+     * <p>
+     * The ids are checked first, so the conversion itself is a loop without
+     * branches that looks up the factors of every value by its id. Values in
+     * the standard unit are multiplied and divided by 1, which leaves them
+     * unchanged.
+     * </p>
+     *
+     * @param values  The values.
+     * @param unitIds The id of the unit of every value.
+     * @param from    The position of the first value.
+     * @param to      The position after the last value.
+     * @throws IllegalArgumentException if an id is not a unit of this
+     *                                  registry.
+     */
+    public void toStandard(double[] values, int[] unitIds, int from, int to) {
+        Objects.checkFromToIndex(from, to, Math.min(values.length, unitIds.length));
+
+        for (int i = from; i < to; i++) {
+            int id = unitIds[i];
+            if (id < 0 || id >= names.length) {
+                throw new IllegalArgumentException("Unknown unit id " + id + " at position " + i);
+            }
+        }
+
+        for (int i = from; i < to; i++) {
+            int id = unitIds[i];
+            values[i] = values[i] * multipliers[id] / divisors[id];
+        }
+    }
+
+    /**
+     * Gets a copy of the multipliers of every unit, indexed by id. Together
+     * with {@link #getDivisors()}, {@code value * multiplier / divisor}
+     * converts a value to the standard unit.
+     *
+     * @return The multipliers.
+     */
+    public double[] getMultipliers() {
+        return multipliers.clone();
+    }
+
+    /**
+     * Gets a copy of the divisors of every unit, indexed by id.
+     *
+     * @return The divisors.
+     * @see #getMultipliers()
+     */
+    public double[] getDivisors() {
+        return divisors.clone();
+    }
+
+    private static UnitRegistry createStandard() {
+        Builder builder = new Builder();
+
+        builder.addEnum(Mass.KG, 1, 1, "kilogram", "kilograms", "kgs");
+        builder.addEnum(Mass.T, 1000, 1, "tonne", "tonnes");
+        builder.addEnum(Mass.G, 1, 1000, "gram", "grams");
+        builder.addEnum(Mass.MG, 1, 1000000, "milligram", "milligrams");
+
+        builder.addEnum(Energy.J, 1, 1, "joule", "joules");
+        builder.addEnum(Energy.MJ, 1000000, 1, "megajoule", "megajoules");
+        builder.addEnum(Energy.KWH, 3.6 * 1000000, 1, "kilowatt-hour", "kilowatt-hours");
+
+        builder.addEnum(Volume.M3, 1, 1, "cubic meter", "cubic meters", "m^3");
+        builder.addEnum(Volume.DM3, 1, 1000, "dm^3");
+        builder.addEnum(Volume.L, 1, 1000, "litre", "litres", "liter", "liters");
+        builder.addEnum(Volume.CM3, 1, 1000000, "cm^3");
+
+        builder.addEnum(Distance.M, 1, 1, "meter", "meters", "metre", "metres");
+        builder.addEnum(Distance.CM, 1, 100, "centimeter", "centimeters", "centimetre", "centimetres");
+        builder.addEnum(Distance.MM, 1, 1000, "millimeter", "millimeters", "millimetre", "millimetres");
+        builder.addEnum(Distance.DM, 1, 10);
+        builder.addEnum(Distance.DAM, 10, 1);
+        builder.addEnum(Distance.HM, 100, 1);
+        builder.addEnum(Distance.KM, 1000, 1, "kilometer", "kilometers", "kilometre", "kilometres");
+
+        builder.addEnum(Area.M2, 1, 1, "m^2");
+        builder.addEnum(Area.DM2, 1, 100, "dm^2");
+        builder.addEnum(Area.DAM2, 100, 1);
+        builder.addEnum(Area.HM2, 10000, 1, "hectare", "hectares", "ha");
+        builder.addEnum(Area.CM2, 1, 10000, "cm^2");
+        builder.addEnum(Area.KM2, 1000000, 1, "km^2");
+        builder.addEnum(Area.MM2, 1, 1000000, "mm^2");
+
+        return new UnitRegistry(builder);
+    }
+
+    /**
+     * Assigns a slot to every token for a seed.
+     *
+     * @return The slot of every token, or {@code null} if two tokens collide.
+     */
+    private static int[] place(String[] tokens, int seed, int mask) {
+        int[] slots = new int[tokens.length];
+        boolean[] used = new boolean[mask + 1];
+        for (int i = 0; i < tokens.length; i++) {
+            int slot = hash(tokens[i], 0, tokens[i].length(), seed) & mask;
+            if (used[slot]) {
+                return null;
+            }
+            used[slot] = true;
+            slots[i] = slot;
+        }
+        return slots;
+    }
+
+    /**
+     * Hashes a token ignoring the case of its letters (FNV-1a with a seed).
+     */
+    private static int hash(CharSequence token, int from, int to, int seed) {
+        int hash = 0x811C9DC5 ^ (seed * 0x9E3779B9);
+        for (int i = from; i < to; i++) {
+            hash = (hash ^ lowerCase(token.charAt(i))) * 0x01000193;
+        }
+        return hash ^ (hash >>> 15);
+    }
+
+    private static char lowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static String normalize(String token) {
+        // Folded like find does, so that every stored token can be found
+        StringBuilder folded = new StringBuilder(token.trim());
+        for (int i = 0; i < folded.length(); i++) {
+            folded.setCharAt(i, lowerCase(folded.charAt(i)));
+        }
+        String normalized = folded.toString();
+        if (normalized.isEmpty() || normalized.length() > MAX_TOKEN_LENGTH) {
+            throw new IllegalArgumentException("Invalid unit token: '" + token + "'");
+        }
+        return normalized;
+    }
+
+    private static double[] toArray(List<Double> values) {
+        double[] result = new double[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Collects the units and tokens of a registry.
+     */
+    private static final class Builder {
+        private final List<String> names = new ArrayList<>();
+        private final List<Enum<?>> units = new ArrayList<>();
+        private final List<Dimension> dimensions = new ArrayList<>();
+        private final List<Double> multipliers = new ArrayList<>();
+        private final List<Double> divisors = new ArrayList<>();
+        private final int[] enumIds = new int[Dimension.values().length];
+        private final Map<String, Integer> tokens = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        private Builder(UnitRegistry registry) {
+            names.addAll(Arrays.asList(registry.names));
+            units.addAll(Arrays.asList(registry.units));
+            dimensions.addAll(Arrays.asList(registry.dimensions));
+            for (int id = 0; id < registry.names.length; id++) {
+                multipliers.add(registry.multipliers[id]);
+                divisors.add(registry.divisors[id]);
+            }
+            System.arraycopy(registry.enumIds, 0, enumIds, 0, enumIds.length);
+            for (int slot = 0; slot < registry.slotTokens.length; slot++) {
+                if (registry.slotTokens[slot] != null) {
+                    tokens.put(registry.slotTokens[slot], registry.slotIds[slot]);
+                }
+            }
+        }
+
+        /**
+         * Adds an enum constant, which must come right after the previous
+         * constant of its enum so that its id can be found from its ordinal.
+         */
+        private void addEnum(Enum<?> unit, double multiplier, double divisor, String... aliases) {
+            Dimension dimension = null;
+            for (Dimension candidate : Dimension.values()) {
+                if (candidate.standardUnit.getDeclaringClass() == unit.getDeclaringClass()) {
+                    dimension = candidate;
+                }
+            }
+            if (unit.ordinal() == 0) {
+                enumIds[dimension.ordinal()] = names.size();
+            }
+
+            int id = add(unit.name(), unit, dimension, multiplier, divisor);
+            if (id != enumIds[dimension.ordinal()] + unit.ordinal()) {
+                throw new IllegalStateException("Units must be added in the order of their enum: " + unit);
+            }
+            for (String alias : aliases) {
+                alias(alias, id);
+            }
+        }
+
+        private int add(String name, Enum<?> unit, Dimension dimension, double multiplier, double divisor) {
+            int id = names.size();
+            alias(name, id);
+            names.add(name);
+            units.add(unit);
+            dimensions.add(dimension);
+            multipliers.add(multiplier);
+            divisors.add(divisor);
+            return id;
+        }
+
+        private int find(String token) {
+            Integer id = tokens.get(normalize(token));
+            return id == null ? UNKNOWN : id;
+        }
+
+        private void alias(String token, int id) {
+            String normalized = normalize(token);
+            if (tokens.containsKey(normalized)) {
+                throw new IllegalArgumentException("Unit token already registered: " + token.trim());
+            }
+            tokens.put(normalized, id);
+        }
+    }
+}
@@ -1,18 +1,30 @@
 package sphereWizard.Calculator;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import sphereWizard.Enums.OutputFlowTypes;
+import sphereWizard.Enums.UnitEnums.Mass;
 import sphereWizard.Exceptions.EmptyListException;
 import sphereWizard.Exceptions.FlowOutputNotRecognizedException;
 import sphereWizard.Exceptions.UnitNotRecognizedException;
+import sphereWizard.FlowProcessStructure.OutputFlow;
 import sphereWizard.Interfaces.sendFileData;
 import sphereWizard.Interfaces.sendModeledData;
+import sphereWizard.ProductSystem.FlowTotals;
 import sphereWizard.ProductSystem.ProductSystem;
 import sphereWizard.ProductSystem.ProductSystemData;
 
@@ -176,6 +188,194 @@ public class CircularityCalculatorTests {
         assertEquals(circularityIndex, expectedResult);
     }
 
+    /**
+     * Test the calculation of Circularity Index (MCIp) from totals calculated
+     * beforehand by the product system.
+     * <p>
+     * This test verifies that reusing the totals from calculateAllMethods gives
+     * exactly the same result as calculating everything again.
+     * </p>
+     */
+    @Test
+    public void test019_test002_CalculateCircularityIndexFromTotals() {
+        CircularityCalculator calculator = new CircularityCalculator(productSystem);
+
+        productSystem.getProductSystem().calculateAllMethods();
+        double circularityIndex = calculator.calculateCircularityIndex(productSystem.getProductSystem().getFlowTotals());
+
+        assertEquals(0.9039736642373439, circularityIndex);
+        assertEquals(0.9602633576265607, calculator.getLinearFlowIndex());
+    }
+
+    /**
+     * Test the calculation of Circularity Index (MCIp) with the flow totals
+     * added up on a fork-join pool.
+     * <p>
+     * This test verifies that the result does not change with the number of
+     * threads and stays equal to the sequential result.
+     * </p>
+     */
+    @Test
+    public void test019_test003_CalculateCircularityIndexInParallel() {
+        CircularityCalculator calculator = new CircularityCalculator(productSystem);
+        ProductSystem system = productSystem.getProductSystem();
+
+        ForkJoinPool singleThread = new ForkJoinPool(1);
+        ForkJoinPool fourThreads = new ForkJoinPool(4);
+        try {
+            system.setAggregationPool(singleThread);
+            double singleThreadResult = calculator.calculateCircularityIndex();
+
+            system.setAggregationPool(fourThreads);
+            double fourThreadsResult = calculator.calculateCircularityIndex();
+
+            assertEquals(singleThreadResult, fourThreadsResult);
+            assertEquals(0.9039736642373439, fourThreadsResult, 1e-12);
+        } finally {
+            system.setAggregationPool(null);
+            singleThread.shutdown();
+            fourThreads.shutdown();
+        }
+    }
+
+    /**
+     * Test the calculation of the circularity with the stateless engine.
+     * <p>
+     * This test verifies that the engine gives exactly the same values as the
+     * calculator and the product system for the same data.
+     * </p>
+     */
+    @Test
+    public void test039_test001_EngineMatchesCalculator() {
+        CircularityCalculator calculator = new CircularityCalculator(productSystem);
+        double circularityIndex = calculator.calculateCircularityIndex();
+        ProductSystem system = productSystem.getProductSystem();
+        system.calculateAllMethods();
+
+        CircularityResult result = new CircularityEngine().calculate(productSystemData, 100, 100);
+
+        assertEquals(circularityIndex, result.circularityIndex());
+        assertEquals(calculator.getLinearFlowIndex(), result.linearFlowIndex());
+        assertEquals(calculator.getUtilityFactor(), result.utilityFactor());
+        assertEquals(calculator.getX(), result.x());
+        assertEquals(system.getMass(), result.mass());
+        assertEquals(system.getWasteEliminated(), result.wasteEliminated());
+        assertEquals(system.getRecycledInput(), result.recycledInput());
+        assertEquals(100, result.productLifetime());
+        assertEquals(100, result.productUtility());
+    }
+
+    /**
+     * Test the calculation of the circularity from many threads sharing one
+     * engine and one product system.
+     * <p>
+     * This test verifies that every thread gets the same result.
+     * </p>
+     */
+    @Test
+    public void test039_test002_EngineIsSharedBetweenThreads() throws Exception {
+        CircularityEngine engine = new CircularityEngine();
+        CircularityResult expected = engine.calculate(productSystemData, 100, 100);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<CircularityResult>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                results.add(executor.submit(() -> engine.calculate(productSystemData, 100, 100)));
+            }
+            for (Future<CircularityResult> result : results) {
+                assertEquals(expected, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(0.9039736642373439, expected.circularityIndex());
+    }
+
+    /**
+     * Test the evaluation of a grid of product lifetimes and utilities.
+     * <p>
+     * This test verifies that every cell of the grid, sequential or parallel,
+     * matches a full calculation by the engine for the same L and U.
+     * </p>
+     */
+    @Test
+    public void test021_test001_SweepMatchesEngine() {
+        int[] lifetimes = { 0, 1, 5, 12, 100, 365 };
+        int[] utilities = { 0, 1, 10, 52, 100 };
+
+        ScenarioSweep sweep = ScenarioSweep.of(productSystemData);
+        double[][] grid = sweep.evaluate(lifetimes, utilities);
+
+        CircularityEngine engine = new CircularityEngine();
+        for (int i = 0; i < lifetimes.length; i++) {
+            for (int j = 0; j < utilities.length; j++) {
+                CircularityResult result = engine.calculate(productSystemData, lifetimes[i], utilities[j]);
+                assertEquals(result.circularityIndex(), grid[i][j]);
+                assertEquals(result.circularityIndex(), sweep.circularityIndex(lifetimes[i], utilities[j]));
+            }
+        }
+        assertEquals(0.9039736642373439, sweep.circularityIndex(100, 100));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            double[][] parallelGrid = sweep.evaluate(lifetimes, utilities, pool);
+            for (int i = 0; i < lifetimes.length; i++) {
+                for (int j = 0; j < utilities.length; j++) {
+                    assertEquals(grid[i][j], parallelGrid[i][j]);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Test the evaluation of a grid written as a table.
+     * <p>
+     * This test verifies that the table has a header row with the utilities and
+     * one row per lifetime.
+     * </p>
+     */
+    @Test
+    public void test021_test002_SweepWritesCsv() throws IOException {
+        ScenarioSweep sweep = ScenarioSweep.of(productSystemData);
+        StringWriter writer = new StringWriter();
+
+        sweep.writeCsv(new int[] { 100, 0 }, new int[] { 10, 100 }, writer, ";");
+
+        String[] lines = writer.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("L\\U;10;100", lines[0]);
+        assertEquals("100;" + sweep.circularityIndex(100, 10) + ";0.9039736642373439", lines[1]);
+        assertEquals("0;1.0;1.0", lines[2]);
+    }
+
+    /**
+     * Test that the Circularity Index (MCIp) is only calculated again when
+     * something it depends on changes.
+     * <p>
+     * This test verifies that changing the lifetime gives a new result, and
+     * changing it back gives the original one.
+     * </p>
+     */
+    @Test
+    public void test040_CircularityIndexIsCached() throws EmptyListException {
+        ProductSystem system = new ProductSystem(productSystemData, 100, 100);
+        CircularityCalculator calculator = new CircularityCalculator(system);
+
+        double first = calculator.calculateCircularityIndex();
+        assertEquals(first, calculator.calculateCircularityIndex());
+        assertEquals(0.9039736642373439, first);
+
+        system.setProductLifetime(50);
+        double changed = calculator.calculateCircularityIndex();
+        assertEquals(new CircularityEngine().calculate(productSystemData, 50, 100).circularityIndex(), changed);
+
+        system.setProductLifetime(100);
+        assertEquals(first, calculator.calculateCircularityIndex());
+    }
+
     /**
      * Test005: Test the calculation of Total Circularity Index (MCItotal) using the
      * calculateCircularityIndexTotal method.
@@ -229,4 +429,30 @@ public class CircularityCalculatorTests {
         // Assert that the retrieved ProductSystem matches the one that was set
         assertEquals(newProductSystem, retrievedProductSystem);
     }
-}
\ No newline at end of file
+
+    /**
+     * Test that the Circularity Index (MCIp) is calculated again when a flow
+     * is edited in place, without going through the product system.
+     */
+    @Test
+    public void test037_test001_CircularityIndexFollowsFlowEdits() throws Exception {
+        ProductSystemData data = new ProductSystemData();
+        data.readCsv("src/test/java/sphereWizard/Calculator/testEXAMPLECOMPLETESUPPLYCHAIN.csv", ";");
+        ProductSystem system = new ProductSystem(data, 100, 100);
+        CircularityCalculator calculator = new CircularityCalculator(system);
+        double first = calculator.calculateCircularityIndex();
+
+        OutputFlow flow = data.getProcesses().get(0).getOutputFlows().get(0);
+        flow.setValue(flow.getValue() * 3);
+        double edited = calculator.calculateCircularityIndex();
+        assertNotEquals(first, edited);
+        assertEquals(new CircularityEngine().calculate(data, 100, 100).circularityIndex(), edited);
+        assertEquals(FlowTotals.of(data.getProcesses()), system.calculateFlowTotals());
+
+        data.getProcesses().get(1).getOutputFlows().add(
+                new OutputFlow(OutputFlowTypes.RECYCLED_MATERIAL, "Circularidade", 500.0, Mass.KG));
+        double added = calculator.calculateCircularityIndex();
+        assertNotEquals(edited, added);
+        assertEquals(new CircularityEngine().calculate(data, 100, 100).circularityIndex(), added);
+    }
+}
@@ -0,0 +1,127 @@
+package sphereWizard.Calculator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import sphereWizard.Exceptions.FlowOutputNotRecognizedException;
+import sphereWizard.Exceptions.UnitNotRecognizedException;
+import sphereWizard.FlowProcessStructure.Process;
+import sphereWizard.ProductSystem.ProductSystemData;
+
+/**
+ * Unit tests for the {@link MonteCarloSimulation} class.
+ *
+ * These tests check that the simulation agrees with the point calculation
+ * when there is no uncertainty, that a run does not depend on the number of
+ * threads and that the statistics are consistent.
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public class MonteCarloSimulationTest {
+
+    private static ProductSystemData productSystemData;
+
+    @BeforeAll
+    public static void init() throws UnitNotRecognizedException, FlowOutputNotRecognizedException, IOException {
+        productSystemData = new ProductSystemData();
+        productSystemData.readCsv("src/test/java/sphereWizard/Calculator/testEXAMPLECOMPLETESUPPLYCHAIN.csv", ";");
+    }
+
+    /**
+     * Test that flows without uncertainty give the point value of the index.
+     */
+    @Test
+    public void test001WithoutUncertaintyGivesPointValue() {
+        MonteCarloSimulation simulation = new MonteCarloSimulation(productSystemData, 100, 100);
+        simulation.setDefaultDistribution(FlowDistribution.uniform(1, 1));
+
+        MonteCarloResult result = simulation.run(1000, 42);
+
+        assertEquals(1000, result.getSampleCount());
+        assertEquals(0.9039736642373439, result.getMin());
+        assertEquals(0.9039736642373439, result.getMax());
+        assertEquals(0.9039736642373439, result.getMean(), 1e-15);
+        assertEquals(0.0, result.getVariance(), 1e-30);
+    }
+
+    /**
+     * Test that a run gives the same samples on one thread and on a pool.
+     */
+    @Test
+    public void test002SameSeedGivesSameResult() {
+        MonteCarloSimulation simulation = new MonteCarloSimulation(productSystemData, 100, 100);
+        simulation.setDefaultDistribution(FlowDistribution.lognormal(0.2));
+        Process firstProcess = productSystemData.getProcesses().get(0);
+        simulation.setCategoryDistribution(firstProcess.getCategory(), FlowDistribution.triangular(0.5, 1, 1.2));
+        simulation.setFlowDistribution(firstProcess, 0, FlowDistribution.uniform(0.8, 1.2));
+
+        int samples = 3 * MonteCarloSimulation.CHUNK_SIZE + 17;
+        MonteCarloResult sequential = simulation.run(samples, 7);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            MonteCarloResult parallel = simulation.run(samples, 7, pool);
+
+            assertEquals(sequential.getMean(), parallel.getMean());
+            assertEquals(sequential.getVariance(), parallel.getVariance());
+            for (int p = 0; p <= 100; p += 5) {
+                assertEquals(sequential.getPercentile(p), parallel.getPercentile(p));
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertNotEquals(sequential.getMean(), simulation.run(samples, 8).getMean());
+    }
+
+    /**
+     * Test that the statistics of the samples are consistent with each other.
+     */
+    @Test
+    public void test003StatisticsAreConsistent() {
+        MonteCarloSimulation simulation = new MonteCarloSimulation(productSystemData, 100, 100);
+        simulation.setDefaultDistribution(FlowDistribution.uniform(0.5, 1.5));
+
+        MonteCarloResult result = simulation.run(20000, 1);
+
+        assertTrue(result.getVariance() > 0);
+        assertTrue(result.getMin() <= result.getPercentile(5));
+        assertTrue(result.getPercentile(5) <= result.getPercentile(50));
+        assertTrue(result.getPercentile(50) <= result.getPercentile(95));
+        assertTrue(result.getPercentile(95) <= result.getMax());
+        assertTrue(result.getMean() > result.getMin() && result.getMean() < result.getMax());
+        assertEquals(result.getMin(), result.getPercentile(0));
+        assertEquals(result.getMax(), result.getPercentile(100));
+        assertThrows(IllegalArgumentException.class, () -> result.getPercentile(101));
+    }
+
+    /**
+     * Test that the distributions stay within their bounds.
+     */
+    @Test
+    public void test004DistributionsStayWithinBounds() {
+        SplittableRandom random = new SplittableRandom(3);
+        FlowDistribution uniform = FlowDistribution.uniform(0.9, 1.1);
+        FlowDistribution triangular = FlowDistribution.triangular(0.5, 0.8, 1.0);
+        FlowDistribution lognormal = FlowDistribution.lognormal(0.3);
+
+        for (int i = 0; i < 10000; i++) {
+            double u = uniform.sample(10, random);
+            double t = triangular.sample(10, random);
+            assertTrue(u >= 9 && u <= 11);
+            assertTrue(t >= 5 && t <= 10);
+            assertTrue(lognormal.sample(10, random) > 0);
+        }
+        assertThrows(IllegalArgumentException.class, () -> FlowDistribution.triangular(1, 0.5, 2));
+    }
+}
@@ -0,0 +1,104 @@
+package sphereWizard.Calculator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import sphereWizard.Enums.OutputFlowTypes;
+import sphereWizard.Enums.UnitEnums.Mass;
+import sphereWizard.Exceptions.EmptyListException;
+import sphereWizard.FlowProcessStructure.InputFlow;
+import sphereWizard.FlowProcessStructure.OutputFlow;
+import sphereWizard.FlowProcessStructure.Process;
+import sphereWizard.ProductSystem.ProductSystem;
+import sphereWizard.ProductSystem.ProductSystemData;
+
+/**
+ * Unit tests for the {@link PortfolioCalculator} class.
+ *
+ * These tests check the mass-weighted Total Circularity Index (MCItotal) and
+ * that every product is reported once.
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public class PortfolioCalculatorTest {
+
+    private static ProductSystem createProductSystem(double virgin, double recycled, int lifetime)
+            throws EmptyListException {
+        List<OutputFlow> outputFlows = new ArrayList<>();
+        outputFlows.add(new OutputFlow(OutputFlowTypes.VIRGIN_MATERIAL, "Circularidade", virgin, Mass.KG));
+        outputFlows.add(new OutputFlow(OutputFlowTypes.RECYCLED_MATERIAL, "Circularidade", recycled, Mass.KG));
+        List<InputFlow> inputFlows = new ArrayList<>();
+
+        ArrayList<Process> processes = new ArrayList<>();
+        processes.add(new Process("Producao", "Categoria", inputFlows, outputFlows));
+        return new ProductSystem(new ProductSystemData(processes), lifetime, 10);
+    }
+
+    /**
+     * Test that MCItotal is the mean of MCIp weighted by mass.
+     */
+    @Test
+    public void test001CircularityIndexTotalIsMassWeighted() throws EmptyListException {
+        List<ProductSystem> portfolio = new ArrayList<>();
+        portfolio.add(createProductSystem(10, 2, 5));
+        portfolio.add(createProductSystem(1, 8, 20));
+        portfolio.add(createProductSystem(4, 4, 1));
+
+        CircularityEngine engine = new CircularityEngine();
+        double weightedIndex = 0.0;
+        double mass = 0.0;
+        for (ProductSystem productSystem : portfolio) {
+            CircularityResult result = engine.calculate(productSystem.getProductSystemData(),
+                    productSystem.getProductLifetime(), productSystem.getProductUtility());
+            weightedIndex += result.circularityIndex() * result.mass();
+            mass += result.mass();
+        }
+
+        PortfolioResult result = new PortfolioCalculator().calculate(portfolio);
+
+        assertEquals(3, result.results().size());
+        assertEquals(mass, result.mass());
+        assertEquals(weightedIndex / mass, result.circularityIndexTotal());
+        assertEquals(0.0, new PortfolioCalculator().calculate(new ArrayList<>()).circularityIndexTotal());
+    }
+
+    /**
+     * Test that every product is reported once, with the result kept in the
+     * portfolio result, and that the pool does not change the result.
+     */
+    @Test
+    public void test002EveryProductIsReportedOnce() throws EmptyListException {
+        List<ProductSystem> portfolio = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            portfolio.add(createProductSystem(1 + i % 7, i % 5, 1 + i % 11));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            PortfolioEntry[] reported = new PortfolioEntry[portfolio.size()];
+            List<PortfolioEntry> entries = new ArrayList<>();
+            PortfolioResult result = new PortfolioCalculator(pool).calculate(portfolio, entries::add);
+
+            assertEquals(portfolio.size(), entries.size());
+            for (PortfolioEntry entry : entries) {
+                assertTrue(reported[entry.index()] == null);
+                reported[entry.index()] = entry;
+                assertSame(portfolio.get(entry.index()), entry.productSystem());
+                assertSame(result.results().get(entry.index()), entry.result());
+            }
+
+            PortfolioResult common = new PortfolioCalculator().calculate(portfolio);
+            assertEquals(common.circularityIndexTotal(), result.circularityIndexTotal());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
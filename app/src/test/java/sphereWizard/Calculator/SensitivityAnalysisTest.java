@@ -0,0 +1,96 @@
+package sphereWizard.Calculator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import sphereWizard.Enums.OutputFlowTypes;
+import sphereWizard.Enums.UnitEnums.Energy;
+import sphereWizard.Enums.UnitEnums.Mass;
+import sphereWizard.FlowProcessStructure.InputFlow;
+import sphereWizard.FlowProcessStructure.OutputFlow;
+import sphereWizard.FlowProcessStructure.Process;
+import sphereWizard.ProductSystem.ProductSystemData;
+
+/**
+ * Unit tests for the {@link SensitivityAnalysis} class.
+ *
+ * These tests compare the analytic derivatives with finite differences of the
+ * Circularity Index, and check the ranking of the most influential flows.
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public class SensitivityAnalysisTest {
+
+    private static ProductSystemData createProductSystemData() {
+        ArrayList<Process> processes = new ArrayList<>();
+        processes.add(createProcess("Producao", new OutputFlow(OutputFlowTypes.VIRGIN_MATERIAL, "Circularidade", 12.0,
+                Mass.KG), new OutputFlow(OutputFlowTypes.RECYCLED_MATERIAL, "Circularidade", 3.0, Mass.KG)));
+        processes.add(createProcess("Transporte", new OutputFlow(OutputFlowTypes.RECOVERED_RECYCLED_MATERIAL,
+                "Circularidade", 2.0, Mass.KG), new OutputFlow(OutputFlowTypes.MAIN_MATERIALS_PRODUCTION_ENERGY,
+                        "Circularidade", 50.0, Energy.MJ)));
+        processes.add(createProcess("Venda", new OutputFlow(OutputFlowTypes.VIRGIN_MATERIAL, "Circularidade", 0.5,
+                Mass.KG)));
+        return new ProductSystemData(processes);
+    }
+
+    private static Process createProcess(String name, OutputFlow... outputFlows) {
+        List<InputFlow> inputFlows = new ArrayList<>();
+        return new Process(name, "Categoria", inputFlows, new ArrayList<>(List.of(outputFlows)));
+    }
+
+    /**
+     * Test that the derivative of every flow matches a central finite difference.
+     */
+    @Test
+    public void test001DerivativesMatchFiniteDifferences() {
+        ProductSystemData data = createProductSystemData();
+        SensitivityAnalysis analysis = new SensitivityAnalysis(data, 5, 10);
+        CircularityEngine engine = new CircularityEngine();
+
+        for (Process process : data.getProcesses()) {
+            for (OutputFlow outputFlow : process.getOutputFlows()) {
+                double value = outputFlow.getValue();
+                double step = 1e-4;
+
+                outputFlow.setValue(value + step);
+                double above = engine.calculate(data, 5, 10).circularityIndex();
+                outputFlow.setValue(value - step);
+                double below = engine.calculate(data, 5, 10).circularityIndex();
+                outputFlow.setValue(value);
+
+                double expected = (above - below) / (2 * step);
+                assertEquals(expected, analysis.getDerivative(outputFlow.getName()), 1e-8);
+            }
+        }
+        assertEquals(0.0, analysis.getDerivative(OutputFlowTypes.MAIN_MATERIALS_PRODUCTION_ENERGY));
+    }
+
+    /**
+     * Test that the most influential flows are ranked by the absolute value of
+     * derivative times value, and that flows without influence are left out.
+     */
+    @Test
+    public void test002MostInfluentialFlowsAreRanked() {
+        ProductSystemData data = createProductSystemData();
+        SensitivityAnalysis analysis = new SensitivityAnalysis(data, 5, 10);
+
+        List<FlowSensitivity> all = analysis.getMostInfluentialFlows(10);
+        assertEquals(4, all.size());
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(Math.abs(all.get(i - 1).influence()) >= Math.abs(all.get(i).influence()));
+        }
+
+        List<FlowSensitivity> top = analysis.getMostInfluentialFlows(2);
+        assertEquals(all.subList(0, 2), top);
+        assertSame(data.getProcesses().get(0), top.get(0).process());
+        assertEquals(0, top.get(0).outputFlowIndex());
+        assertTrue(analysis.getMostInfluentialFlows(0).isEmpty());
+    }
+}
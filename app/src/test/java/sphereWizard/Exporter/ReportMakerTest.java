@@ -6,8 +6,11 @@ import java.io.*;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import java.nio.file.Files;
 
 import sphereWizard.Calculator.CircularityCalculator;
+import sphereWizard.Calculator.CircularityEngine;
+import sphereWizard.Calculator.CircularityResult;
 import sphereWizard.Exceptions.EmptyListException;
 import sphereWizard.Exceptions.FlowOutputNotRecognizedException;
 import sphereWizard.Exceptions.UnitNotRecognizedException;
@@ -109,6 +112,27 @@ public class ReportMakerTest {
         }
     }
 
+    /**
+     * Tests that a report made from the result of the engine has the same content
+     * as one made from the product system and the calculator.
+     */
+    @Test
+    public void Test022_ExportFromResult() throws IOException {
+        CircularityResult result = new CircularityEngine().calculate(productSystemData, 100, 100);
+
+        File expectedFile = File.createTempFile("report", ".csv");
+        File actualFile = File.createTempFile("report", ".csv");
+        try {
+            new ReportMaker(productSystem, circularityCalculator).exportInformationToCsv(expectedFile.getPath());
+            new ReportMaker(productSystemData, result).exportInformationToCsv(actualFile.getPath());
+
+            assertEquals(Files.readAllLines(expectedFile.toPath()), Files.readAllLines(actualFile.toPath()));
+        } finally {
+            expectedFile.delete();
+            actualFile.delete();
+        }
+    }
+
     /*
      * Test002: Tests the functionality of exporting information to a CSV file with an invalid ProductSystem instance.
 
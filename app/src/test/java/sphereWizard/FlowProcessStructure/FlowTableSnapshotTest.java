@@ -0,0 +1,139 @@
+package sphereWizard.FlowProcessStructure;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import sphereWizard.Enums.OutputFlowTypes;
+import sphereWizard.Enums.UnitEnums.Area;
+import sphereWizard.Enums.UnitEnums.Energy;
+import sphereWizard.Enums.UnitEnums.Mass;
+
+/**
+ * Unit tests for the {@link FlowTableSnapshot} class.
+ *
+ * These tests check that a table read back from a snapshot holds exactly the
+ * processes and flows that were written, and that damaged files are rejected.
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public class FlowTableSnapshotTest {
+
+    private static FlowTable createTable() {
+        List<InputFlow> inputFlows = new ArrayList<>();
+        inputFlows.add(new InputFlow("cascalho", "Recurso do solo", 1.06, Mass.KG));
+        inputFlows.add(new InputFlow("água ", null, 0.1 + 0.2, Area.M2));
+
+        List<OutputFlow> outputFlows = new ArrayList<>();
+        outputFlows.add(new OutputFlow(OutputFlowTypes.VIRGIN_MATERIAL, "Circularidade", 1.06, Mass.KG));
+        outputFlows.add(new OutputFlow(OutputFlowTypes.MAIN_MATERIALS_PRODUCTION_ENERGY, "Circularidade",
+                Math.PI * 1e6, Energy.J));
+
+        FlowTable.Builder builder = new FlowTable.Builder()
+                .addProcess("Nome do Processo", "Categoria do Processo", inputFlows, outputFlows)
+                .startProcess("Vazio", "Categoria do Processo");
+        for (int i = 0; i < 5000; i++) {
+            builder.startProcess("Processo " + i, "Categoria " + (i % 7))
+                    .addInputFlow("borracha", "Recurso do solo", i + 0.5, Mass.G)
+                    .addOutputFlow(OutputFlowTypes.values()[i % OutputFlowTypes.values().length], "Circularidade",
+                            i / 3.0, Mass.KG);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Test that every process and flow is read back exactly as it was
+     * written, with the same dictionary.
+     */
+    @Test
+    public void test001RoundTrip() throws IOException {
+        FlowTable table = createTable();
+        Path path = Files.createTempFile("snapshot", ".bin");
+        try {
+            FlowTableSnapshot.write(table, path);
+            FlowTable read = FlowTableSnapshot.read(path);
+
+            assertEquals(table.getProcessCount(), read.getProcessCount());
+            assertEquals(table.getInputFlowCount(), read.getInputFlowCount());
+            assertEquals(table.getOutputFlowCount(), read.getOutputFlowCount());
+            assertEquals(table.getDictionarySize(), read.getDictionarySize());
+            for (int i = 0; i < table.getProcessCount(); i++) {
+                assertEquals(table.getProcesses().get(i).toString(), read.getProcesses().get(i).toString());
+            }
+
+            Process first = read.getProcesses().get(0);
+            assertEquals(0.1 + 0.2, first.getInputFlows().get(1).getValue());
+            assertEquals(null, first.getInputFlows().get(1).getCategory());
+            assertEquals(Math.PI * 1e6, first.getOutputFlows().get(1).getValue());
+            assertEquals(0, read.getProcesses().get(1).getOutputFlows().size());
+            assertFalse(Files.exists(path.resolveSibling(path.getFileName() + ".tmp")));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Test that files that are not snapshots, or were cut short, are rejected.
+     */
+    @Test
+    public void test002DamagedFilesAreRejected() throws IOException {
+        Path path = Files.createTempFile("snapshot", ".bin");
+        try {
+            FlowTableSnapshot.write(createTable(), path);
+            byte[] bytes = Files.readAllBytes(path);
+
+            Files.write(path, Arrays.copyOf(bytes, bytes.length / 2));
+            assertThrows(IOException.class, () -> FlowTableSnapshot.read(path));
+
+            byte[] otherVersion = bytes.clone();
+            otherVersion[4] = 2;
+            Files.write(path, otherVersion);
+            assertThrows(IOException.class, () -> FlowTableSnapshot.read(path));
+
+            Files.write(path, "flow;categoria;Quantidade;Unit".getBytes());
+            assertThrows(IOException.class, () -> FlowTableSnapshot.read(path));
+
+            Files.write(path, new byte[0]);
+            assertThrows(IOException.class, () -> FlowTableSnapshot.read(path));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Test that a file read through many small mappings, with columns and
+     * Strings crossing their ends, is read exactly like a single mapping.
+     */
+    @Test
+    public void test003SmallWindows() throws IOException {
+        FlowTable table = createTable();
+        Path path = Files.createTempFile("snapshot", ".bin");
+        try {
+            FlowTableSnapshot.write(table, path);
+            for (int windowSize : new int[] { 16, 100, 4093 }) {
+                FlowTable read = FlowTableSnapshot.read(path, windowSize);
+                assertEquals(table.getDictionarySize(), read.getDictionarySize());
+                assertEquals(table.getProcessCount(), read.getProcessCount());
+                for (int i = 0; i < table.getProcessCount(); i++) {
+                    assertEquals(table.getProcesses().get(i).toString(), read.getProcesses().get(i).toString());
+                }
+            }
+
+            byte[] bytes = Files.readAllBytes(path);
+            Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+            assertThrows(IOException.class, () -> FlowTableSnapshot.read(path, 100));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
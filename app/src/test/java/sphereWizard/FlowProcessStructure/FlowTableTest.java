@@ -0,0 +1,172 @@
+package sphereWizard.FlowProcessStructure;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import sphereWizard.Enums.OutputFlowTypes;
+import sphereWizard.Enums.UnitEnums.Energy;
+import sphereWizard.Enums.UnitEnums.Mass;
+
+/**
+ * Unit tests for the {@link FlowTable} class.
+ *
+ * These tests check that the process and flow views built over the columns
+ * behave like ordinary processes and flows.
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public class FlowTableTest {
+
+    private static FlowTable createTable() {
+        List<InputFlow> inputFlows = new ArrayList<>();
+        inputFlows.add(new InputFlow("cascalho", "Recurso do solo", 1.06, Mass.KG));
+        inputFlows.add(new InputFlow("eletricidade", "Energia", 4.0, Energy.J));
+
+        List<OutputFlow> outputFlows = new ArrayList<>();
+        outputFlows.add(new OutputFlow(OutputFlowTypes.VIRGIN_MATERIAL, "Circularidade", 1.06, Mass.KG));
+        outputFlows.add(new OutputFlow(OutputFlowTypes.MAIN_MATERIALS_PRODUCTION_ENERGY, "Circularidade", 4.0,
+                Energy.J));
+
+        return new FlowTable.Builder()
+                .addProcess("Nome do Processo", "Categoria do Processo", inputFlows, outputFlows)
+                .startProcess("Transporte", "Categoria do Processo")
+                .addOutputFlow(OutputFlowTypes.VIRGIN_MATERIAL, "Circularidade", 2.0, Mass.KG)
+                .build();
+    }
+
+    /**
+     * Test that the views print exactly like ordinary processes.
+     */
+    @Test
+    public void test001ViewsMatchOrdinaryProcesses() {
+        List<InputFlow> inputFlows = new ArrayList<>();
+        inputFlows.add(new InputFlow("cascalho", "Recurso do solo", 1.06, Mass.KG));
+        inputFlows.add(new InputFlow("eletricidade", "Energia", 4.0, Energy.J));
+
+        List<OutputFlow> outputFlows = new ArrayList<>();
+        outputFlows.add(new OutputFlow(OutputFlowTypes.VIRGIN_MATERIAL, "Circularidade", 1.06, Mass.KG));
+        outputFlows.add(new OutputFlow(OutputFlowTypes.MAIN_MATERIALS_PRODUCTION_ENERGY, "Circularidade", 4.0,
+                Energy.J));
+        Process expected = new Process("Nome do Processo", "Categoria do Processo", inputFlows, outputFlows);
+
+        FlowTable table = createTable();
+
+        assertEquals(2, table.getProcessCount());
+        assertEquals(2, table.getInputFlowCount());
+        assertEquals(3, table.getOutputFlowCount());
+        assertEquals(expected.toString(), table.getProcesses().get(0).toString());
+        assertSame(table.getProcesses().get(0), table.getProcesses().get(0));
+    }
+
+    /**
+     * Test that names and categories are stored once in the dictionary.
+     */
+    @Test
+    public void test002StringsAreDictionaryEncoded() {
+        FlowTable table = createTable();
+
+        // Nome do Processo, Categoria do Processo, cascalho, Recurso do solo, eletricidade,
+        // Energia, Circularidade, Transporte
+        assertEquals(8, table.getDictionarySize());
+    }
+
+    /**
+     * Test that changing a flow view writes to the table, and that adding a
+     * flow copies the process out of the table.
+     */
+    @Test
+    public void test003ViewsWriteThroughAndDetach() {
+        FlowTable table = createTable();
+        Process process = table.getProcesses().get(0);
+
+        process.getOutputFlows().get(0).setValue(5.0);
+        assertEquals(5.0, process.getOutputFlows().get(0).getValue());
+        assertEquals(5.0, process.addOutputFlowValues(OutputFlowTypes.VIRGIN_MATERIAL, 0.0));
+
+        process.getOutputFlows().add(new OutputFlow(OutputFlowTypes.VIRGIN_MATERIAL, "Circularidade", 1.0,
+                Mass.KG));
+        assertEquals(3, process.getOutputFlows().size());
+        assertEquals(6.0, process.addOutputFlowValues(OutputFlowTypes.VIRGIN_MATERIAL, 0.0));
+
+        // The other process still reads from the columns
+        assertEquals(2.0, table.getProcesses().get(1).addOutputFlowValues(OutputFlowTypes.VIRGIN_MATERIAL, 0.0));
+    }
+
+    /**
+     * Test that input flows left out of a table are loaded once, when the
+     * input flows of a process are first asked for.
+     */
+    @Test
+    public void test004DeferredInputFlowsAreLoadedOnFirstUse() {
+        int[] loads = new int[1];
+        FlowTable table = new FlowTable.Builder()
+                .deferInputFlows(sink -> {
+                    loads[0]++;
+                    sink.accept(new InputFlow("cascalho", "Recurso do solo", 1.06, Mass.KG));
+                    sink.accept(new InputFlow("eletricidade", "Energia", 4.0, Energy.J));
+                })
+                .startProcess("Nome do Processo", "Categoria do Processo")
+                .addOutputFlow(OutputFlowTypes.VIRGIN_MATERIAL, "Circularidade", 1.06, Mass.KG)
+                .startProcess("Transporte", "Categoria do Processo")
+                .addOutputFlow(OutputFlowTypes.VIRGIN_MATERIAL, "Circularidade", 2.0, Mass.KG)
+                .build();
+
+        Process transport = table.getProcesses().get(1);
+        assertEquals(3.06, transport.addOutputFlowValues(OutputFlowTypes.VIRGIN_MATERIAL, 1.06));
+        assertFalse(table.isInputFlowsLoaded());
+        assertEquals(0, loads[0]);
+
+        assertEquals("eletricidade", transport.getInputFlows().get(0).getName());
+        assertEquals(1, table.getProcesses().get(0).getInputFlows().size());
+        assertEquals(2, table.getInputFlowCount());
+        assertTrue(table.isInputFlowsLoaded());
+        assertEquals(1, loads[0]);
+
+        FlowTable incomplete = new FlowTable.Builder()
+                .deferInputFlows(sink -> {
+                })
+                .startProcess("Transporte", "Categoria do Processo")
+                .addOutputFlow(OutputFlowTypes.VIRGIN_MATERIAL, "Circularidade", 2.0, Mass.KG)
+                .build();
+        assertThrows(IllegalStateException.class, () -> incomplete.getProcesses().get(0).getInputFlows());
+    }
+
+    /**
+     * Test that a flow keeps its identity: asking for it again gives the same
+     * object, and a flow held while its process is changed still belongs to
+     * the process.
+     */
+    @Test
+    public void test005FlowsKeepTheirIdentity() {
+        FlowTable table = createTable();
+        Process process = table.getProcesses().get(0);
+
+        OutputFlow held = process.getOutputFlows().get(0);
+        InputFlow heldInput = process.getInputFlows().get(1);
+        assertSame(held, process.getOutputFlows().get(0));
+        assertTrue(process.getOutputFlows().contains(held));
+        assertEquals(1, process.getInputFlows().indexOf(heldInput));
+
+        process.getOutputFlows().add(new OutputFlow(OutputFlowTypes.VIRGIN_MATERIAL, "Circularidade", 1.0,
+                Mass.KG));
+        held.setValue(7.0);
+        assertSame(held, process.getOutputFlows().get(0));
+        assertEquals(7.0, process.getOutputFlows().get(0).getValue());
+        assertEquals(8.0, process.addOutputFlowValues(OutputFlowTypes.VIRGIN_MATERIAL, 0.0));
+
+        assertTrue(process.getOutputFlows().remove(held));
+        assertEquals(2, process.getOutputFlows().size());
+        assertEquals(1.0, process.addOutputFlowValues(OutputFlowTypes.VIRGIN_MATERIAL, 0.0));
+        assertTrue(process.getInputFlows().remove(heldInput));
+        assertEquals(1, process.getInputFlows().size());
+    }
+}
@@ -0,0 +1,90 @@
+package sphereWizard.ProductSystem;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import sphereWizard.FlowProcessStructure.Process;
+
+/**
+ * Unit tests for the {@link FlowTableDirectoryReader} class.
+ *
+ * These tests check that many files are merged in a fixed order, and that a
+ * file that cannot be read is reported without stopping the others.
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public class FlowTableDirectoryReaderTest {
+
+    private static final Path FILES = Paths.get("src/test/java/sphereWizard/ProductSystem");
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Test that the processes of every file are merged in the order of the
+     * file names, like reading the files one after the other, and that bad
+     * files are reported.
+     */
+    @Test
+    public void test001FilesAreMergedInOrder() throws Exception {
+        Path directory = Files.createTempDirectory("suppliers");
+        try {
+            Files.copy(FILES.resolve("testEXAMPLECOMPLETESUPPLYCHAIN.csv"), directory.resolve("c.csv"));
+            Files.copy(FILES.resolve("test001.csv"), directory.resolve("a.csv"));
+            Files.copy(FILES.resolve("testEXAMPLECOMPLETESUPPLYCHAIN.csv"), directory.resolve("b.csv"));
+            Files.copy(FILES.resolve("test004MeasurementsShouldNeverBeZero.csv"), directory.resolve("bad.csv"));
+            Files.copy(FILES.resolve("test001.csv"), directory.resolve("notes.txt"));
+
+            ProductSystemData expected = new ProductSystemData();
+            for (String name : new String[] { "a.csv", "b.csv", "c.csv" }) {
+                expected.readCsv(directory.resolve(name).toString(), ";");
+            }
+
+            for (int maxOpenFiles : new int[] { 1, 3 }) {
+                FlowTableDirectoryReader reader = new FlowTableDirectoryReader(";");
+                reader.setMaxOpenFiles(maxOpenFiles);
+                IngestionResult result = reader.read(directory);
+
+                assertFalse(result.isComplete());
+                assertEquals(List.of(directory.resolve("a.csv"), directory.resolve("b.csv"),
+                        directory.resolve("c.csv")), result.files());
+                assertEquals(List.of(directory.resolve("bad.csv")), List.copyOf(result.errors().keySet()));
+                assertTrue(result.errors().get(directory.resolve("bad.csv")) instanceof IllegalArgumentException);
+
+                List<Process> processes = result.data().getProcesses();
+                assertEquals(expected.getProcesses().size(), processes.size());
+                for (int i = 0; i < processes.size(); i++) {
+                    // Input flow names are left out because readCsv decodes them with the platform charset
+                    Process expectedProcess = expected.getProcesses().get(i);
+                    assertEquals(expectedProcess.getName(), processes.get(i).getName());
+                    assertEquals(expectedProcess.getOutputFlows().toString(),
+                            processes.get(i).getOutputFlows().toString());
+                    assertEquals(expectedProcess.getInputFlows().size(), processes.get(i).getInputFlows().size());
+                }
+            }
+
+            IngestionResult notes = new FlowTableDirectoryReader(";").read(directory, "*.txt");
+            assertTrue(notes.isComplete());
+            assertEquals(List.of(directory.resolve("notes.txt")), notes.files());
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+}
@@ -5,24 +5,44 @@ package sphereWizard.ProductSystem;
 
 import org.junit.jupiter.api.Test;
 
+import sphereWizard.Calculator.CircularityEngine;
 import sphereWizard.Enums.OutputFlowTypes;
 import sphereWizard.Enums.UnitEnums.Area;
 import sphereWizard.Enums.UnitEnums.Distance;
 import sphereWizard.Enums.UnitEnums.Energy;
 import sphereWizard.Enums.UnitEnums.Mass;
 import sphereWizard.Enums.UnitEnums.Volume;
+import sphereWizard.Exceptions.EmptyListException;
 import sphereWizard.Exceptions.FlowOutputNotRecognizedException;
 import sphereWizard.Exceptions.UnitNotRecognizedException;
 import sphereWizard.FlowProcessStructure.Flow;
 import sphereWizard.FlowProcessStructure.InputFlow;
 import sphereWizard.FlowProcessStructure.OutputFlow;
 import sphereWizard.Util.Converter;
+import sphereWizard.Util.DecimalParser;
+import sphereWizard.Util.UnitRegistry;
 import sphereWizard.FlowProcessStructure.Process;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -339,4 +359,874 @@ class ProductSystemDataTest {
         assertEquals(Energy.J, inputFlows.get(0).getUnit());
     }
 
+    /**
+     * Test that the memory-mapped reader builds the same processes as
+     * {@link ProductSystemData#readCsv(String, String)}.
+     */
+    @Test
+    public void test022_test001_MappedReaderMatchesReadCsv() throws Exception {
+        String path = "src/test/java/sphereWizard/ProductSystem/testEXAMPLECOMPLETESUPPLYCHAIN.csv";
+
+        ProductSystemData expected = new ProductSystemData();
+        expected.readCsv(path, ";");
+
+        ProductSystemData mapped = new ProductSystemData();
+        mapped.readCsvMapped(path, ";");
+
+        assertSameProcesses(expected, mapped);
+    }
+
+    /**
+     * Test that rows crossing the end of a mapped region are read correctly.
+     */
+    @Test
+    public void test022_test002_MappedReaderWithSmallMappings() throws Exception {
+        String path = "src/test/java/sphereWizard/ProductSystem/testEXAMPLECOMPLETESUPPLYCHAIN.csv";
+
+        ProductSystemData expected = new ProductSystemData();
+        expected.readCsv(path, ";");
+
+        FlowTableReader reader = new FlowTableReader(";");
+        reader.setMappingSize(7);
+        ProductSystemData mapped = new ProductSystemData();
+        reader.read(path, mapped);
+
+        assertSameProcesses(expected, mapped);
+    }
+
+    /**
+     * Test that quoted cells may contain delimiters, line breaks and quotes.
+     */
+    @Test
+    public void test022_test003_MappedReaderQuotedCells() throws Exception {
+        ProductSystemData productSystemData = new ProductSystemData();
+        productSystemData.readCsvMapped("src/test/java/sphereWizard/ProductSystem/testQuotedCells.csv", ";");
+
+        Process process = productSystemData.getProcesses().get(0);
+        assertEquals("Moldagem; injeção", process.getName());
+        assertEquals("Produção \"A\"", process.getCategory());
+        assertEquals("granulado\nreciclado", process.getInputFlows().get(0).getName());
+        assertEquals("Circularidade; fase 1", process.getOutputFlows().get(0).getCategory());
+        assertEquals(0.5, process.getOutputFlows().get(0).getValue());
+        assertEquals(Volume.M3, process.getOutputFlows().get(1).getUnit());
+    }
+
+    /**
+     * Test that the memory-mapped reader rejects a missing file and a delimiter
+     * longer than one character.
+     */
+    @Test
+    public void test022_test004_MappedReaderInvalidInput() {
+        assertThrows(FileNotFoundException.class, () -> {
+            new ProductSystemData().readCsvMapped("nonexistent/path.csv", ";");
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            new ProductSystemData().readCsvMapped("src/test/java/sphereWizard/ProductSystem/test001.csv", ";;");
+        });
+    }
+
+    /**
+     * Test that parallel reading splits the file at process headers and keeps
+     * the processes in file order.
+     */
+    @Test
+    public void test023_test001_ParallelReaderMatchesReadCsv() throws Exception {
+        String path = "src/test/java/sphereWizard/ProductSystem/testEXAMPLECOMPLETESUPPLYCHAIN.csv";
+
+        ProductSystemData expected = new ProductSystemData();
+        expected.readCsv(path, ";");
+
+        FlowTableReader reader = new FlowTableReader(";");
+        reader.setParallelism(4);
+        reader.setMinRangeSize(1);
+        ProductSystemData parallel = new ProductSystemData();
+        reader.read(path, parallel);
+
+        assertSameProcesses(expected, parallel);
+    }
+
+    /**
+     * Test that split points land on process headers only.
+     */
+    @Test
+    public void test023_test002_SplitsStartAtProcessHeaders() throws Exception {
+        Path path = Paths.get(
+                "src/test/java/sphereWizard/ProductSystem/testEXAMPLECOMPLETESUPPLYCHAIN.csv");
+        byte[] bytes = Files.readAllBytes(path);
+
+        FlowTableReader reader = new FlowTableReader(";");
+        reader.setParallelism(8);
+        reader.setMinRangeSize(1);
+
+        long[] splits;
+        try (FileChannel channel = FileChannel.open(path)) {
+            splits = reader.findSplits(channel);
+        }
+
+        assertEquals(0, splits[0]);
+        assertEquals(bytes.length, splits[splits.length - 1]);
+        assertEquals(4, splits.length, "The file has three processes.");
+        for (int i = 1; i < splits.length - 1; i++) {
+            assertEquals('\n', bytes[(int) splits[i] - 1]);
+            assertEquals(';', bytes[(int) splits[i]]);
+        }
+    }
+
+    /**
+     * Test that parallel reading drops and keeps processes without flows the
+     * same way readCsv does.
+     */
+    @Test
+    public void test023_test003_ParallelReaderProcessesWithoutFlows() throws Exception {
+        String path = "src/test/java/sphereWizard/ProductSystem/testProcessesWithoutFlows.csv";
+
+        ProductSystemData expected = new ProductSystemData();
+        expected.readCsv(path, ";");
+
+        FlowTableReader reader = new FlowTableReader(";");
+        reader.setParallelism(4);
+        reader.setMinRangeSize(1);
+        ProductSystemData parallel = new ProductSystemData();
+        reader.read(path, parallel);
+
+        assertEquals(3, expected.getProcesses().size());
+        assertSameProcesses(expected, parallel);
+    }
+
+    /**
+     * Test that the name and category indexes find the same processes as a
+     * scan of the list, and report a miss with an empty list.
+     */
+    @Test
+    public void test026_test001_IndexedLookupsMatchScan()
+            throws UnitNotRecognizedException, FlowOutputNotRecognizedException, IOException {
+        ProductSystemData data = new ProductSystemData();
+        data.readCsv("src/test/java/sphereWizard/ProductSystem/testEXAMPLECOMPLETESUPPLYCHAIN.csv", ";");
+
+        for (Process process : data.getProcesses()) {
+            List<Process> byName = data.findByName(process.getName());
+            List<Process> byCategory = data.findByCategory(process.getCategory());
+
+            assertEquals(1, byName.size());
+            assertSame(process, byName.get(0));
+            assertEquals(1, byCategory.size());
+            assertSame(process, byCategory.get(0));
+        }
+
+        assertTrue(data.findByName("does not exist").isEmpty());
+        assertTrue(data.findByCategory(null).isEmpty());
+    }
+
+    /**
+     * Test that the indexes follow processes being added, removed and replaced.
+     */
+    @Test
+    public void test026_test002_IndexesFollowMutations() {
+        ProductSystemData data = new ProductSystemData();
+        Process first = new Process("Transporte", "Logistica");
+        Process second = new Process("Producao", "Fabrico");
+        Process third = new Process("Transporte", "Retalho");
+
+        data.getProcesses().add(first);
+        data.getProcesses().add(second);
+        assertEquals(List.of(first), data.findByName("Transporte"));
+
+        data.getProcesses().add(third);
+        assertEquals(List.of(first, third), data.findByName("Transporte"));
+
+        data.getProcesses().remove(first);
+        assertEquals(List.of(third), data.findByName("Transporte"));
+        assertTrue(data.findByCategory("Logistica").isEmpty());
+
+        data.getProcesses().set(0, first);
+        assertEquals(List.of(first), data.findByCategory("Logistica"));
+        assertTrue(data.findByName("Producao").isEmpty());
+
+        data.setProcesses(new ArrayList<>(List.of(second)));
+        assertEquals(List.of(second), data.findByCategory("Fabrico"));
+        assertTrue(data.findByName("Transporte").isEmpty());
+    }
+
+    /**
+     * Test that filtering returns views and leaves the original data unchanged,
+     * so that it can be filtered again without reading the file.
+     */
+    @Test
+    public void test027_test001_FilterDoesNotChangeTheData() throws Exception {
+        ProductSystemData data = new ProductSystemData();
+        data.readCsv("src/test/java/sphereWizard/ProductSystem/testEXAMPLECOMPLETESUPPLYCHAIN.csv", ";");
+        List<Process> original = new ArrayList<>(data.getProcesses());
+        Process transport = original.get(1);
+
+        ProductSystemData byName = data.filter(3, transport.getName());
+        ProductSystemData byCategory = data.filter(2, original.get(0).getCategory());
+        ProductSystemData all = data.filter(1, "");
+
+        assertTrue(byName instanceof ProductSystemView);
+        assertEquals(List.of(transport), byName.getProcesses());
+        assertEquals(List.of(original.get(0)), byCategory.getProcesses());
+        assertEquals(original, all.getProcesses());
+        assertEquals(original, data.getProcesses());
+
+        assertThrows(EmptyListException.class, () -> data.filter(3, "does not exist"));
+        assertEquals(original, data.getProcesses());
+    }
+
+    /**
+     * Test that views cannot be changed, and that views of views only keep the
+     * processes selected by both filters.
+     */
+    @Test
+    public void test027_test002_ViewsAreReadOnlyAndCompose() throws Exception {
+        ProductSystemData data = new ProductSystemData();
+        Process first = new Process("Transporte", "Logistica");
+        Process second = new Process("Producao", "Fabrico");
+        Process third = new Process("Transporte", "Retalho");
+        data.getProcesses().addAll(List.of(first, second, third));
+
+        ProductSystemData transports = data.filter(3, "Transporte");
+
+        assertThrows(UnsupportedOperationException.class, () -> transports.getProcesses().add(second));
+        assertThrows(UnsupportedOperationException.class, () -> transports.setProcesses(new ArrayList<>()));
+
+        assertEquals(List.of(third), transports.filter(2, "Retalho").getProcesses());
+        assertEquals(List.of(third), transports.findByCategory("Retalho"));
+        assertTrue(transports.findByName("Producao").isEmpty());
+        assertThrows(EmptyListException.class, () -> transports.filter(2, "Fabrico"));
+    }
+
+    /**
+     * Test that product systems built on different views of the same data
+     * calculate their own quantities.
+     */
+    @Test
+    public void test027_test003_ProductSystemsShareOneDataset() throws Exception {
+        ProductSystemData data = new ProductSystemData();
+        data.readCsv("src/test/java/sphereWizard/ProductSystem/testEXAMPLECOMPLETESUPPLYCHAIN.csv", ";");
+
+        ProductSystem whole = new ProductSystem(data, 5, 10);
+        double expectedMass = 0;
+        for (Process process : data.getProcesses()) {
+            ProductSystem single = new ProductSystem(data.filter(3, process.getName()), 5, 10);
+            expectedMass += single.calculateMass();
+            assertEquals(1, single.getProductSystemData().getProcesses().size());
+        }
+
+        assertEquals(whole.calculateMass(), expectedMass, 1e-9);
+        assertEquals(3, data.getProcesses().size());
+    }
+
+    /**
+     * Test that the list given to the constructor or to setProcesses is
+     * copied, so that changing it afterwards cannot leave the name and
+     * category indexes out of date.
+     */
+    @Test
+    public void test043_test001_GivenListsAreCopied() {
+        Process first = new Process("p", "Logistica");
+        Process replacement = new Process("r", "Fabrico");
+        ArrayList<Process> given = new ArrayList<>(List.of(first));
+        ProductSystemData data = new ProductSystemData(given);
+        assertEquals(List.of(first), data.findByName("p"));
+
+        given.set(0, replacement);
+        assertEquals(List.of(first), data.getProcesses());
+        assertEquals(List.of(first), data.findByName("p"));
+        assertTrue(data.findByCategory("Fabrico").isEmpty());
+
+        List<Process> replaced = new ArrayList<>(List.of(replacement));
+        data.setProcesses(replaced);
+        replaced.remove(0);
+        replaced.add(first);
+        assertEquals(List.of(replacement), data.findByName("r"));
+        assertTrue(data.findByName("p").isEmpty());
+    }
+
+    /**
+     * Test that filtering every process keeps following the data, and that
+     * views fail once processes are added to or removed from the data.
+     */
+    @Test
+    public void test038_test001_ViewsFollowTheData() throws Exception {
+        ProductSystemData data = new ProductSystemData();
+        Process first = new Process("Transporte", "Logistica");
+        Process second = new Process("Producao", "Fabrico");
+        data.getProcesses().addAll(List.of(first, second));
+
+        ProductSystemData all = data.filter(1, "");
+        ProductSystemData transports = data.filter(3, "Transporte");
+        assertSame(data, all);
+        assertThrows(EmptyListException.class, () -> new ProductSystemData().filter(1, ""));
+
+        Process third = new Process("Transporte", "Retalho");
+        data.getProcesses().add(third);
+        assertEquals(List.of(first, second, third), all.getProcesses());
+        assertThrows(ConcurrentModificationException.class, () -> transports.getProcesses().get(0));
+        assertThrows(ConcurrentModificationException.class, () -> transports.findByCategory("Retalho"));
+
+        ProductSystemData again = data.filter(3, "Transporte");
+        assertEquals(List.of(first, third), again.getProcesses());
+        data.getProcesses().remove(second);
+        assertThrows(ConcurrentModificationException.class, () -> again.getProcesses().size());
+        assertThrows(ConcurrentModificationException.class, () -> again.filter(2, "Retalho"));
+    }
+
+    /**
+     * Test that summarizing a file gives the same totals, process count and
+     * circularity as reading it into processes.
+     */
+    @Test
+    public void test028_test001_SummaryMatchesReadCsv() throws Exception {
+        String[] paths = { "src/test/java/sphereWizard/ProductSystem/testEXAMPLECOMPLETESUPPLYCHAIN.csv",
+                "src/test/java/sphereWizard/ProductSystem/testProcessesWithoutFlows.csv" };
+
+        for (String path : paths) {
+            ProductSystemData data = new ProductSystemData();
+            data.readCsv(path, ";");
+            FlowTableSummary summary = new FlowTableReader(";").summarize(path);
+
+            assertEquals(FlowTotals.of(data.getProcesses()), summary.getTotals());
+            assertEquals(data.getProcesses().size(), summary.getProcessCount());
+
+            ProductSystem productSystem = new ProductSystem(data, 100, 100);
+            assertEquals(productSystem.calculateMass(), summary.getTotals().getMass());
+            assertEquals(new CircularityEngine().calculate(data, 100, 100),
+                    new CircularityEngine().calculate(summary, 100, 100));
+        }
+    }
+
+    /**
+     * Test that summarizing rejects the same files as reading.
+     */
+    @Test
+    public void test028_test002_SummaryRejectsInvalidFlows() {
+        FlowTableReader reader = new FlowTableReader(";");
+        assertThrows(IllegalArgumentException.class, () -> {
+            reader.summarize("src/test/java/sphereWizard/ProductSystem/test004MeasurementsShouldNeverBeZero.csv");
+        });
+        assertThrows(FileNotFoundException.class, () -> {
+            reader.summarize("src/test/java/sphereWizard/ProductSystem/missing.csv");
+        });
+    }
+
+    /**
+     * Test that reading only the output flow columns gives the same processes,
+     * on one thread and in parallel, once the input flows are loaded.
+     */
+    @Test
+    public void test029_test001_OutputFlowProjectionMatchesReadCsv() throws Exception {
+        String path = "src/test/java/sphereWizard/ProductSystem/testEXAMPLECOMPLETESUPPLYCHAIN.csv";
+
+        ProductSystemData expected = new ProductSystemData();
+        expected.readCsv(path, ";");
+
+        for (int parallelism : new int[] { 1, 4 }) {
+            FlowTableReader reader = new FlowTableReader(";");
+            reader.setProjection(FlowTableReader.Projection.OUTPUT_FLOWS);
+            reader.setParallelism(parallelism);
+            reader.setMinRangeSize(1);
+            ProductSystemData projected = new ProductSystemData();
+            reader.read(path, projected);
+
+            assertEquals(FlowTotals.of(expected.getProcesses()), FlowTotals.of(projected.getProcesses()));
+            assertSameProcesses(expected, projected);
+        }
+    }
+
+    /**
+     * Test that the input flows are only read from the file when they are
+     * first asked for.
+     */
+    @Test
+    public void test029_test002_InputFlowsAreReadOnFirstUse() throws Exception {
+        Path copy = Files.createTempFile("projection", ".csv");
+        Files.copy(
+                Paths.get("src/test/java/sphereWizard/ProductSystem/testEXAMPLECOMPLETESUPPLYCHAIN.csv"),
+                copy, StandardCopyOption.REPLACE_EXISTING);
+
+        FlowTableReader reader = new FlowTableReader(";");
+        reader.setProjection(FlowTableReader.Projection.OUTPUT_FLOWS);
+        ProductSystemData data = new ProductSystemData();
+        reader.read(copy.toString(), data);
+        Files.delete(copy);
+
+        // The output flows are already in memory
+        ProductSystem productSystem = new ProductSystem(data, 100, 100);
+        assertTrue(productSystem.calculateMass() > 0);
+        assertThrows(UncheckedIOException.class, () -> data.getProcesses().get(0).getInputFlows());
+    }
+
+    /**
+     * Test that files with comma decimals are read by every reader once the
+     * decimal parser is set, and rejected otherwise.
+     */
+    @Test
+    public void test030_test001_CommaDecimals() throws Exception {
+        String path = "src/test/java/sphereWizard/ProductSystem/testCommaDecimals.csv";
+
+        assertThrows(NumberFormatException.class, () -> new ProductSystemData().readCsv(path, ";"));
+        assertThrows(NumberFormatException.class, () -> new ProductSystemData().readCsvMapped(path, ";"));
+
+        ProductSystemData expected = new ProductSystemData();
+        expected.setDecimalParser(new DecimalParser(',', '.'));
+        expected.readCsv(path, ";");
+
+        Process process = expected.getProcesses().get(0);
+        assertEquals(1000.5, process.getInputFlows().get(0).getValue());
+        assertEquals(0.25 / 1000, process.getInputFlows().get(1).getValue());
+        assertEquals(1000.5, process.getOutputFlows().get(0).getValue());
+        assertEquals(0.25, process.getOutputFlows().get(1).getValue());
+        assertEquals(3.6 * (3.6 * 1000000), process.getOutputFlows().get(2).getValue());
+
+        ProductSystemData mapped = new ProductSystemData();
+        mapped.setDecimalParser(new DecimalParser(',', '.'));
+        mapped.readCsvMapped(path, ";");
+        assertSameProcesses(expected, mapped);
+
+        FlowTableReader reader = new FlowTableReader(";");
+        reader.setDecimalParser(new DecimalParser(',', '.'));
+        assertEquals(FlowTotals.of(expected.getProcesses()), reader.summarize(path).getTotals());
+    }
+
+    /**
+     * Test that units defined in a configuration are read and converted to the
+     * standard unit of their dimension by every reader.
+     */
+    @Test
+    public void test031_test001_CustomUnits() throws Exception {
+        String path = "src/test/java/sphereWizard/ProductSystem/testCustomUnits.csv";
+        UnitRegistry units = UnitRegistry.standard()
+                .withUnits(new StringReader("lb;KG;0.45359237\ngal;L;3.785411784\n"));
+
+        assertThrows(UnitNotRecognizedException.class, () -> new ProductSystemData().readCsv(path, ";"));
+
+        ProductSystemData expected = new ProductSystemData();
+        expected.setUnitRegistry(units);
+        expected.readCsv(path, ";");
+
+        Process process = expected.getProcesses().get(0);
+        assertEquals(10 * 0.45359237, process.getInputFlows().get(0).getValue());
+        assertEquals(Mass.KG, process.getInputFlows().get(0).getUnit());
+        assertEquals(2 * 3.785411784 / 1000, process.getInputFlows().get(1).getValue());
+        assertEquals(Volume.M3, process.getInputFlows().get(1).getUnit());
+        assertEquals(10 * 0.45359237, process.getOutputFlows().get(0).getValue());
+
+        ProductSystemData mapped = new ProductSystemData();
+        mapped.setUnitRegistry(units);
+        mapped.readCsvMapped(path, ";");
+        assertSameProcesses(expected, mapped);
+
+        FlowTableReader reader = new FlowTableReader(";");
+        reader.setUnitRegistry(units);
+        assertEquals(FlowTotals.of(expected.getProcesses()), reader.summarize(path).getTotals());
+    }
+
+    /**
+     * Test that the processes read back from a snapshot match the processes
+     * that were written, down to the last bit of every value.
+     */
+    @Test
+    public void test032_test001_SnapshotRoundTrip() throws Exception {
+        ProductSystemData expected = new ProductSystemData();
+        expected.readCsv("src/test/java/sphereWizard/ProductSystem/testEXAMPLECOMPLETESUPPLYCHAIN.csv", ";");
+        // A process that does not live in a flow table is written too
+        expected.getProcesses().add(new Process("Extra", "Categoria", new ArrayList<>(), new ArrayList<>(
+                List.of(new OutputFlow(OutputFlowTypes.RECYCLED_MATERIAL, "Circularidade", 0.7, Mass.KG)))));
+
+        Path snapshot = Files.createTempFile("productSystem", ".snapshot");
+        try {
+            expected.writeSnapshot(snapshot.toString());
+
+            ProductSystemData restored = new ProductSystemData();
+            restored.readSnapshot(snapshot.toString());
+
+            assertEquals(expected.getProcesses().size(), restored.getProcesses().size());
+            assertSameProcesses(expected, restored);
+            assertEquals(FlowTotals.of(expected.getProcesses()), FlowTotals.of(restored.getProcesses()));
+            assertEquals(1, restored.findByName("Extra").size());
+        } finally {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    /**
+     * Test that the processes opened through an index match the processes
+     * read by readCsv, and that a process is only read when its flows are
+     * first asked for.
+     */
+    @Test
+    public void test033_test001_IndexedProcessesAreReadOnDemand() throws Exception {
+        String source = "src/test/java/sphereWizard/ProductSystem/testEXAMPLECOMPLETESUPPLYCHAIN.csv";
+        Path copy = Files.createTempFile("indexed", ".csv");
+        Files.copy(Paths.get(source), copy,
+                StandardCopyOption.REPLACE_EXISTING);
+        Path indexFile = FlowTableIndex.pathOf(copy.toString());
+
+        try {
+            ProductSystemData expected = new ProductSystemData();
+            expected.readCsv(source, ";");
+
+            ProductSystemData indexed = new ProductSystemData();
+            indexed.readCsvIndexed(copy.toString(), ";");
+            assertTrue(Files.exists(indexFile));
+            assertEquals(expected.getProcesses().size(), indexed.getProcesses().size());
+
+            String name = expected.getProcesses().get(1).getName();
+            List<Process> found = indexed.findByName(name);
+            assertEquals(expected.findByName(name).size(), found.size());
+            for (Process process : indexed.getProcesses()) {
+                assertFalse(((IndexedProcess) process).isLoaded());
+            }
+
+            assertEquals(expected.findByName(name).get(0).getOutputFlows().toString(),
+                    found.get(0).getOutputFlows().toString());
+            assertTrue(((IndexedProcess) found.get(0)).isLoaded());
+            assertFalse(((IndexedProcess) indexed.getProcesses().get(0)).isLoaded());
+
+            assertSameProcesses(expected, indexed);
+            assertEquals(FlowTotals.of(expected.getProcesses()), FlowTotals.of(indexed.getProcesses()));
+        } finally {
+            Files.deleteIfExists(copy);
+            Files.deleteIfExists(indexFile);
+        }
+    }
+
+    /**
+     * Test that a saved index is reused while the file is unchanged, and built
+     * again once the file changes.
+     */
+    @Test
+    public void test033_test002_SavedIndexIsReusedUntilTheFileChanges() throws Exception {
+        Path copy = Files.createTempFile("indexed", ".csv");
+        Files.copy(
+                Paths.get("src/test/java/sphereWizard/ProductSystem/testEXAMPLECOMPLETESUPPLYCHAIN.csv"),
+                copy, StandardCopyOption.REPLACE_EXISTING);
+        Path indexFile = FlowTableIndex.pathOf(copy.toString());
+
+        try {
+            FlowTableIndex built = FlowTableIndex.open(copy.toString(), ";");
+            assertTrue(built.isCurrent(copy));
+            assertEquals(built.getEntries(), FlowTableIndex.load(indexFile).getEntries());
+            assertEquals(built.getEntries(), FlowTableIndex.open(copy.toString(), ";").getEntries());
+
+            // A new process at the end of the file
+            Files.write(copy, List.of("", ";;;Extra;Categoria;;;", "Input;;;;Output;;;",
+                    "flow;categoria;Quantidade;Unit;flow;categoria;quantidade;unit",
+                    "borracha;Recurso do solo;2;KG;Virgin Material;Circularidade;2;KG"),
+                    StandardOpenOption.APPEND);
+            assertFalse(built.isCurrent(copy));
+
+            FlowTableIndex rebuilt = FlowTableIndex.open(copy.toString(), ";");
+            assertEquals(built.getEntries().size() + 1, rebuilt.getEntries().size());
+            assertEquals(1, rebuilt.findByName("Extra").size());
+            assertEquals(rebuilt.getEntries(), FlowTableIndex.load(indexFile).getEntries());
+
+            Process extra = new FlowTableReader(";").readProcess(copy.toString(),
+                    rebuilt.findByName("Extra").get(0));
+            assertEquals(2.0, extra.getOutputFlows().get(0).getValue());
+        } finally {
+            Files.deleteIfExists(copy);
+            Files.deleteIfExists(indexFile);
+        }
+    }
+
+    /**
+     * Test that a file compressed with gzip is read like the plain file, by
+     * every reader, including rows that cross the end of a buffer.
+     */
+    @Test
+    public void test034_test001_GzipFilesAreDecompressedWhileRead() throws Exception {
+        String source = "src/test/java/sphereWizard/ProductSystem/testEXAMPLECOMPLETESUPPLYCHAIN.csv";
+        Path packed = Files.createTempFile("compressed", ".csv.gz");
+        try (OutputStream output = new GZIPOutputStream(
+                Files.newOutputStream(packed))) {
+            Files.copy(Paths.get(source), output);
+        }
+
+        try {
+            ProductSystemData expected = new ProductSystemData();
+            expected.readCsv(source, ";");
+
+            ProductSystemData compressed = new ProductSystemData();
+            compressed.readCsv(packed.toString(), ";");
+            assertSameProcesses(expected, compressed);
+
+            ProductSystemData mapped = new ProductSystemData();
+            mapped.readCsvParallel(packed.toString(), ";");
+            assertSameProcesses(expected, mapped);
+
+            for (int bufferSize : new int[] { 7, 100, 4096 }) {
+                FlowTableReader reader = new FlowTableReader(";");
+                reader.setStreamBufferSize(bufferSize);
+                ProductSystemData streamed = new ProductSystemData();
+                reader.read(packed.toString(), streamed);
+                assertSameProcesses(expected, streamed);
+                assertEquals(FlowTotals.of(expected.getProcesses()), reader.summarize(packed.toString()).getTotals());
+            }
+
+            assertThrows(IOException.class, () -> FlowTableIndex.build(packed.toString(), ";"));
+        } finally {
+            Files.deleteIfExists(packed);
+        }
+    }
+
+    /**
+     * Test that readCsv throws when a file compressed with gzip is cut,
+     * instead of loading the processes before the cut as the whole file.
+     */
+    @Test
+    public void test034_test002_CutGzipFilesFail() throws Exception {
+        String source = "src/test/java/sphereWizard/ProductSystem/testEXAMPLECOMPLETESUPPLYCHAIN.csv";
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream output = new GZIPOutputStream(compressed)) {
+            Files.copy(Paths.get(source), output);
+        }
+        byte[] bytes = compressed.toByteArray();
+
+        Path cut = Files.createTempFile("cut", ".csv.gz");
+        try {
+            Files.write(cut, Arrays.copyOf(bytes, bytes.length - 12));
+
+            ProductSystemData data = new ProductSystemData();
+            assertThrows(IOException.class, () -> data.readCsv(cut.toString(), ";"));
+        } finally {
+            Files.deleteIfExists(cut);
+        }
+    }
+
+    /**
+     * Test that the published processes are the processes readCsv adds, in
+     * the same order, when they are requested one at a time.
+     */
+    @Test
+    public void test035_test001_PublishedProcessesMatchTheFile() throws Exception {
+        String path = "src/test/java/sphereWizard/ProductSystem/testEXAMPLECOMPLETESUPPLYCHAIN.csv";
+        ProductSystemData expected = new ProductSystemData();
+        expected.readCsv(path, ";");
+
+        ProcessCollector collector = new ProcessCollector(1);
+        new ProductSystemData().publishCsv(path, ";").subscribe(collector);
+        collector.done.get(10, TimeUnit.SECONDS);
+
+        assertSameProcesses(expected, new ProductSystemData(collector.processes));
+        assertEquals(FlowTotals.of(expected.getProcesses()), FlowTotals.of(collector.processes));
+    }
+
+    /**
+     * Test that the file is not read past what was requested, that a
+     * cancelled subscription stops, and that errors reach the subscriber.
+     */
+    @Test
+    public void test035_test002_PublisherFollowsTheDemand() throws Exception {
+        String path = "src/test/java/sphereWizard/ProductSystem/testEXAMPLECOMPLETESUPPLYCHAIN.csv";
+
+        ProcessCollector collector = new ProcessCollector(0);
+        new ProductSystemData().publishCsv(path, ";").subscribe(collector);
+        collector.subscription.request(1);
+        Thread.sleep(200);
+        assertEquals(1, collector.processes.size());
+        assertFalse(collector.done.isDone());
+        collector.subscription.cancel();
+        Thread.sleep(100);
+        assertEquals(1, collector.processes.size());
+        assertFalse(collector.done.isDone());
+
+        ProcessCollector missing = new ProcessCollector(1);
+        new ProductSystemData().publishCsv("missing.csv", ";").subscribe(missing);
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> missing.done.get(10, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof FileNotFoundException);
+
+        ProcessCollector invalid = new ProcessCollector(0);
+        new ProductSystemData().publishCsv(path, ";").subscribe(invalid);
+        invalid.subscription.request(0);
+        error = assertThrows(ExecutionException.class,
+                () -> invalid.done.get(10, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof IllegalArgumentException);
+        assertTrue(invalid.processes.isEmpty());
+    }
+
+    /**
+     * Collects published processes, requesting a number of them at first and
+     * one more after each one received.
+     */
+    private static final class ProcessCollector implements java.util.concurrent.Flow.Subscriber<Process> {
+        private final ArrayList<Process> processes = new ArrayList<>();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private final long initialRequest;
+        private volatile java.util.concurrent.Flow.Subscription subscription;
+
+        private ProcessCollector(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(java.util.concurrent.Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(Process process) {
+            synchronized (processes) {
+                processes.add(process);
+            }
+            if (initialRequest > 0) {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            done.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(null);
+        }
+    }
+
+    /**
+     * Test that a lenient read skips every bad row, records where it is and
+     * why, and keeps the good rows, with every reader.
+     */
+    @Test
+    public void test036_test001_LenientReadRecordsEveryBadRow() throws Exception {
+        String path = "src/test/java/sphereWizard/ProductSystem/testBadRows.csv";
+        List<LoadDiagnostics.Problem> expected = List.of(
+                new LoadDiagnostics.Problem(5, 3, LoadDiagnostics.Reason.ZERO_QUANTITY),
+                new LoadDiagnostics.Problem(6, 4, LoadDiagnostics.Reason.UNKNOWN_UNIT),
+                new LoadDiagnostics.Problem(10, 3, LoadDiagnostics.Reason.INVALID_QUANTITY),
+                new LoadDiagnostics.Problem(11, 5, LoadDiagnostics.Reason.UNKNOWN_FLOW_TYPE),
+                new LoadDiagnostics.Problem(12, 7, LoadDiagnostics.Reason.MISSING_CELLS),
+                new LoadDiagnostics.Problem(14, 7, LoadDiagnostics.Reason.ZERO_QUANTITY));
+
+        assertThrows(IllegalArgumentException.class, () -> new ProductSystemData().readCsv(path, ";"));
+
+        ProductSystemData data = new ProductSystemData();
+        data.setDiagnostics(new LoadDiagnostics());
+        data.readCsv(path, ";");
+        assertEquals(expected, data.getDiagnostics().getProblems());
+        assertEquals(2, data.getProcesses().size());
+        assertEquals(1, data.getProcesses().get(0).getOutputFlows().size());
+        assertEquals(10, data.getProcesses().get(0).getOutputFlows().get(0).getValue());
+        assertEquals(1, data.getProcesses().get(1).getInputFlows().size());
+        assertEquals(OutputFlowTypes.RECYCLED_MATERIAL, data.getProcesses().get(1).getOutputFlows().get(0).getName());
+
+        ProductSystemData mapped = new ProductSystemData();
+        mapped.setDiagnostics(new LoadDiagnostics());
+        mapped.readCsvMapped(path, ";");
+        assertEquals(expected, mapped.getDiagnostics().getProblems());
+        assertSameProcesses(data, mapped);
+
+        // The problems of every range get their line numbers in the file
+        FlowTableReader reader = new FlowTableReader(";");
+        reader.setParallelism(4);
+        reader.setMinRangeSize(1);
+        reader.setDiagnostics(new LoadDiagnostics());
+        ProductSystemData parallel = new ProductSystemData();
+        reader.read(path, parallel);
+        assertEquals(expected, reader.getDiagnostics().getProblems());
+        assertSameProcesses(data, parallel);
+    }
+
+    /**
+     * Test that only the first problems are kept, while every one is counted.
+     */
+    @Test
+    public void test036_test002_DiagnosticsKeepOnlyTheFirstProblems() throws Exception {
+        String path = "src/test/java/sphereWizard/ProductSystem/testBadRows.csv";
+
+        for (int parallelism : new int[] { 1, 4 }) {
+            FlowTableReader reader = new FlowTableReader(";");
+            reader.setParallelism(parallelism);
+            reader.setMinRangeSize(1);
+            reader.setDiagnostics(new LoadDiagnostics(2));
+            reader.read(path, new ProductSystemData());
+
+            LoadDiagnostics diagnostics = reader.getDiagnostics();
+            assertEquals(6, diagnostics.getProblemCount());
+            assertTrue(diagnostics.isTruncated());
+            assertEquals(List.of(new LoadDiagnostics.Problem(5, 3, LoadDiagnostics.Reason.ZERO_QUANTITY),
+                    new LoadDiagnostics.Problem(6, 4, LoadDiagnostics.Reason.UNKNOWN_UNIT)),
+                    diagnostics.getProblems());
+            assertTrue(diagnostics.toString().startsWith("6 rows skipped"));
+        }
+
+        LoadDiagnostics counted = new LoadDiagnostics(0);
+        counted.record(1, 1, LoadDiagnostics.Reason.MISSING_CELLS);
+        assertEquals(1, counted.getProblemCount());
+        assertTrue(counted.getProblems().isEmpty());
+        counted.clear();
+        assertFalse(counted.hasProblems());
+    }
+
+    /**
+     * Test that a parallel lenient read keeps a process whose rows were all
+     * skipped, and the process without flows after it, like readCsv does.
+     */
+    @Test
+    public void test036_test003_ParallelReadKeepsProcessesOfBadRows() throws Exception {
+        String source = "src/test/java/sphereWizard/ProductSystem/testBadRows.csv";
+        String bad = ";;;Vazio;Nenhuma;;;\n"
+                + "Input;;;;Output;;;\n"
+                + "flow;categoria;Quantidade;Unit;flow;categoria;quantidade;unit\n"
+                + "ferro;Recurso do solo;xyz;KG;Virgin Material;Circularidade;2;KG\n"
+                + "cobre;Recurso do solo;1;KG;Virgin Material;Circularidade\n"
+                + ";;;Sem fluxos;Nenhuma;;;\n"
+                + "Input;;;;Output;;;\n"
+                + "flow;categoria;Quantidade;Unit;flow;categoria;quantidade;unit\n";
+
+        Path file = Files.createTempFile("badFirst", ".csv");
+        try {
+            Files.writeString(file, bad + Files.readString(Paths.get(source)));
+
+            ProductSystemData expected = new ProductSystemData();
+            expected.setDiagnostics(new LoadDiagnostics());
+            expected.readCsv(file.toString(), ";");
+            assertEquals(4, expected.getProcesses().size());
+            assertEquals("Vazio", expected.getProcesses().get(0).getName());
+            assertTrue(expected.getProcesses().get(0).getOutputFlows().isEmpty());
+            assertEquals("Sem fluxos", expected.getProcesses().get(1).getName());
+
+            FlowTableReader reader = new FlowTableReader(";");
+            reader.setParallelism(4);
+            reader.setMinRangeSize(1);
+            reader.setDiagnostics(new LoadDiagnostics());
+            ProductSystemData parallel = new ProductSystemData();
+            reader.read(file.toString(), parallel);
+            assertEquals(expected.getDiagnostics().getProblems(), reader.getDiagnostics().getProblems());
+            assertSameProcesses(expected, parallel);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Compares the processes of two ProductSystemData objects. Input flow names
+     * are left out because readCsv decodes them with the platform charset.
+     */
+    private static void assertSameProcesses(ProductSystemData expected, ProductSystemData actual) {
+        assertEquals(expected.getProcesses().size(), actual.getProcesses().size(), "Process count should match.");
+
+        for (int i = 0; i < expected.getProcesses().size(); i++) {
+            Process expectedProcess = expected.getProcesses().get(i);
+            Process actualProcess = actual.getProcesses().get(i);
+
+            assertEquals(expectedProcess.getName(), actualProcess.getName());
+            assertEquals(expectedProcess.getCategory(), actualProcess.getCategory());
+            assertEquals(expectedProcess.getOutputFlows().toString(), actualProcess.getOutputFlows().toString());
+            assertEquals(expectedProcess.getInputFlows().size(), actualProcess.getInputFlows().size());
+
+            for (int j = 0; j < expectedProcess.getInputFlows().size(); j++) {
+                InputFlow expectedFlow = expectedProcess.getInputFlows().get(j);
+                InputFlow actualFlow = actualProcess.getInputFlows().get(j);
+                assertEquals(expectedFlow.getValue(), actualFlow.getValue());
+                assertEquals(expectedFlow.getUnit(), actualFlow.getUnit());
+            }
+        }
+    }
 }
@@ -1,14 +1,24 @@
 package sphereWizard.ProductSystem;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import sphereWizard.Enums.OutputFlowTypes;
+import sphereWizard.Enums.UnitEnums.Mass;
 import sphereWizard.Exceptions.EmptyListException;
 import sphereWizard.Exceptions.FlowOutputNotRecognizedException;
 import sphereWizard.Exceptions.UnitNotRecognizedException;
+import sphereWizard.FlowProcessStructure.FlowTable;
+import sphereWizard.FlowProcessStructure.OutputFlow;
+import sphereWizard.FlowProcessStructure.Process;
 
 /**
  * The {@code ProductSystemTest} class contains JUnit tests for the {@link ProductSystem} class.
@@ -155,5 +165,243 @@ public class ProductSystemTest {
         assertEquals(newproductSystemData, productSystemInstance.getProductSystemData());
     }
 
+    /**
+     * Test that the single-pass totals match the value of each output flow type
+     * calculated on its own.
+     * @throws EmptyListException if productSystemData object is empty
+     */
+    @Test
+    public void test024_test001_FlowTotalsMatchEachFlowType() throws EmptyListException {
+
+        ProductSystem productSystemInstance = new ProductSystem(productSystemData, 5, 10);
+
+        FlowTotals totals = productSystemInstance.calculateFlowTotals();
+
+        for (OutputFlowTypes flowType : OutputFlowTypes.values()) {
+            assertEquals(productSystemInstance.calculateFlowValue(flowType), totals.get(flowType));
+        }
+        assertEquals(productSystemInstance.calculateMass(), totals.getMass());
+        assertEquals(productSystemInstance.calculateWasteEliminated(), totals.getWasteEliminated());
+        assertEquals(productSystemInstance.calculateRecycledInput(), totals.getRecycledInput());
+    }
+
+    /**
+     * Test that calculateAllMethods fills every result from one set of totals.
+     * @throws EmptyListException if productSystemData object is empty
+     */
+    @Test
+    public void test024_test002_CalculateAllMethodsUsesTotals() throws EmptyListException {
+
+        ProductSystem productSystemInstance = new ProductSystem(productSystemData, 5, 10);
+
+        productSystemInstance.calculateAllMethods();
+
+        assertEquals(expectedMass, productSystemInstance.getMass(), 0.01);
+        assertEquals(expectedRecycledInput, productSystemInstance.getRecycledInput(), 0.01);
+        assertEquals(expectedWasteEliminated, productSystemInstance.getWasteEliminated(), 0.01);
+        assertEquals(productSystemInstance.getFlowTotals(), FlowTotals.of(productSystemData.getProcesses()));
+    }
+
+    /**
+     * Test that the parallel totals are the same, bit for bit, whatever the
+     * number of threads, and that compensated summation keeps the small values
+     * that a plain sum loses.
+     */
+    @Test
+    public void test025_test001_ParallelTotalsAreDeterministic() {
+        FlowTable.Builder builder = new FlowTable.Builder();
+        for (int i = 0; i < 3000; i++) {
+            builder.startProcess("Processo " + i, "Categoria")
+                    .addOutputFlow(OutputFlowTypes.VIRGIN_MATERIAL, "Circularidade", 1e16, Mass.KG)
+                    .addOutputFlow(OutputFlowTypes.VIRGIN_MATERIAL, "Circularidade", 1.0, Mass.KG)
+                    .addOutputFlow(OutputFlowTypes.VIRGIN_MATERIAL, "Circularidade", -1e16, Mass.KG)
+                    .addOutputFlow(OutputFlowTypes.RECYCLED_MATERIAL, "Circularidade", 0.1, Mass.KG);
+        }
+        List<Process> processes = builder.build().getProcesses();
+
+        FlowTotals expected = null;
+        for (int threads : new int[] { 1, 2, 3, 8 }) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                FlowTotals totals = FlowTotals.ofParallel(processes, pool);
+                if (expected == null) {
+                    expected = totals;
+                }
+                assertEquals(expected, totals);
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        assertEquals(3000.0, expected.getVirginMaterial());
+        assertEquals(300.0, expected.getRecycledMaterial(), 1e-12);
+    }
+
+    /**
+     * Test that a product system with an aggregation pool calculates the same
+     * quantities as the sequential one.
+     * @throws EmptyListException if productSystemData object is empty
+     */
+    @Test
+    public void test025_test002_AggregationPoolMatchesSequentialTotals() throws EmptyListException {
 
+        ProductSystem productSystemInstance = new ProductSystem(productSystemData, 5, 10);
+        FlowTotals sequential = productSystemInstance.calculateFlowTotals();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            productSystemInstance.setAggregationPool(pool);
+            FlowTotals parallel = productSystemInstance.calculateFlowTotals();
+
+            for (OutputFlowTypes flowType : OutputFlowTypes.values()) {
+                assertEquals(sequential.get(flowType), parallel.get(flowType), 1e-9);
+            }
+            assertEquals(expectedMass, productSystemInstance.calculateMass(), 0.01);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Test that changing, adding and removing output flows keeps the totals and
+     * results equal to a full recalculation.
+     * @throws Exception if the file cannot be read
+     */
+    @Test
+    public void test041_test001_FlowMutationsUpdateTotals() throws Exception {
+        ProductSystemData data = new ProductSystemData();
+        data.readCsv("src/test/java/sphereWizard/ProductSystem/testEXAMPLECOMPLETESUPPLYCHAIN.csv", ";");
+        ProductSystem productSystemInstance = new ProductSystem(data, 5, 10);
+        Process first = data.getProcesses().get(0);
+        Process last = data.getProcesses().get(data.getProcesses().size() - 1);
+
+        productSystemInstance.updateOutputFlowValue(first, 0, 250.5);
+        assertEquals(250.5, first.getOutputFlows().get(0).getValue());
+        assertTotalsMatchFullCalculation(productSystemInstance, data);
+
+        productSystemInstance.addOutputFlow(last,
+                new OutputFlow(OutputFlowTypes.RECOVERED_RECYCLED_MATERIAL, "Circularidade", 12.25, Mass.KG));
+        assertTotalsMatchFullCalculation(productSystemInstance, data);
+
+        int flowCount = first.getOutputFlows().size();
+        OutputFlow second = first.getOutputFlows().get(1);
+        OutputFlow removed = productSystemInstance.removeOutputFlow(first, 1);
+        assertEquals(second.toString(), removed.toString());
+        assertEquals(flowCount - 1, first.getOutputFlows().size());
+        assertTotalsMatchFullCalculation(productSystemInstance, data);
+
+        for (int i = 0; i < 1000; i++) {
+            productSystemInstance.updateOutputFlowValue(first, 0, 0.1 * i);
+        }
+        assertTotalsMatchFullCalculation(productSystemInstance, data);
+    }
+
+    private static void assertTotalsMatchFullCalculation(ProductSystem productSystemInstance, ProductSystemData data) {
+        FlowTotals expected = FlowTotals.of(data.getProcesses());
+        FlowTotals actual = productSystemInstance.getFlowTotals();
+
+        for (OutputFlowTypes flowType : OutputFlowTypes.values()) {
+            assertEquals(expected.get(flowType), actual.get(flowType), 1e-9);
+        }
+        assertEquals(expected.getMass(), productSystemInstance.getMass(), 1e-9);
+        assertEquals(expected.getWasteEliminated(), productSystemInstance.getWasteEliminated(), 1e-9);
+        assertEquals(expected.getRecycledInput(), productSystemInstance.getRecycledInput(), 1e-9);
+    }
+
+    /**
+     * Test that the totals are only calculated again when the data changes.
+     * @throws Exception if the file cannot be read
+     */
+    @Test
+    public void test042_test001_TotalsAreCachedPerDataVersion() throws Exception {
+        ProductSystemData data = new ProductSystemData();
+        data.readCsv("src/test/java/sphereWizard/ProductSystem/testEXAMPLECOMPLETESUPPLYCHAIN.csv", ";");
+        ProductSystem productSystemInstance = new ProductSystem(data, 5, 10);
+
+        FlowTotals totals = productSystemInstance.calculateFlowTotals();
+        productSystemInstance.calculateAllMethods();
+        productSystemInstance.calculateMass();
+        assertSame(totals, productSystemInstance.calculateFlowTotals());
+
+        // A change made straight to a flow is seen too
+        Process first = data.getProcesses().get(0);
+        first.getOutputFlows().get(0).setValue(first.getOutputFlows().get(0).getValue() + 1);
+        FlowTotals changed = productSystemInstance.calculateFlowTotals();
+        assertNotSame(totals, changed);
+        assertEquals(FlowTotals.of(data.getProcesses()), changed);
+
+        data.getProcesses().add(new Process("Reciclagem", "Fim de vida"));
+        assertNotSame(changed, productSystemInstance.calculateFlowTotals());
+
+        // Another product system sharing the data sees changes made through the mutation methods
+        ProductSystem other = new ProductSystem(data, 5, 10);
+        FlowTotals otherTotals = other.calculateFlowTotals();
+        productSystemInstance.updateOutputFlowValue(first, 0, 3.0);
+        assertNotSame(otherTotals, other.calculateFlowTotals());
+        assertEquals(FlowTotals.of(data.getProcesses()), other.calculateFlowTotals());
+    }
+
+    /**
+     * Test that the totals follow the processes of the data, not the list the
+     * data was made from, which the data copies.
+     * @throws Exception if no process is selected
+     */
+    @Test
+    public void test044_test001_TotalsIgnoreTheGivenList() throws Exception {
+        ArrayList<Process> given = new ArrayList<>(List.of(virginMaterial("Extracao", 10)));
+        ProductSystemData data = new ProductSystemData(given);
+        ProductSystem productSystemInstance = new ProductSystem(data, 5, 10);
+        assertEquals(10.0, productSystemInstance.calculateMass());
+
+        given.add(virginMaterial("Transporte", 5));
+        given.set(0, virginMaterial("Extracao", 100));
+        assertEquals(10.0, productSystemInstance.calculateMass());
+        assertEquals(FlowTotals.of(data.getProcesses()), productSystemInstance.calculateFlowTotals());
+
+        data.getProcesses().add(virginMaterial("Transporte", 5));
+        assertEquals(15.0, productSystemInstance.calculateMass());
+        data.getProcesses().set(0, virginMaterial("Extracao", 100));
+        assertEquals(105.0, productSystemInstance.calculateMass());
+    }
+
+    /**
+     * Test that changing the flows of one product system keeps the totals
+     * cached by another one.
+     * @throws Exception if the file cannot be read
+     */
+    @Test
+    public void test045_test001_UnrelatedChangesKeepTotals() throws Exception {
+        ProductSystemData data = new ProductSystemData();
+        data.readCsv("src/test/java/sphereWizard/ProductSystem/testEXAMPLECOMPLETESUPPLYCHAIN.csv", ";");
+        ProductSystem productSystemInstance = new ProductSystem(data, 5, 10);
+        FlowTotals totals = productSystemInstance.calculateFlowTotals();
+
+        ProductSystemData other = new ProductSystemData(new ArrayList<>(List.of(virginMaterial("Extracao", 10))));
+        ProductSystemData otherTable = new ProductSystemData();
+        otherTable.readCsv("src/test/java/sphereWizard/ProductSystem/testEXAMPLECOMPLETESUPPLYCHAIN.csv", ";");
+        other.getProcesses().get(0).getOutputFlows().get(0).setValue(20);
+        otherTable.getProcesses().get(0).getOutputFlows().get(0).setValue(20);
+        otherTable.getProcesses().get(0).getOutputFlows().remove(0);
+        assertSame(totals, productSystemInstance.calculateFlowTotals());
+
+        // A flow added to the data counts for it
+        OutputFlow added = new OutputFlow(OutputFlowTypes.VIRGIN_MATERIAL, "Materia prima", 5, Mass.KG);
+        data.getProcesses().get(0).getOutputFlows().add(added);
+        added.setValue(7);
+        assertEquals(FlowTotals.of(data.getProcesses()), productSystemInstance.calculateFlowTotals());
+
+        // A process removed from the data no longer counts for it
+        Process removed = new Process("Reciclagem", "Fim de vida");
+        data.getProcesses().add(removed);
+        data.getProcesses().remove(removed);
+        FlowTotals withoutRemoved = productSystemInstance.calculateFlowTotals();
+        removed.getOutputFlows().add(new OutputFlow(OutputFlowTypes.VIRGIN_MATERIAL, "Materia prima", 5, Mass.KG));
+        assertSame(withoutRemoved, productSystemInstance.calculateFlowTotals());
+    }
+
+    private static Process virginMaterial(String name, double mass) {
+        List<OutputFlow> outputFlows = List.of(
+                new OutputFlow(OutputFlowTypes.VIRGIN_MATERIAL, "Materia prima", mass, Mass.KG));
+        return new Process(name, "Fabrico", new ArrayList<>(), new ArrayList<>(outputFlows));
+    }
 }
@@ -0,0 +1,143 @@
+package sphereWizard.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import sphereWizard.Util.BackgroundInflater;
+
+/**
+ * Unit tests for the {@link BackgroundInflater} class.
+ *
+ * These tests check that the decompressed bytes are exactly the original
+ * bytes, whatever the size of the buffers, and that damaged streams fail.
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public class BackgroundInflaterTest {
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream output = new GZIPOutputStream(compressed)) {
+            output.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static byte[] readAll(InputStream input, int chunk) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        byte[] buffer = new byte[chunk];
+        int read;
+        while ((read = input.read(buffer, 0, buffer.length)) >= 0) {
+            result.write(buffer, 0, read);
+        }
+        return result.toByteArray();
+    }
+
+    /**
+     * Test that the bytes read are the original bytes, with buffers smaller
+     * than, equal to and larger than the data.
+     */
+    @Test
+    public void test001DecompressesExactly() throws IOException {
+        SplittableRandom random = new SplittableRandom(23);
+        byte[] original = new byte[100000];
+        for (int i = 0; i < original.length; i++) {
+            // Compressible, like the text of a flow table
+            original[i] = (byte) ('a' + random.nextInt(8));
+        }
+        byte[] compressed = gzip(original);
+
+        for (int bufferSize : new int[] { 1, 777, 100000, 1 << 20 }) {
+            try (InputStream input = new BackgroundInflater(new ByteArrayInputStream(compressed), bufferSize, 2)) {
+                assertTrue(Arrays.equals(original, readAll(input, 4096)));
+                assertEquals(-1, input.read());
+            }
+        }
+
+        try (InputStream input = new BackgroundInflater(new ByteArrayInputStream(compressed), 1000, 3)) {
+            assertEquals(original[0] & 0xFF, input.read());
+            assertTrue(Arrays.equals(Arrays.copyOfRange(original, 1, original.length), readAll(input, 1)));
+        }
+
+        try (InputStream input = new BackgroundInflater(new ByteArrayInputStream(gzip(new byte[0])))) {
+            assertEquals(-1, input.read());
+        }
+    }
+
+    /**
+     * Test that a damaged or cut stream fails instead of ending early, and
+     * that files are only decompressed when they start with the gzip magic
+     * bytes.
+     */
+    @Test
+    public void test002DetectsAndRejects() throws IOException {
+        byte[] original = "flow;categoria;Quantidade;Unit\n".repeat(1000).getBytes();
+        byte[] compressed = gzip(original);
+
+        byte[] cut = Arrays.copyOf(compressed, compressed.length / 2);
+        try (InputStream input = new BackgroundInflater(new ByteArrayInputStream(cut), 512, 2)) {
+            assertThrows(IOException.class, () -> readAll(input, 4096));
+            // Reading again must not look like the end of the stream
+            assertThrows(IOException.class, () -> input.read());
+            assertThrows(IOException.class, () -> input.read(new byte[16], 0, 16));
+        }
+
+        Path plain = Files.createTempFile("plain", ".csv");
+        Path packed = Files.createTempFile("packed", ".csv.gz");
+        try {
+            Files.write(plain, original);
+            Files.write(packed, compressed);
+
+            assertFalse(BackgroundInflater.isGzip(plain));
+            assertTrue(BackgroundInflater.isGzip(packed));
+            try (InputStream input = BackgroundInflater.open(plain.toString())) {
+                assertTrue(Arrays.equals(original, readAll(input, 4096)));
+            }
+            try (InputStream input = BackgroundInflater.open(packed.toString())) {
+                assertTrue(input instanceof BackgroundInflater);
+                assertTrue(Arrays.equals(original, readAll(input, 4096)));
+            }
+        } finally {
+            Files.deleteIfExists(plain);
+            Files.deleteIfExists(packed);
+        }
+    }
+
+    /**
+     * Test that an unchecked exception thrown while decompressing is thrown by
+     * the reader instead of leaving it waiting for the next buffer.
+     */
+    @Test
+    public void test003ReportsUncheckedErrors() throws IOException {
+        byte[] compressed = gzip("flow;categoria;Quantidade;Unit\n".repeat(1000).getBytes());
+        InputStream failing = new ByteArrayInputStream(compressed) {
+            @Override
+            public synchronized int read(byte[] bytes, int offset, int length) {
+                if (pos > 0) {
+                    throw new IllegalStateException("Broken stream");
+                }
+                return super.read(bytes, offset, Math.min(length, 64));
+            }
+        };
+
+        try (InputStream input = new BackgroundInflater(failing, 512, 2)) {
+            IOException e = assertThrows(IOException.class, () -> readAll(input, 4096));
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package sphereWizard.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import sphereWizard.Util.DecimalParser;
+
+/**
+ * Unit tests for the {@link DecimalParser} class.
+ *
+ * These tests check that the parser rounds exactly like
+ * {@link Double#parseDouble}, and that it reads comma decimals and grouped
+ * digits.
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public class DecimalParserTest {
+
+    private static double parseBytes(DecimalParser parser, String text) {
+        byte[] bytes = ("  ;" + text + ";").getBytes(StandardCharsets.UTF_8);
+        return parser.parse(ByteBuffer.wrap(bytes), 3, bytes.length - 1);
+    }
+
+    /**
+     * Test that random numbers parse to the same double as Double.parseDouble.
+     */
+    @Test
+    public void test001MatchesParseDouble() {
+        SplittableRandom random = new SplittableRandom(17);
+        DecimalParser comma = new DecimalParser(',');
+
+        for (int i = 0; i < 100000; i++) {
+            String text;
+            switch (i % 4) {
+                case 0:
+                    text = Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(-30, 30)));
+                    break;
+                case 1:
+                    text = random.nextInt(1000000) + "." + random.nextInt(1000000);
+                    break;
+                case 2:
+                    // More significant digits than the fast path handles
+                    text = random.nextLong(1L << 62) + "." + random.nextLong(1L << 62);
+                    break;
+                default:
+                    text = "-" + random.nextInt(100) + "e" + random.nextInt(-330, 330);
+                    break;
+            }
+
+            double expected = Double.parseDouble(text);
+            assertEquals(expected, DecimalParser.DEFAULT.parse(text), text);
+            assertEquals(expected, parseBytes(DecimalParser.DEFAULT, text), text);
+            assertEquals(expected, comma.parse(text.replace('.', ',')), text);
+        }
+
+        for (String text : new String[] { "0", "-0", "0.1", "1e23", "9007199254740993", "2.2250738585072014E-308",
+                " 42 ", ".5", "5.", "+7", "Infinity", "NaN", "1d" }) {
+            assertEquals(Double.parseDouble(text), DecimalParser.DEFAULT.parse(text), text);
+        }
+    }
+
+    /**
+     * Test that comma decimals and grouped digits are read.
+     */
+    @Test
+    public void test002CommaDecimalsAndGrouping() {
+        DecimalParser portuguese = new DecimalParser(',', '.');
+
+        assertEquals(1000.5, portuguese.parse("1000,5"));
+        assertEquals(1000.5, portuguese.parse("1.000,5"));
+        assertEquals(-1234567.25, parseBytes(portuguese, "-1.234.567,25"));
+        assertEquals(0.25, portuguese.parse("0,25"));
+        assertEquals(12345.0, portuguese.parse("012.345"));
+        assertEquals(12000.0, new DecimalParser('.', ',').parse("12,000"));
+        assertEquals(12000.0, new DecimalParser('.', ' ').parse("12 000"));
+    }
+
+    /**
+     * Test that malformed numbers are rejected.
+     */
+    @Test
+    public void test003MalformedNumbersAreRejected() {
+        DecimalParser portuguese = new DecimalParser(',', '.');
+
+        for (String text : new String[] { "", "abc", "1,2,3", "1.00,5", "1.0000", ".5.", "1e", "Infinity", "1,5x",
+                "1234.567,5", "0012.345" }) {
+            assertThrows(NumberFormatException.class, () -> portuguese.parse(text), text);
+            assertTrue(Double.isNaN(portuguese.parseOrNaN(text)), text);
+        }
+        assertThrows(NumberFormatException.class, () -> DecimalParser.DEFAULT.parse("1000,5"));
+        assertThrows(NumberFormatException.class, () -> parseBytes(DecimalParser.DEFAULT, "1.5.5"));
+        assertThrows(IllegalArgumentException.class, () -> new DecimalParser(',', ','));
+        assertThrows(IllegalArgumentException.class, () -> new DecimalParser(';'));
+    }
+
+    /**
+     * Test that parseOrNaN gives the same numbers as parse, and NaN where
+     * parse would throw.
+     */
+    @Test
+    public void test004ParseOrNaNDoesNotThrow() {
+        DecimalParser comma = new DecimalParser(',', '.');
+        assertEquals(1000.5, comma.parseOrNaN("1.000,5"));
+        assertEquals(-2.5e-3, DecimalParser.DEFAULT.parseOrNaN("-2.5e-3"));
+
+        for (String text : new String[] { "abc", "", "1.5.5", "1e", "12.34,5", "Infinity" }) {
+            assertTrue(Double.isNaN(DecimalParser.DEFAULT.parseOrNaN(text)));
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            assertTrue(Double.isNaN(DecimalParser.DEFAULT.parseOrNaN(ByteBuffer.wrap(bytes), 0, bytes.length)));
+        }
+        assertTrue(Double.isNaN(comma.parseOrNaN("1,000.5")));
+    }
+}
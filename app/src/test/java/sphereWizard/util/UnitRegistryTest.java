@@ -0,0 +1,160 @@
+package sphereWizard.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.StringReader;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import sphereWizard.Enums.UnitEnums.Area;
+import sphereWizard.Enums.UnitEnums.Distance;
+import sphereWizard.Enums.UnitEnums.Energy;
+import sphereWizard.Enums.UnitEnums.Mass;
+import sphereWizard.Enums.UnitEnums.Volume;
+import sphereWizard.Exceptions.UnitNotRecognizedException;
+import sphereWizard.FlowProcessStructure.Flow;
+import sphereWizard.FlowProcessStructure.InputFlow;
+import sphereWizard.Util.Converter;
+import sphereWizard.Util.UnitRegistry;
+
+/**
+ * Unit tests for the {@link UnitRegistry} class.
+ *
+ * These tests check that every unit is found from its token and converts
+ * exactly like the {@link Converter} did, and that units can be added from a
+ * configuration.
+ *
+ * @author Group 22
+ * @version 1.0
+ */
+public class UnitRegistryTest {
+
+    private static final Enum<?>[][] UNITS = { Mass.values(), Energy.values(), Volume.values(),
+            Distance.values(), Area.values() };
+
+    /**
+     * Test that every unit is found from its name, whatever its case and the
+     * whitespace around it, and from its aliases.
+     */
+    @Test
+    public void test001FindsEveryUnit() throws UnitNotRecognizedException {
+        UnitRegistry registry = UnitRegistry.standard();
+
+        for (Enum<?>[] units : UNITS) {
+            for (Enum<?> unit : units) {
+                int id = registry.idOf(unit);
+                assertEquals(id, registry.lookup(unit.name()));
+                assertEquals(id, registry.lookup(unit.name().toLowerCase()));
+                assertEquals(id, registry.lookup(" " + unit.name() + "\t"));
+                assertEquals(unit, registry.getUnit(id));
+                assertEquals(unit.name(), registry.getName(id));
+            }
+        }
+
+        assertEquals(registry.idOf(Mass.KG), registry.lookup("Kilogram"));
+        assertEquals(registry.idOf(Volume.L), registry.lookup("litres"));
+        assertEquals(registry.idOf(Area.HM2), registry.lookup("HA"));
+        assertEquals(registry.idOf(Energy.KWH), registry.lookup("KwH"));
+        assertEquals(UnitRegistry.UNKNOWN, registry.find("KGG"));
+        assertEquals(UnitRegistry.UNKNOWN, registry.find(""));
+        assertThrows(UnitNotRecognizedException.class, () -> registry.lookup("furlong"));
+    }
+
+    /**
+     * Test that every unit converts to the same value and unit as the
+     * Converter.
+     */
+    @Test
+    public void test002ConvertsLikeTheConverter() {
+        UnitRegistry registry = UnitRegistry.standard();
+        Converter converter = new Converter();
+        double[] values = { 1, 0.25, 3.6, 1000.5, 123456.789, 1e-7 };
+
+        for (Enum<?>[] units : UNITS) {
+            for (Enum<?> unit : units) {
+                int id = registry.idOf(unit);
+                for (double value : values) {
+                    Flow flow = new InputFlow("Name", "Category", value, unit);
+                    converter.convert(flow);
+
+                    assertEquals(flow.getValue(), registry.toStandard(id, value));
+                    assertEquals(flow.getUnit(), registry.getStandardUnit(id));
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that units and aliases are added from a configuration, converting
+     * through the unit they are defined with.
+     */
+    @Test
+    public void test003AddsUnitsFromConfiguration() throws Exception {
+        UnitRegistry registry = UnitRegistry.standard().withUnits(new StringReader(
+                "# Imperial units\n"
+                        + "lb;KG;0.45359237\n"
+                        + "\n"
+                        + "pound;lb\n"
+                        + "ktoe;MJ;41868\n"));
+
+        int pound = registry.lookup("LB");
+        assertEquals(pound, registry.lookup("Pound"));
+        assertNull(registry.getUnit(pound));
+        assertEquals(UnitRegistry.Dimension.MASS, registry.getDimension(pound));
+        assertEquals(Mass.KG, registry.getStandardUnit(pound));
+        assertEquals(0.45359237 * 2, registry.toStandard(pound, 2));
+        assertEquals(41868 * 1000000.0, registry.toStandard(registry.lookup("ktoe"), 1));
+        assertEquals(UnitRegistry.standard().size() + 2, registry.size());
+
+        // The standard registry is left as it was
+        assertEquals(UnitRegistry.UNKNOWN, UnitRegistry.standard().find("lb"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> UnitRegistry.standard().withUnits(new StringReader("kilogram;G\n")));
+        assertThrows(IllegalArgumentException.class,
+                () -> UnitRegistry.standard().withUnits(new StringReader("lb;STONE;6.35\n")));
+        assertThrows(IllegalArgumentException.class,
+                () -> UnitRegistry.standard().withUnits(new StringReader("lb;KG;-1\n")));
+        assertThrows(IllegalArgumentException.class,
+                () -> UnitRegistry.standard().withUnits(new StringReader("lb\n")));
+    }
+
+    /**
+     * Test that a column of values is converted in place exactly like every
+     * flow is converted by the Converter, in runs and in mixed units.
+     */
+    @Test
+    public void test004ConvertsColumnsLikeTheConverter() {
+        UnitRegistry registry = UnitRegistry.standard();
+        Converter converter = new Converter();
+        SplittableRandom random = new SplittableRandom(19);
+
+        int size = 10000;
+        double[] values = new double[size];
+        int[] unitIds = new int[size];
+        Flow[] flows = new Flow[size];
+        for (int i = 0; i < size; i++) {
+            // Runs of one unit, as a column of a flow table holds them
+            Enum<?> unit = i % 100 < 60 ? Mass.G : registry.getUnit(random.nextInt(registry.size()));
+            values[i] = random.nextDouble() * 1000;
+            unitIds[i] = registry.idOf(unit);
+            flows[i] = new InputFlow("Name", "Category", values[i], unit);
+        }
+
+        registry.toStandard(values, unitIds, 0, size / 2);
+        registry.toStandard(values, unitIds, size / 2, size);
+        for (int i = 0; i < size; i++) {
+            converter.convert(flows[i]);
+            assertEquals(flows[i].getValue(), values[i]);
+        }
+
+        double[] twice = { 1000, 1000 };
+        assertThrows(IllegalArgumentException.class, () -> registry.toStandard(twice, new int[1]));
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.toStandard(twice, new int[] { 0, UnitRegistry.UNKNOWN }));
+        assertThrows(IndexOutOfBoundsException.class, () -> registry.toStandard(twice, new int[2], 1, 3));
+    }
+}